@@ -0,0 +1,567 @@
+package de.hpi.akka_tutorial;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.typesafe.config.ConfigFactory;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Address;
+import akka.actor.Deploy;
+import akka.actor.Props;
+import akka.remote.RemoteScope;
+import akka.serialization.Serialization;
+import akka.serialization.SerializationExtension;
+import akka.serialization.Serializer;
+import akka.serialization.SerializerWithStringManifest;
+import de.hpi.akka_tutorial.pw.Digests;
+import de.hpi.akka_tutorial.pw.Keyspace;
+import de.hpi.akka_tutorial.pw.Sha256Engine;
+import de.hpi.akka_tutorial.pw.TargetSet;
+import de.hpi.akka_tutorial.remote.actors.Master;
+import de.hpi.akka_tutorial.remote.actors.PWCrackWorker;
+import de.hpi.akka_tutorial.remote.actors.PWMaster;
+import de.hpi.akka_tutorial.remote.actors.SSMaster;
+import de.hpi.akka_tutorial.remote.actors.SSWorker;
+import de.hpi.akka_tutorial.remote.serialization.CompactSerializer;
+import de.hpi.akka_tutorial.ss.LcsEngine;
+import de.hpi.akka_tutorial.ss.PackedDna;
+import de.hpi.akka_tutorial.ss.GeneralizedSuffixAutomaton;
+import de.hpi.akka_tutorial.ss.SuffixAutomaton;
+import de.hpi.akka_tutorial.ss.SuffixAutomatonCache;
+import de.hpi.akka_tutorial.ss.TiledLcs;
+import de.hpi.akka_tutorial.util.AkkaUtils;
+
+/**
+ * Micro benchmarks for the hot paths of the exercise. Run them via {@code --benchmark <name>}; the tests check that the
+ * measured code computes the right results.
+ */
+public class Benchmarks {
+
+	public static void run(String name) {
+		switch (name) {
+			case "sha256":
+				sha256();
+				break;
+			case "keyspace":
+				keyspace();
+				break;
+			case "targets":
+				targets();
+				break;
+			case "lcs":
+				lcs();
+				break;
+			case "tiles":
+				tiles();
+				break;
+			case "serialization":
+				serialization();
+				break;
+			case "transport":
+				for (AkkaUtils.Transport transport : AkkaUtils.Transport.values())
+					transport(transport);
+				break;
+			default:
+				System.out.println("Unknown benchmark " + name + ". Available: sha256, keyspace, targets, lcs, tiles, serialization, transport");
+		}
+	}
+
+	/**
+	 * Compare the hashes/sec of all {@link Sha256Engine}s on a single core.
+	 */
+	private static void sha256() {
+
+		// Throughput: hash the 7 digit candidates like a worker does, several times to let the JIT warm up
+		final int candidates = 5_000_000;
+		for (int run = 0; run < 3; run++) {
+			for (Sha256Engine.Kind kind : Sha256Engine.Kind.values()) {
+				long start = System.nanoTime();
+				long checksum = hashDigits(kind.create(7), candidates);
+				double seconds = (System.nanoTime() - start) / 1e9;
+				System.out.println(String.format("Run %d: %-6s %,12.0f hashes/sec on one core (checksum %d)", run, kind, candidates / seconds, checksum));
+			}
+		}
+	}
+
+	/**
+	 * Measure how fast a {@link Keyspace.Cursor} enumerates the default keyspace.
+	 */
+	private static void keyspace() {
+
+		// Throughput: enumerate the default keyspace
+		for (int run = 0; run < 3; run++) {
+			long start = System.nanoTime();
+			Keyspace.Cursor cursor = Keyspace.DEFAULT.cursor(0);
+			long checksum = 0;
+			do {
+				checksum += cursor.candidate()[6];
+			} while (cursor.next());
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.println(String.format("Run %d: %,12.0f candidates/sec (checksum %d)", run, Keyspace.DEFAULT.size() / seconds, checksum));
+		}
+	}
+
+	/**
+	 * Measure how fast a {@link TargetSet} rejects other digests as it grows.
+	 */
+	private static void targets() {
+		final Random random = new Random(42);
+		final byte[][] probes = randomDigests(random, 1 << 20);
+		for (int size : new int[] { 1, 100, 10_000, 1_000_000 }) {
+			TargetSet targets = new TargetSet(randomDigests(random, size));
+
+			// Throughput: probe random digests, several times to let the JIT warm up
+			for (int run = 0; run < 3; run++) {
+				long start = System.nanoTime();
+				int hits = 0;
+				for (int i = 0; i < 10; i++)
+					for (byte[] probe : probes)
+						if (targets.find(probe) >= 0)
+							hits++;
+				double seconds = (System.nanoTime() - start) / 1e9;
+				System.out.println(String.format("Run %d: %,9d targets %,14.0f probes/sec (%d hits)", run, size, 10 * probes.length / seconds, hits));
+			}
+		}
+	}
+
+	/**
+	 * Measure all {@link LcsEngine}s, the {@link SuffixAutomaton} and the {@link GeneralizedSuffixAutomaton} on DNA sized strings.
+	 */
+	private static void lcs() {
+		final Random random = new Random(42);
+
+		// Throughput: pairs of random DNA strings of the exercise's length and longer, with about the same number of DP cells per measurement
+		for (int length : new int[] { 300, 3_000, 30_000 }) {
+			int pairs = 30_000_000 / length / length + 1;
+			String[] a = new String[pairs], b = new String[pairs];
+			PackedDna[] packedA = new PackedDna[pairs], packedB = new PackedDna[pairs];
+			for (int pair = 0; pair < pairs; pair++) {
+				a[pair] = randomString(random, "ACGT", length);
+				b[pair] = randomString(random, "ACGT", length);
+				packedA[pair] = PackedDna.of(a[pair]);
+				packedB[pair] = PackedDna.of(b[pair]);
+			}
+			for (int run = 0; run < 3; run++) {
+				for (LcsEngine.Kind kind : LcsEngine.Kind.values()) {
+					LcsEngine engine = kind.create();
+					long start = System.nanoTime();
+					long checksum = 0;
+					// The workers pack the DNA once on arrival, so the packed engine is measured on packed DNA
+					for (int pair = 0; pair < pairs; pair++)
+						checksum += (kind == LcsEngine.Kind.PACKED ? engine.longestCommonSubstring(packedA[pair], packedB[pair]) : engine.longestCommonSubstring(a[pair], b[pair])).length();
+					double seconds = (System.nanoTime() - start) / 1e9;
+					System.out.println(String.format("Run %d: %-6s %,6d x %,6d characters in %8.3f ms per pair (checksum %d)", run, kind, length, length, 1000 * seconds / pairs, checksum));
+				}
+			}
+		}
+
+		// Throughput: one participant against many others, with its suffix automaton built once, versus the engines
+		for (int length : new int[] { 300, 3_000 }) {
+			int others = 30_000_000 / length / length + 1;
+			PackedDna first = PackedDna.of(randomString(random, "ACGT", length));
+			PackedDna[] packed = new PackedDna[others];
+			for (int other = 0; other < others; other++)
+				packed[other] = PackedDna.of(randomString(random, "ACGT", length));
+			for (int run = 0; run < 3; run++) {
+				for (LcsEngine.Kind kind : new LcsEngine.Kind[] { LcsEngine.Kind.DP, LcsEngine.Kind.PACKED }) {
+					LcsEngine engine = kind.create();
+					long start = System.nanoTime();
+					long checksum = 0;
+					for (int other = 0; other < others; other++)
+						checksum += engine.longestCommonSubstring(first, packed[other]).length();
+					double seconds = (System.nanoTime() - start) / 1e9;
+					System.out.println(String.format("Run %d: %-9s 1 against %,d others of %,6d characters in %8.3f ms per pair (checksum %d)", run, kind, others, length, 1000 * seconds / others, checksum));
+				}
+				long start = System.nanoTime();
+				long checksum = 0;
+				SuffixAutomaton automaton = new SuffixAutomatonCache(1 << 30).get(0, first);
+				for (int other = 0; other < others; other++)
+					checksum += automaton.longestCommonSubstring(packed[other]).length();
+				double seconds = (System.nanoTime() - start) / 1e9;
+				System.out.println(String.format("Run %d: %-9s 1 against %,d others of %,6d characters in %8.3f ms per pair (checksum %d)", run, "AUTOMATON", others, length, 1000 * seconds / others, checksum));
+			}
+		}
+		final int length = 10_000;
+
+		// Throughput: best partners of 50 random DNA strings with the automaton, compared to the all pairs dynamic programming estimate from above
+		final String[] strings = new String[50];
+		for (int i = 0; i < strings.length; i++)
+			strings[i] = randomString(random, "ACGT", length);
+		for (int run = 0; run < 3; run++) {
+			long start = System.nanoTime();
+			GeneralizedSuffixAutomaton.Match[] matches = GeneralizedSuffixAutomaton.bestPartners(strings);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.println(String.format("Run %d: best partners of %d strings of %,d characters in %.3f s with the suffix automaton (first match of %d)",
+					run, strings.length, length, seconds, matches[0].substring().length()));
+		}
+	}
+
+	/**
+	 * Measure the overhead of the {@link TiledLcs} over the whole matrix and how many of its tiles could run in parallel on a
+	 * long pair.
+	 */
+	private static void tiles() {
+		final Random random = new Random(42);
+		final LcsEngine lcs = LcsEngine.Kind.DP.create();
+
+		// Throughput: the whole matrix versus all tiles one after another, and the speedup with unlimited workers
+		final int length = 20_000;
+		final String a = randomString(random, "ACGT", length);
+		final String b = randomString(random, "ACGT", length);
+		for (int run = 0; run < 3; run++) {
+			long start = System.nanoTime();
+			String expected = lcs.longestCommonSubstring(a, b);
+			double wholeSeconds = (System.nanoTime() - start) / 1e9;
+			System.out.println(String.format("Run %d: whole %,d x %,d matrix in %.3f s (match of %d)", run, length, length, wholeSeconds, expected.length()));
+			for (int tileSize : new int[] { 1_000, 4_000 }) {
+				start = System.nanoTime();
+				TiledLcs tiles = computeTiles(new TiledLcs(PackedDna.of(a), PackedDna.of(b), tileSize));
+				double tiledSeconds = (System.nanoTime() - start) / 1e9;
+				int critical = tiles.rows() + tiles.columns() - 1;
+				System.out.println(String.format("Run %d: %,d x %,d tiles in %.3f s (match of %d), %d tiles on the critical path, i.e., at most %.1fx faster with enough workers",
+						run, tileSize, tileSize, tiledSeconds, tiles.longestCommonSubstring().length(), critical, (double) tiles.rows() * tiles.columns() / critical));
+			}
+		}
+	}
+
+	/**
+	 * Compare the bytes per message and the time per round trip of the {@link CompactSerializer} with Kryo, both as
+	 * configured for remoting.
+	 */
+	private static void serialization() {
+		final ActorSystem system = ActorSystem.create("SerializationBenchmark",
+				ConfigFactory.parseString("akka.loglevel = WARNING").withFallback(AkkaUtils.createRemoteAkkaConfig("localhost", 0)));
+		try {
+			final Serialization serialization = SerializationExtension.get(system);
+			final Serializer kryo = serialization.serializerFor(Participant.class);
+			final Random random = new Random(42);
+
+			// Bytes and time per message for typical messages of the exercise
+			Participant[] participants = new Participant[2];
+			for (int i = 0; i < participants.length; i++)
+				participants[i] = new Participant(i + 1, "user" + (i + 1), Digests.toHex(randomDigests(random, 1)[0]), randomString(random, "ACGT", 300));
+			Participant[] matched = new Participant[2];
+			for (int i = 0; i < matched.length; i++) {
+				matched[i] = new Participant(participants[i].getId(), participants[i].getName(), participants[i].getPwhash(), "");
+				matched[i].setDna_match_partner_id(participants[1 - i].getId());
+				matched[i].setDna_match("GAGACATCTT");
+			}
+			Object[][] samples = {
+					{ "range", new PWCrackWorker.PWValidationMessage(7, 42, 3_100_000, 3_199_999, null) },
+					{ "range with 3 skips", new PWCrackWorker.PWValidationMessage(7, 42, 3_100_000, 3_199_999, new long[] { 3_100_017, 3_100_512, 3_150_000 }) },
+					{ "64 candidates", new PWCrackWorker.PWValidationMessage(7, 42, randomIndexes(random, 64, 10_000_000)) },
+					{ "no password found", new PWMaster.PWMessage(7, 42, new String[0], new int[0]) },
+					{ "password found", new PWMaster.PWMessage(7, 42, new String[] { "0123456" }, new int[] { 2 }) },
+					{ "pair of 300 bases", new SSWorker.SSValidationMessage(7, participants[0], participants[1]) },
+					{ "pair of 3,000 bases", new SSWorker.SSValidationMessage(7,
+							new Participant(1, "user1", participants[0].getPwhash(), randomString(random, "ACGT", 3000)),
+							new Participant(2, "user2", participants[1].getPwhash(), randomString(random, "ACGT", 3000))) },
+					{ "match of 10 bases", new SSMaster.FinalizedMessage(7, matched[0], matched[1]) } };
+			System.out.println(String.format("%-22s %-24s %12s %12s %14s %14s", "message", "", "Kryo bytes", "compact", "Kryo ns/trip", "compact ns/trip"));
+			for (Object[] sample : samples) {
+				Object message = sample[1];
+				Serializer compact = serialization.findSerializerFor(message);
+				int kryoBytes = kryo.toBinary(message).length;
+				int compactBytes = compact.toBinary(message).length;
+				System.out.println(String.format("%-22s %-24s %,12d %,12d %14s %14s", message.getClass().getSimpleName(), sample[0],
+						kryoBytes, compactBytes, nanosPerRoundTrip(serialization, kryo, message), nanosPerRoundTrip(serialization, compact, message)));
+			}
+		} finally {
+			system.terminate();
+		}
+	}
+
+	// Random ascending indexes below a bound
+	private static long[] randomIndexes(Random random, int count, long bound) {
+		long[] indexes = new long[count];
+		for (int i = 0; i < count; i++)
+			indexes[i] = (random.nextLong() & Long.MAX_VALUE) % bound;
+		Arrays.sort(indexes);
+		return indexes;
+	}
+
+	// The manifest that remoting sends along with a message, which is empty for serializers without string manifests
+	private static String manifest(Serializer serializer, Object message) {
+		return serializer instanceof SerializerWithStringManifest ? ((SerializerWithStringManifest) serializer).manifest(message) : "";
+	}
+
+	// The time to serialize and deserialize a message, or "fails" if the serializer cannot restore it
+	private static String nanosPerRoundTrip(Serialization serialization, Serializer serializer, Object message) {
+		final String manifest = manifest(serializer, message);
+		if (serialization.deserialize(serializer.toBinary(message), serializer.identifier(), manifest).isFailure())
+			return "fails";
+		int rounds = 0;
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			for (int i = 0; i < 1000; i++)
+				serialization.deserialize(serializer.toBinary(message), serializer.identifier(), manifest).get();
+			rounds += 1000;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < 1_000_000_000L);
+		return String.format("%,.0f", (double) elapsed / rounds);
+	}
+
+	// The port of the actor system in the second JVM of the transport benchmark
+	private static final int PEER_PORT = 7911;
+
+	// The number of bases of each DNA of the large messages and the number of these messages in flight
+	private static final int LARGE_MESSAGE_BASES = 100_000;
+	private static final int LARGE_MESSAGE_WINDOW = 8;
+
+	/**
+	 * Start an actor system with the given transport in a second JVM and measure (1) the round trip time of small
+	 * messages, like the answers of workers and the messages between master, shepherd and slaves, alone and (2) while DNA
+	 * pairs stream to a worker, plus the throughput of that stream. The receivers are deployed to the second JVM like the
+	 * workers of a slave, so that the worker gets the path of a large message destination and the echo does not.
+	 */
+	private static void transport(AkkaUtils.Transport transport) {
+		System.out.println("Transport " + transport.name().toLowerCase() + ":");
+		Process peer = null;
+		ActorSystem system = null;
+		try {
+			// Start the second JVM and wait until its actor system is up
+			peer = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(), "-cp", System.getProperty("java.class.path"),
+					TransportPeer.class.getName(), transport.name(), String.valueOf(PEER_PORT)).redirectErrorStream(true).start();
+			BufferedReader output = new BufferedReader(new InputStreamReader(peer.getInputStream()));
+			String line;
+			while ((line = output.readLine()) != null && !line.equals(TransportPeer.READY) && !line.startsWith(TransportPeer.FAILED))
+				continue;
+			if (line == null || line.startsWith(TransportPeer.FAILED)) {
+				System.out.println("  The actor system of the second JVM did not start: " + (line == null ? "no output" : line.substring(TransportPeer.FAILED.length())));
+				return;
+			}
+
+			system = ActorSystem.create("TransportBenchmark",
+					ConfigFactory.parseString("akka.loglevel = WARNING").withFallback(AkkaUtils.createRemoteAkkaConfig("localhost", 0, transport)));
+			Deploy deploy = new Deploy(new RemoteScope(new Address(transport.protocol(), TransportPeer.SYSTEM_NAME, "localhost", PEER_PORT)));
+			ActorRef echo = system.actorOf(TransportEcho.props().withDeploy(deploy));
+			Participant[] pair = new Participant[2];
+			for (int i = 0; i < pair.length; i++)
+				pair[i] = new Participant(i + 1, "user" + (i + 1), Digests.toHex(randomDigests(new Random(i), 1)[0]), randomString(new Random(i), "ACGT", LARGE_MESSAGE_BASES));
+			SSWorker.SSValidationMessage large = new SSWorker.SSValidationMessage(0, pair[0], pair[1]);
+			int largeBytes = SerializationExtension.get(system).findSerializerFor(large).toBinary(large).length;
+
+			// The driver deploys the worker as its child, named like the master, and measures both phases
+			CompletableFuture<String> report = new CompletableFuture<>();
+			system.actorOf(TransportDriver.props(echo, deploy, large, largeBytes, report), Master.DEFAULT_NAME);
+			System.out.println(report.get(60, TimeUnit.SECONDS));
+		} catch (IOException | InterruptedException | ExecutionException | TimeoutException e) {
+			System.out.println("  Failed: " + e);
+		} finally {
+			if (system != null)
+				system.terminate();
+			if (peer != null)
+				peer.destroy();
+		}
+	}
+
+	/**
+	 * The main class of the second JVM of the transport benchmark.
+	 */
+	public static class TransportPeer {
+
+		static final String SYSTEM_NAME = "TransportPeer";
+
+		static final String READY = "Transport peer ready";
+
+		static final String FAILED = "Transport peer failed: ";
+
+		public static void main(String[] args) {
+			try {
+				ActorSystem.create(SYSTEM_NAME, ConfigFactory.parseString("akka.loglevel = WARNING")
+						.withFallback(AkkaUtils.createRemoteAkkaConfig("localhost", Integer.parseInt(args[1]), AkkaUtils.Transport.valueOf(args[0]))));
+				System.out.println(READY);
+			} catch (Throwable e) {
+				// Report the root cause and exit, because the threads of the transport would keep the JVM alive
+				Throwable cause = e;
+				while (cause.getCause() != null)
+					cause = cause.getCause();
+				System.out.println(FAILED + cause);
+				System.exit(1);
+			}
+		}
+	}
+
+	/**
+	 * Answers small messages with themselves and DNA pairs with a small message.
+	 */
+	public static class TransportEcho extends AbstractActor {
+
+		private static final PWMaster.PWMessage ACK = new PWMaster.PWMessage(0, 0, new String[0], new int[0]);
+
+		static Props props() {
+			return Props.create(TransportEcho.class);
+		}
+
+		@Override
+		public Receive createReceive() {
+			return receiveBuilder()
+					.match(SSWorker.SSValidationMessage.class, message -> this.getSender().tell(ACK, this.getSelf()))
+					.matchAny(message -> this.getSender().tell(message, this.getSelf()))
+					.build();
+		}
+	}
+
+	/**
+	 * Keeps one small message in flight to the echo for two seconds, then also a window of DNA pairs to a substring
+	 * worker for another four seconds, and reports the round trip times of both phases and the throughput of the pairs.
+	 */
+	private static class TransportDriver extends AbstractActor {
+
+		static Props props(ActorRef echo, Deploy deploy, Object large, int largeBytes, CompletableFuture<String> report) {
+			return Props.create(TransportDriver.class, () -> new TransportDriver(echo, deploy, large, largeBytes, report));
+		}
+
+		private static final PWMaster.PWMessage PING = new PWMaster.PWMessage(1, 1, new String[0], new int[0]);
+
+		private final ActorRef echo;
+		private final Deploy deploy;
+		private final Object large;
+		private final int largeBytes;
+		private final CompletableFuture<String> report;
+
+		private ActorRef substringWorker;
+
+		private final List<Long> idleTrips = new ArrayList<>();
+		private final List<Long> loadedTrips = new ArrayList<>();
+		private long pingSent;
+		private long loadStart;
+		private long end;
+		private int largeAcks = 0;
+
+		TransportDriver(ActorRef echo, Deploy deploy, Object large, int largeBytes, CompletableFuture<String> report) {
+			this.echo = echo;
+			this.deploy = deploy;
+			this.large = large;
+			this.largeBytes = largeBytes;
+			this.report = report;
+		}
+
+		@Override
+		public void preStart() throws Exception {
+			super.preStart();
+			this.substringWorker = this.getContext().actorOf(TransportEcho.props().withDeploy(this.deploy));
+
+			// Warm up the connection, then measure
+			this.loadStart = System.nanoTime() + 2_000_000_000L;
+			this.end = this.loadStart + 4_000_000_000L;
+			this.ping();
+		}
+
+		private void ping() {
+			this.pingSent = System.nanoTime();
+			this.echo.tell(PING, this.getSelf());
+		}
+
+		@Override
+		public Receive createReceive() {
+			return receiveBuilder()
+					.matchAny(message -> {
+						long now = System.nanoTime();
+						if (this.getSender().equals(this.substringWorker)) {
+							this.largeAcks++;
+							if (now < this.end)
+								this.substringWorker.tell(this.large, this.getSelf());
+							return;
+						}
+						(this.pingSent < this.loadStart ? this.idleTrips : this.loadedTrips).add(now - this.pingSent);
+						if (now >= this.end) {
+							this.finish();
+						} else {
+							// Start the stream of DNA pairs with the second phase
+							if (this.pingSent < this.loadStart && now >= this.loadStart)
+								for (int i = 0; i < LARGE_MESSAGE_WINDOW; i++)
+									this.substringWorker.tell(this.large, this.getSelf());
+							this.ping();
+						}
+					})
+					.build();
+		}
+
+		private void finish() {
+			double seconds = (this.end - this.loadStart) / 1e9;
+			this.report.complete(String.format("  small messages alone:     %,7d round trips, median %,8.0f us, 99th percentile %,8.0f us%n"
+					+ "  small messages with DNA:  %,7d round trips, median %,8.0f us, 99th percentile %,8.0f us%n"
+					+ "  DNA pairs of %,d bytes:  %,7.0f messages/s, %,.1f MB/s",
+					this.idleTrips.size(), percentile(this.idleTrips, 0.5), percentile(this.idleTrips, 0.99),
+					this.loadedTrips.size(), percentile(this.loadedTrips, 0.5), percentile(this.loadedTrips, 0.99),
+					this.largeBytes, this.largeAcks / seconds, this.largeAcks * (double) this.largeBytes / seconds / 1e6));
+			this.getContext().stop(this.getSelf());
+		}
+
+		private static double percentile(List<Long> nanos, double fraction) {
+			if (nanos.isEmpty())
+				return Double.NaN;
+			List<Long> sorted = new ArrayList<>(nanos);
+			Collections.sort(sorted);
+			return sorted.get(Math.min(sorted.size() - 1, (int) (fraction * sorted.size()))) / 1e3;
+		}
+	}
+
+	// Compute all tiles in wavefront order, like the SSMaster schedules them
+	private static TiledLcs computeTiles(TiledLcs tiles) {
+		Deque<int[]> ready = new ArrayDeque<>();
+		ready.add(new int[] { 0, 0 });
+		while (!ready.isEmpty()) {
+			int[] tile = ready.poll();
+			TiledLcs.Tile result = TiledLcs.compute(tiles.rowBases(tile[0]).toString(), tiles.columnBases(tile[1]).toString(),
+					tiles.top(tile[0], tile[1]), tiles.left(tile[0], tile[1]));
+			ready.addAll(tiles.complete(tile[0], tile[1], result));
+		}
+		if (!tiles.isComplete())
+			throw new IllegalStateException("Not all tiles became ready");
+		return tiles;
+	}
+
+	private static String randomString(Random random, String alphabet, int length) {
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		return builder.toString();
+	}
+
+	private static byte[][] randomDigests(Random random, int count) {
+		byte[][] digests = new byte[count][Digests.LENGTH];
+		for (byte[] digest : digests)
+			random.nextBytes(digest);
+		return digests;
+	}
+
+	private static long hashDigits(Sha256Engine engine, int count) {
+		byte[][] candidates = new byte[engine.lanes()][];
+		byte[][] digests = new byte[engine.lanes()][Digests.LENGTH];
+		byte[] counter = "0000000".getBytes();
+		for (int lane = 0; lane < candidates.length; lane++)
+			candidates[lane] = new byte[counter.length];
+		long checksum = 0;
+		for (int i = 0; i < count; i += engine.lanes()) {
+			int lanes = Math.min(engine.lanes(), count - i);
+			for (int lane = 0; lane < lanes; lane++) {
+				System.arraycopy(counter, 0, candidates[lane], 0, counter.length);
+				for (int pos = counter.length - 1; pos >= 0 && counter[pos]++ == '9'; pos--)
+					counter[pos] = '0';
+			}
+			engine.hash(candidates, digests, lanes);
+			for (int lane = 0; lane < lanes; lane++)
+				checksum += digests[lane][0];
+		}
+		return checksum;
+	}
+}
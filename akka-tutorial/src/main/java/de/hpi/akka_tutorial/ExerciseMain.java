@@ -4,27 +4,144 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Map;
 
 import de.hpi.akka_tutorial.Participant;
+import de.hpi.akka_tutorial.pw.DigestIndex;
+import de.hpi.akka_tutorial.pw.Keyspace;
+import de.hpi.akka_tutorial.pw.Sha256Engine;
 import de.hpi.akka_tutorial.remote.PWCalculator;
+import de.hpi.akka_tutorial.remote.actors.PoolWorker;
+import de.hpi.akka_tutorial.remote.actors.SSMaster;
 import de.hpi.akka_tutorial.remote.actors.scheduling.PWReactiveSchedulingStrategy;
 import de.hpi.akka_tutorial.remote.actors.scheduling.SSReactiveSchedulingStrategy;
+import de.hpi.akka_tutorial.remote.actors.scheduling.TaskKind;
+import de.hpi.akka_tutorial.remote.actors.scheduling.TaskScheduler;
+import de.hpi.akka_tutorial.ss.LcsEngine;
+import de.hpi.akka_tutorial.util.AkkaUtils;
 
 public class ExerciseMain {
 
+	private static final int DEFAULT_MASTER_PORT = 7877;
+
 	public static void main(String[] args) {
-		// Read CSV file, path to is should be in args[0]. 
-		// Then start a PWmaster with 4 local workers
-		String csvFile = "";
-		if (args.length ==2 && args[0].equals("--path")) {
-			csvFile = args[1];
-		} else {
-			csvFile = "./students.csv";
-			
+		// Read CSV file, path to is should follow --path. 
+		// Then start a master with one local worker per core, which runs both the password and the substring tasks
+		String csvFile = "./students.csv";
+		String host = "localhost";
+		int port = -1;
+		String masterAddress = null;
+		boolean multiTarget = false;
+		Sha256Engine.Kind engine = Sha256Engine.Kind.JDK;
+		String digestIndexFile = null;
+		String buildIndexFile = null;
+		Keyspace keyspace = Keyspace.DEFAULT;
+		boolean parallel = false;
+		int windowSize = TaskScheduler.DEFAULT_WEIGHT;
+		boolean likelyFirst = false;
+		boolean suffixAutomaton = false;
+		int pairsPerBatch = 0;
+		int tileSize = 0;
+		long automatonCacheBytes = 0;
+		LcsEngine.Kind lcsEngine = LcsEngine.Kind.DP;
+		int poolWorkers = Runtime.getRuntime().availableProcessors();
+		int pwWeight = -1;
+		int ssWeight = -1;
+		TaskKind priority = null;
+		AkkaUtils.Transport transport = AkkaUtils.Transport.NETTY;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--path":
+					csvFile = args[++i];
+					break;
+				case "--host":
+					host = args[++i];
+					break;
+				case "--port":
+					port = Integer.parseInt(args[++i]);
+					break;
+				case "--slave":
+					masterAddress = args[++i];
+					break;
+				case "--transport":
+					transport = AkkaUtils.Transport.valueOf(args[++i].toUpperCase());
+					break;
+				case "--multi-target":
+					multiTarget = true;
+					break;
+				case "--engine":
+					engine = Sha256Engine.Kind.valueOf(args[++i].toUpperCase());
+					break;
+				case "--ss-engine":
+					suffixAutomaton = parseSsEngine(args[++i]);
+					break;
+				case "--lcs-engine":
+					lcsEngine = LcsEngine.Kind.valueOf(args[++i].toUpperCase());
+					break;
+				case "--pair-batch":
+					pairsPerBatch = Integer.parseInt(args[++i]);
+					break;
+				case "--tile":
+					tileSize = Integer.parseInt(args[++i]);
+					break;
+				case "--automaton-cache":
+					automatonCacheBytes = Long.parseLong(args[++i]) << 20;
+					break;
+				case "--parallel":
+					parallel = true;
+					break;
+				case "--likely-first":
+					likelyFirst = true;
+					break;
+				case "--window":
+					windowSize = Integer.parseInt(args[++i]);
+					break;
+				case "--pool":
+					poolWorkers = Integer.parseInt(args[++i]);
+					break;
+				case "--weights":
+					String[] weights = args[++i].split(":");
+					pwWeight = Integer.parseInt(weights[0]);
+					ssWeight = Integer.parseInt(weights[1]);
+					break;
+				case "--priority":
+					priority = TaskKind.valueOf(args[++i].toUpperCase());
+					break;
+				case "--index":
+					digestIndexFile = args[++i];
+					break;
+				case "--keyspace":
+					keyspace = Keyspace.parse(args[++i]);
+					break;
+				case "--build-index":
+					buildIndexFile = args[++i];
+					break;
+				case "--benchmark":
+					Benchmarks.run(args[++i]);
+					return;
+				default:
+					System.out.println("Ignoring unknown argument " + args[i]);
+			}
+		}
+		if (buildIndexFile != null) {
+			buildDigestIndex(buildIndexFile, keyspace);
+			return;
+		}
+		if (masterAddress != null) {
+			// Offer this machine's cores to the master at the given host[:port]; the master deploys the workers
+			String[] hostAndPort = masterAddress.split(":");
+			PWCalculator.runSlave(host, port < 0 ? 0 : port, hostAndPort[0], hostAndPort.length > 1 ? Integer.parseInt(hostAndPort[1]) : DEFAULT_MASTER_PORT, transport);
+			return;
 		}
+		// Tiles whose messages exceed a frame would be dropped by the transport, so that their comparison never finished
+		int maxTileSize = SSMaster.maxTileSize(AkkaUtils.maximumMessageBytes(AkkaUtils.createRemoteAkkaConfig(host, 0, transport)));
+		if (tileSize > maxTileSize)
+			throw new IllegalArgumentException("Tiles of " + tileSize + " bases do not fit into a message of the " + transport + " transport. Maximum: " + maxTileSize);
 		BufferedReader br = null;
 		String line = "";
 		String cvsSplitBy = ",";
@@ -62,7 +179,50 @@ public class ExerciseMain {
 		// Calculator.runMaster(masterCommand.host, masterCommand.port,
 		// schedulingStrategyFactory, masterCommand.numLocalWorkers);
 		System.out.println("Found " + all_participants.size() + " students in students.csv");
-		PWCalculator.runMaster("localhost", 7877, new PWReactiveSchedulingStrategy.PWFactory(), new SSReactiveSchedulingStrategy.SSFactory(), 4, all_participants);
+		// All workers run both kinds of tasks and the weights are the number of tasks of each kind that a worker holds at once
+		Map<TaskKind, Integer> kind2weight = new EnumMap<>(TaskKind.class);
+		kind2weight.put(TaskKind.PASSWORD, pwWeight < 0 ? windowSize : pwWeight);
+		kind2weight.put(TaskKind.SUBSTRING, ssWeight < 0 ? windowSize : ssWeight);
+		PWCalculator.MasterOptions options = new PWCalculator.MasterOptions();
+		options.host = host;
+		options.port = port < 0 ? DEFAULT_MASTER_PORT : port;
+		options.transport = transport;
+		options.workerProps = PoolWorker.props(engine, parallel, lcsEngine, automatonCacheBytes, priority);
+		options.numLocalWorkers = poolWorkers;
+		options.kind2weight = kind2weight;
+		options.priority = priority;
+		options.pwFactory = new PWReactiveSchedulingStrategy.PWFactory(likelyFirst);
+		options.multiTarget = multiTarget;
+		options.digestIndexFile = digestIndexFile;
+		options.keyspace = keyspace;
+		options.ssFactory = new SSReactiveSchedulingStrategy.SSFactory(automatonCacheBytes > 0);
+		options.suffixAutomaton = suffixAutomaton;
+		options.pairsPerBatch = pairsPerBatch;
+		options.tileSize = tileSize;
+		PWCalculator.runMaster(options, all_participants);
 
 	}
+
+	private static boolean parseSsEngine(String name) {
+		switch (name) {
+			case "pairwise":
+				return false;
+			case "automaton":
+				return true;
+			default:
+				throw new IllegalArgumentException("Unknown SS engine " + name + ". Available: pairwise, automaton");
+		}
+	}
+
+	private static void buildDigestIndex(String file, Keyspace keyspace) {
+		System.out.println("Building digest index " + file + " for keyspace " + keyspace + " ...");
+		long start = System.currentTimeMillis();
+		try {
+			DigestIndex.build(Paths.get(file), keyspace);
+			System.out.println("Built digest index in " + (System.currentTimeMillis() - start) + " ms.");
+		} catch (IOException e) {
+			System.out.println("Could not build digest index " + file);
+			e.printStackTrace();
+		}
+	}
 }
@@ -0,0 +1,228 @@
+package de.hpi.akka_tutorial.pw;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A precomputed, memory-mapped index from SHA-256 digests to the candidates of a {@link Keyspace} that produce them.
+ * <p>
+ * File layout: a header ({@link #MAGIC}, number of entries, the keyspace specification), a table of {@link #BUCKETS}
+ * + 1 entry offsets that buckets the entries by the first two digest bytes, and the entries themselves. Each entry
+ * holds the first eight bytes of a digest and its candidate index; entries are sorted by that prefix. A lookup selects
+ * the bucket, binary searches the prefix and confirms a hit by hashing the candidate again, so the file only needs 12
+ * instead of 36 bytes per entry.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class DigestIndex {
+
+	private static final int MAGIC = 0x50574959; // "PWIY"
+
+	private static final int BUCKETS = 1 << 16;
+
+	private static final int TABLE_SIZE = (BUCKETS + 1) * Integer.BYTES;
+
+	private static final int ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+	// The largest keyspace whose index still fits into a single mapped buffer
+	private static final long MAX_KEYSPACE_SIZE = (Integer.MAX_VALUE - TABLE_SIZE - 1024) / ENTRY_SIZE;
+
+	/**
+	 * Hash the complete keyspace and write the index file.
+	 *
+	 * @param file the file to write
+	 * @param keyspace the keyspace to index
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void build(Path file, Keyspace keyspace) throws IOException {
+		if (keyspace.size() > MAX_KEYSPACE_SIZE)
+			throw new IllegalArgumentException("Keyspace " + keyspace + " is too large to be indexed: " + keyspace.size() + " > " + MAX_KEYSPACE_SIZE);
+		final int entries = (int) keyspace.size();
+		final Hasher hasher = new Hasher(keyspace);
+
+		// First pass: count the entries per bucket to lay out the file
+		int[] offsets = new int[BUCKETS + 1];
+		Keyspace.Cursor cursor = keyspace.cursor(0);
+		for (int i = 0; i < entries; i++, cursor.next())
+			offsets[bucket(hasher.hash(cursor.candidate())) + 1]++;
+		for (int bucket = 0; bucket < BUCKETS; bucket++)
+			offsets[bucket + 1] += offsets[bucket];
+
+		byte[] spec = keyspace.toString().getBytes(StandardCharsets.UTF_8);
+		int headerSize = 3 * Integer.BYTES + spec.length;
+		long size = headerSize + TABLE_SIZE + (long) entries * ENTRY_SIZE;
+		try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+			out.setLength(size);
+			MappedByteBuffer buffer = out.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.putInt(MAGIC).putInt(entries).putInt(spec.length).put(spec);
+			for (int offset : offsets)
+				buffer.putInt(offset);
+			final int entriesStart = headerSize + TABLE_SIZE;
+
+			// Second pass: append every entry to its bucket
+			int[] next = offsets.clone();
+			cursor = keyspace.cursor(0);
+			for (int i = 0; i < entries; i++, cursor.next()) {
+				byte[] digest = hasher.hash(cursor.candidate());
+				int position = entryPosition(entriesStart, next[bucket(digest)]++);
+				buffer.putLong(position, Digests.prefix(digest));
+				buffer.putInt(position + Long.BYTES, i);
+			}
+
+			// Sort every bucket by prefix. All prefixes of a bucket share their first two bytes, so the other six bytes and the
+			// position of the entry within the bucket fit into one key, which sorts like the unsigned prefix once its sign bit is flipped
+			long[] keys = new long[0];
+			long[] prefixes = new long[0];
+			int[] values = new int[0];
+			for (int bucket = 0; bucket < BUCKETS; bucket++) {
+				int length = offsets[bucket + 1] - offsets[bucket];
+				if (keys.length < length) {
+					keys = new long[length];
+					prefixes = new long[length];
+					values = new int[length];
+				}
+
+				// Buckets of more than 2^16 entries lose the last bits of their prefixes to the position
+				int positionBits = Math.max(Short.SIZE, Integer.SIZE - Integer.numberOfLeadingZeros(length - 1));
+				for (int i = 0; i < length; i++) {
+					int position = entryPosition(entriesStart, offsets[bucket] + i);
+					prefixes[i] = buffer.getLong(position);
+					values[i] = buffer.getInt(position + Long.BYTES);
+					keys[i] = ((prefixes[i] << Short.SIZE) & (-1L << positionBits) | i) ^ Long.MIN_VALUE;
+				}
+				Arrays.sort(keys, 0, length);
+
+				// Keep only the positions, which are the sorted order of the entries
+				for (int i = 0; i < length; i++)
+					keys[i] = keys[i] & ~(-1L << positionBits);
+
+				// In such huge buckets, order the entries whose keys only differ in the position by their complete prefixes
+				if (positionBits > Short.SIZE) {
+					for (int i = 1; i < length; i++) {
+						long key = keys[i];
+						int j = i - 1;
+						for (; j >= 0 && Long.compareUnsigned(prefixes[(int) keys[j]], prefixes[(int) key]) > 0; j--)
+							keys[j + 1] = keys[j];
+						keys[j + 1] = key;
+					}
+				}
+				for (int i = 0; i < length; i++) {
+					int position = entryPosition(entriesStart, offsets[bucket] + i);
+					buffer.putLong(position, prefixes[(int) keys[i]]);
+					buffer.putInt(position + Long.BYTES, values[(int) keys[i]]);
+				}
+			}
+			buffer.force();
+		}
+	}
+
+	/**
+	 * Memory-map an index file written by {@link #build(Path, Keyspace)}.
+	 *
+	 * @param file the index file
+	 * @param keyspace the keyspace that the index must cover
+	 * @return the opened {@link DigestIndex}
+	 * @throws IOException if the file cannot be read or is no valid index of the keyspace
+	 */
+	public static DigestIndex open(Path file, Keyspace keyspace) throws IOException {
+		try (RandomAccessFile in = new RandomAccessFile(file.toFile(), "r")) {
+			MappedByteBuffer buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+			if (in.length() < 3 * Integer.BYTES || buffer.getInt(0) != MAGIC)
+				throw new IOException(file + " is no digest index");
+			int specLength = buffer.getInt(2 * Integer.BYTES);
+			byte[] spec = new byte[Math.max(0, Math.min(specLength, (int) in.length() - 3 * Integer.BYTES))];
+			// Read with absolute positions, because the relative position(int) of a MappedByteBuffer built by a newer JDK is missing on Java 8
+			for (int i = 0; i < spec.length; i++)
+				spec[i] = buffer.get(3 * Integer.BYTES + i);
+			if (buffer.getInt(Integer.BYTES) != keyspace.size() || !keyspace.equals(Keyspace.parse(new String(spec, StandardCharsets.UTF_8))))
+				throw new IOException(file + " indexes a different keyspace than " + keyspace);
+			return new DigestIndex(buffer, 3 * Integer.BYTES + spec.length, keyspace);
+		}
+	}
+
+	private static int bucket(byte[] digest) {
+		return ((digest[0] & 0xFF) << 8) | (digest[1] & 0xFF);
+	}
+
+	private static int entryPosition(int entriesStart, int entry) {
+		return entriesStart + entry * ENTRY_SIZE;
+	}
+
+	/**
+	 * Hashes single candidates of any length of a keyspace with one JDK engine per length.
+	 */
+	private static class Hasher {
+
+		private final Sha256Engine[] engines;
+
+		private final byte[][] candidate = new byte[1][];
+		private final byte[][] digest = new byte[1][Digests.LENGTH];
+
+		Hasher(Keyspace keyspace) {
+			this.engines = new Sha256Engine[keyspace.maxLength() + 1];
+		}
+
+		byte[] hash(byte[] candidate) {
+			if (this.engines[candidate.length] == null)
+				this.engines[candidate.length] = Sha256Engine.Kind.JDK.create(candidate.length);
+			this.candidate[0] = candidate;
+			this.engines[candidate.length].hash(this.candidate, this.digest, 1);
+			return this.digest[0];
+		}
+	}
+
+	// The mapped index file
+	private final MappedByteBuffer buffer;
+
+	// The start of the bucket table and of the entries
+	private final int tableStart;
+	private final int entriesStart;
+
+	// The indexed keyspace and a hasher to confirm hits
+	private final Keyspace keyspace;
+	private final Hasher hasher;
+
+	private DigestIndex(MappedByteBuffer buffer, int tableStart, Keyspace keyspace) {
+		this.buffer = buffer;
+		this.tableStart = tableStart;
+		this.entriesStart = tableStart + TABLE_SIZE;
+		this.keyspace = keyspace;
+		this.hasher = new Hasher(keyspace);
+	}
+
+	/**
+	 * Look up the candidate of a digest.
+	 *
+	 * @param digest the digest to resolve
+	 * @return the index of the candidate or {@code -1} if no candidate of the keyspace produces this digest
+	 */
+	public long lookup(byte[] digest) {
+		int bucket = bucket(digest);
+		long prefix = Digests.prefix(digest);
+
+		// Binary search the first entry with the prefix within the bucket
+		int low = this.buffer.getInt(this.tableStart + bucket * Integer.BYTES);
+		int high = this.buffer.getInt(this.tableStart + (bucket + 1) * Integer.BYTES);
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (Long.compareUnsigned(this.buffer.getLong(entryPosition(this.entriesStart, mid)), prefix) < 0)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+
+		// Confirm the entries with that prefix by hashing their candidates
+		int end = this.buffer.getInt(this.tableStart + (bucket + 1) * Integer.BYTES);
+		for (int entry = low; entry < end && this.buffer.getLong(entryPosition(this.entriesStart, entry)) == prefix; entry++) {
+			int value = this.buffer.getInt(entryPosition(this.entriesStart, entry) + Long.BYTES);
+			if (Digests.equals(this.hasher.hash(this.keyspace.cursor(value).candidate()), digest))
+				return value;
+		}
+		return -1;
+	}
+}
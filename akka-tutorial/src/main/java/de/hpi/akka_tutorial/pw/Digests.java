@@ -0,0 +1,73 @@
+package de.hpi.akka_tutorial.pw;
+
+/**
+ * Helpers to convert SHA-256 digests between their hex representation and raw bytes.
+ */
+public class Digests {
+
+	public static final int LENGTH = 32;
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Decode a hex encoded digest, e.g., a pwhash from the participants file.
+	 *
+	 * @param hex the (upper or lower case) hex string
+	 * @return the raw digest bytes
+	 */
+	public static byte[] fromHex(String hex) {
+		if (hex.length() % 2 != 0)
+			throw new IllegalArgumentException("Not a hex encoded digest: " + hex);
+		byte[] bytes = new byte[hex.length() / 2];
+		for (int i = 0; i < bytes.length; i++) {
+			int high = Character.digit(hex.charAt(2 * i), 16);
+			int low = Character.digit(hex.charAt(2 * i + 1), 16);
+			if (high < 0 || low < 0)
+				throw new IllegalArgumentException("Not a hex encoded digest: " + hex);
+			bytes[i] = (byte) ((high << 4) | low);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Decode many hex encoded digests at once.
+	 */
+	public static byte[][] fromHex(String[] hexes) {
+		byte[][] digests = new byte[hexes.length][];
+		for (int i = 0; i < hexes.length; i++)
+			digests[i] = fromHex(hexes[i]);
+		return digests;
+	}
+
+	/**
+	 * Encode a digest as lower case hex string.
+	 */
+	public static String toHex(byte[] digest) {
+		char[] chars = new char[digest.length * 2];
+		for (int i = 0; i < digest.length; i++) {
+			chars[2 * i] = HEX[(digest[i] >> 4) & 0xF];
+			chars[2 * i + 1] = HEX[digest[i] & 0xF];
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Read the first eight bytes of a digest as big endian long.
+	 */
+	public static long prefix(byte[] digest) {
+		long prefix = 0;
+		for (int i = 0; i < 8; i++)
+			prefix = (prefix << 8) | (digest[i] & 0xFF);
+		return prefix;
+	}
+
+	/**
+	 * Compare two digests byte by byte.
+	 */
+	public static boolean equals(byte[] a, byte[] b) {
+		for (int i = 0; i < LENGTH; i++)
+			if (a[i] != b[i])
+				return false;
+		return true;
+	}
+}
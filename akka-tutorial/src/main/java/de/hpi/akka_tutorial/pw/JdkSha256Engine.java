@@ -0,0 +1,38 @@
+package de.hpi.akka_tutorial.pw;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A {@link Sha256Engine} that reuses one {@link MessageDigest} instance for all candidates.
+ */
+public class JdkSha256Engine implements Sha256Engine {
+
+	private final MessageDigest sha256;
+
+	public JdkSha256Engine(int length) {
+		try {
+			this.sha256 = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	@Override
+	public int lanes() {
+		return 1;
+	}
+
+	@Override
+	public void hash(byte[][] candidates, byte[][] digests, int count) {
+		try {
+			for (int lane = 0; lane < count; lane++) {
+				this.sha256.update(candidates[lane]);
+				this.sha256.digest(digests[lane], 0, Digests.LENGTH);
+			}
+		} catch (DigestException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
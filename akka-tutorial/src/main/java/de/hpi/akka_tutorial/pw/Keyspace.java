@@ -0,0 +1,316 @@
+package de.hpi.akka_tutorial.pw;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A space of password candidates, given as a sequence of masks. A mask assigns a charset to every position of its
+ * candidates, so it contains the product of its charset sizes many candidates.
+ * <p>
+ * Every candidate has a 64 bit index: the masks are numbered one after the other and, within a mask, the index is a
+ * mixed-radix number whose digits select the characters (the last position is the least significant one). Ranges of
+ * indexes can therefore be split freely and a {@link Cursor} generates their candidates in place.
+ */
+public class Keyspace implements Serializable {
+
+	private static final long serialVersionUID = -3319862571936340551L;
+
+	public static final String DIGITS = "0123456789";
+
+	public static final String LOWERCASE = "abcdefghijklmnopqrstuvwxyz";
+
+	public static final String UPPERCASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+	public static final String ALPHANUMERICS = DIGITS + LOWERCASE + UPPERCASE;
+
+	/**
+	 * The keyspace of the exercise: all 7 digit numbers.
+	 */
+	public static final Keyspace DEFAULT = parse("digits:7");
+
+	/**
+	 * Parse a keyspace specification. Supported are
+	 * <ul>
+	 * <li>{@code <charset>:<length>} and {@code <charset>:<min>-<max>} with the charsets {@code digits}, {@code lower},
+	 * {@code upper} and {@code alnum}, e.g. {@code lower:1-6}, and</li>
+	 * <li>{@code mask:<mask>[,<mask>...]}, where {@code ?d}, {@code ?l}, {@code ?u} and {@code ?a} stand for a digit,
+	 * lowercase letter, uppercase letter or alphanumeric character, {@code ??} for a question mark and all other
+	 * characters for themselves, e.g. {@code mask:?u?l?l?d?d}.</li>
+	 * </ul>
+	 *
+	 * @param spec the specification
+	 * @return the described {@link Keyspace}
+	 * @throws IllegalArgumentException if the specification is invalid
+	 */
+	public static Keyspace parse(String spec) {
+		int colon = spec.indexOf(':');
+		if (colon < 0)
+			throw new IllegalArgumentException("Keyspace " + spec + " is neither <charset>:<lengths> nor mask:<masks>");
+		String kind = spec.substring(0, colon);
+		String value = spec.substring(colon + 1);
+
+		List<byte[][]> masks = new ArrayList<>();
+		if (kind.equals("mask")) {
+			for (String mask : value.split(","))
+				masks.add(parseMask(mask));
+		} else {
+			byte[] charset = ascii(charset(kind));
+			String[] lengths = value.split("-", 2);
+			int minLength, maxLength;
+			try {
+				minLength = Integer.parseInt(lengths[0]);
+				maxLength = lengths.length > 1 ? Integer.parseInt(lengths[1]) : minLength;
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Keyspace " + spec + " has invalid lengths", e);
+			}
+			if (minLength < 1 || maxLength < minLength)
+				throw new IllegalArgumentException("Keyspace " + spec + " has invalid lengths");
+			for (int length = minLength; length <= maxLength; length++) {
+				byte[][] mask = new byte[length][];
+				Arrays.fill(mask, charset);
+				masks.add(mask);
+			}
+		}
+		return new Keyspace(spec, masks.toArray(new byte[0][][]));
+	}
+
+	private static String charset(String name) {
+		switch (name) {
+			case "digits":
+				return DIGITS;
+			case "lower":
+				return LOWERCASE;
+			case "upper":
+				return UPPERCASE;
+			case "alnum":
+				return ALPHANUMERICS;
+			default:
+				throw new IllegalArgumentException("Unknown charset " + name + ". Available: digits, lower, upper, alnum");
+		}
+	}
+
+	private static byte[][] parseMask(String mask) {
+		List<byte[]> positions = new ArrayList<>();
+		for (int i = 0; i < mask.length(); i++) {
+			char c = mask.charAt(i);
+			if (c != '?') {
+				positions.add(ascii(String.valueOf(c)));
+				continue;
+			}
+			if (++i == mask.length())
+				throw new IllegalArgumentException("Mask " + mask + " ends with a single ?");
+			switch (mask.charAt(i)) {
+				case 'd':
+					positions.add(ascii(DIGITS));
+					break;
+				case 'l':
+					positions.add(ascii(LOWERCASE));
+					break;
+				case 'u':
+					positions.add(ascii(UPPERCASE));
+					break;
+				case 'a':
+					positions.add(ascii(ALPHANUMERICS));
+					break;
+				case '?':
+					positions.add(ascii("?"));
+					break;
+				default:
+					throw new IllegalArgumentException("Mask " + mask + " contains the unknown placeholder ?" + mask.charAt(i));
+			}
+		}
+		if (positions.isEmpty())
+			throw new IllegalArgumentException("Masks must not be empty");
+		return positions.toArray(new byte[0][]);
+	}
+
+	private static byte[] ascii(String s) {
+		return s.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	// The specification this keyspace was parsed from
+	private String spec;
+
+	// The charset of every position of every mask
+	private byte[][][] masks;
+
+	// The index of the first candidate of every mask; the last entry is the size of the keyspace
+	private long[] offsets;
+
+	private Keyspace(String spec, byte[][][] masks) {
+		this.spec = spec;
+		this.masks = masks;
+		this.offsets = new long[masks.length + 1];
+		for (int m = 0; m < masks.length; m++) {
+			long size = 1;
+			try {
+				// Multiply two longs, because the (long, int) overload that a newer JDK would pick is missing on Java 8
+				for (byte[] charset : masks[m])
+					size = Math.multiplyExact(size, (long) charset.length);
+				this.offsets[m + 1] = Math.addExact(this.offsets[m], size);
+			} catch (ArithmeticException e) {
+				throw new IllegalArgumentException("Keyspace " + spec + " has more than 2^63 candidates", e);
+			}
+		}
+	}
+
+	/**
+	 * For serialization/deserialization only.
+	 */
+	@SuppressWarnings("unused")
+	private Keyspace() {
+	}
+
+	/**
+	 * @return the number of candidates in this keyspace
+	 */
+	public long size() {
+		return this.offsets[this.masks.length];
+	}
+
+	/**
+	 * @return the length of the longest candidate
+	 */
+	public int maxLength() {
+		return Arrays.stream(this.masks).mapToInt(mask -> mask.length).max().orElse(0);
+	}
+
+	/**
+	 * Create a cursor that starts at the given candidate.
+	 *
+	 * @param index the index of the first candidate, from 0 (inclusive) to {@link #size()} (exclusive)
+	 * @return the new {@link Cursor}
+	 */
+	public Cursor cursor(long index) {
+		if (index < 0 || index >= this.size())
+			throw new IndexOutOfBoundsException("Index " + index + " is not in keyspace " + this.spec + " of size " + this.size());
+		return new Cursor(index);
+	}
+
+	/**
+	 * @param index the index of a candidate
+	 * @return the candidate as string
+	 */
+	public String candidate(long index) {
+		return new String(this.cursor(index).candidate(), StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * @param candidate a candidate as string
+	 * @return the index of the candidate or {@code -1} if it is not contained in this keyspace
+	 */
+	public long indexOf(String candidate) {
+		byte[] bytes = ascii(candidate);
+		for (int m = 0; m < this.masks.length; m++) {
+			byte[][] charsets = this.masks[m];
+			if (charsets.length != bytes.length)
+				continue;
+			long localIndex = 0;
+			for (int pos = 0; pos < charsets.length && localIndex >= 0; pos++) {
+				int digit = indexOf(charsets[pos], bytes[pos]);
+				localIndex = digit < 0 ? -1 : localIndex * charsets[pos].length + digit;
+			}
+			if (localIndex >= 0)
+				return this.offsets[m] + localIndex;
+		}
+		return -1;
+	}
+
+	private static int indexOf(byte[] charset, byte c) {
+		for (int i = 0; i < charset.length; i++)
+			if (charset[i] == c)
+				return i;
+		return -1;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass())
+			return false;
+		return Arrays.deepEquals(this.masks, ((Keyspace) o).masks);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.deepHashCode(this.masks);
+	}
+
+	@Override
+	public String toString() {
+		return this.spec;
+	}
+
+	/**
+	 * Enumerates the candidates of a {@link Keyspace} in index order. The candidate is incremented in place like a
+	 * mixed-radix counter, so advancing mostly touches only the last character. Instances are not thread-safe.
+	 */
+	public class Cursor {
+
+		// The current mask and the digit (the position in the charset) of every character of the current candidate
+		private int mask;
+
+		private int[] digits;
+
+		// The current candidate
+		private byte[] candidate;
+
+		private Cursor(long index) {
+			while (index >= Keyspace.this.offsets[this.mask + 1])
+				this.mask++;
+			this.reset(index - Keyspace.this.offsets[this.mask]);
+		}
+
+		private void reset(long localIndex) {
+			byte[][] charsets = Keyspace.this.masks[this.mask];
+			this.digits = new int[charsets.length];
+			this.candidate = new byte[charsets.length];
+			for (int pos = charsets.length - 1; pos >= 0; pos--) {
+				this.digits[pos] = (int) (localIndex % charsets[pos].length);
+				this.candidate[pos] = charsets[pos][this.digits[pos]];
+				localIndex /= charsets[pos].length;
+			}
+		}
+
+		/**
+		 * @return the current candidate; the buffer is overwritten by {@link #next()} and replaced whenever the length changes
+		 */
+		public byte[] candidate() {
+			return this.candidate;
+		}
+
+		/**
+		 * @return the length of the current candidate
+		 */
+		public int length() {
+			return this.candidate.length;
+		}
+
+		/**
+		 * Advance to the next candidate.
+		 *
+		 * @return {@code false} if the current candidate was the last one of the keyspace
+		 */
+		public boolean next() {
+			byte[][] charsets = Keyspace.this.masks[this.mask];
+			for (int pos = charsets.length - 1; pos >= 0; pos--) {
+				if (++this.digits[pos] < charsets[pos].length) {
+					this.candidate[pos] = charsets[pos][this.digits[pos]];
+					return true;
+				}
+				this.digits[pos] = 0;
+				this.candidate[pos] = charsets[pos][0];
+			}
+
+			// The mask overflowed, so continue with the first candidate of the next mask
+			if (this.mask + 1 == Keyspace.this.masks.length)
+				return false;
+			this.mask++;
+			this.reset(0);
+			return true;
+		}
+	}
+}
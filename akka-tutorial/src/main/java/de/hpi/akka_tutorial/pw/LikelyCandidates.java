@@ -0,0 +1,98 @@
+package de.hpi.akka_tutorial.pw;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Ranks the candidates of a {@link Keyspace} that people tend to choose as passwords: repeated characters, ascending and
+ * descending sequences, repeated short blocks of digits and dates. Checking these first finds many passwords long before
+ * an exhaustive sweep would reach them.
+ */
+public class LikelyCandidates {
+
+	// The years that dates are generated for
+	private static final int FIRST_YEAR = 1930, LAST_YEAR = 2029;
+
+	private static final int[] DAYS_PER_MONTH = { 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+	/**
+	 * Generate the likely candidates of a keyspace.
+	 *
+	 * @param keyspace the keyspace
+	 * @return the distinct indexes of the likely candidates, most likely first
+	 */
+	public static long[] of(Keyspace keyspace) {
+		final int maxLength = keyspace.maxLength();
+		final Set<Long> ranked = new LinkedHashSet<>();
+
+		// Repeated characters, e.g. 0000000 or aaaa
+		for (char c : Keyspace.ALPHANUMERICS.toCharArray())
+			for (int length = 1; length <= maxLength; length++)
+				add(keyspace, ranked, repeat(String.valueOf(c), length));
+
+		// Ascending and descending sequences, e.g. 1234567, 7654321 or abcdef
+		for (String alphabet : new String[] { Keyspace.DIGITS, Keyspace.LOWERCASE, Keyspace.UPPERCASE }) {
+			String cycle = repeat(alphabet, 1 + maxLength / alphabet.length() + 1);
+			String reversed = new StringBuilder(cycle).reverse().toString();
+			for (int length = 2; length <= maxLength; length++) {
+				for (int start = 0; start < alphabet.length(); start++) {
+					add(keyspace, ranked, cycle.substring(start, start + length));
+					add(keyspace, ranked, reversed.substring(start, start + length));
+				}
+			}
+		}
+
+		// Repeated blocks of two or three digits, e.g. 1212121 or 1231231
+		for (int blockLength = 2; blockLength <= 3; blockLength++) {
+			int blocks = (int) Math.pow(10, blockLength);
+			for (int block = 0; block < blocks; block++) {
+				String digits = String.format("%0" + blockLength + "d", block);
+				for (int length = blockLength + 1; length <= maxLength; length++)
+					add(keyspace, ranked, repeat(digits, 1 + length / blockLength).substring(0, length));
+			}
+		}
+
+		// Dates in common formats, most recent years first, e.g. 24121990, 1990-12-24 without dashes, 241290 or 2412990
+		for (int year = LAST_YEAR; year >= FIRST_YEAR; year--) {
+			String yyyy = String.valueOf(year);
+			String yy = yyyy.substring(2);
+			for (int month = 1; month <= 12; month++) {
+				for (int day = 1; day <= DAYS_PER_MONTH[month - 1]; day++) {
+					String dd = String.format("%02d", day), d = String.valueOf(day);
+					String mm = String.format("%02d", month), m = String.valueOf(month);
+					for (String date : new String[] {
+							dd + mm + yyyy, yyyy + mm + dd, mm + dd + yyyy,
+							dd + mm + yy, yy + mm + dd, mm + dd + yy,
+							d + mm + yyyy, dd + m + yyyy, d + m + yyyy, dd + mm + yyyy.substring(1) })
+						add(keyspace, ranked, date);
+				}
+			}
+		}
+
+		return ranked.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	/**
+	 * @param candidates candidate indexes
+	 * @return the same indexes in ascending order
+	 */
+	public static long[] sorted(long[] candidates) {
+		long[] sorted = candidates.clone();
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	private static void add(Keyspace keyspace, Set<Long> ranked, String candidate) {
+		long index = keyspace.indexOf(candidate);
+		if (index >= 0)
+			ranked.add(index);
+	}
+
+	private static String repeat(String s, int times) {
+		StringBuilder builder = new StringBuilder(s.length() * times);
+		for (int i = 0; i < times; i++)
+			builder.append(s);
+		return builder.toString();
+	}
+}
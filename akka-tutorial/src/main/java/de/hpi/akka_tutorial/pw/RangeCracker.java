@@ -0,0 +1,137 @@
+package de.hpi.akka_tutorial.pw;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Hashes ranges or lists of password candidates of a {@link Keyspace} and probes every digest against a {@link TargetSet}.
+ * All buffers are reused, so an instance must only be used by one thread at a time.
+ */
+public class RangeCracker {
+
+	/**
+	 * Receives the candidates whose digest is contained in the {@link TargetSet}.
+	 */
+	public interface Hits {
+
+		/**
+		 * @param index the index of the candidate in the {@link Keyspace}
+		 * @param slot the slot of its digest in the {@link TargetSet}
+		 */
+		void found(long index, int slot);
+	}
+
+	// The kind of engine that hashes all candidates
+	private final Sha256Engine.Kind kind;
+
+	// The keyspace to enumerate
+	private final Keyspace keyspace;
+
+	// An engine and reusable candidate buffers for each candidate length, created on first use
+	private final Sha256Engine[] engines;
+	private final byte[][][] candidates;
+
+	// Reusable buffers for the digests and candidate indexes of one engine call
+	private byte[][] digests = new byte[0][];
+	private long[] indexes = new long[0];
+
+	public RangeCracker(final Sha256Engine.Kind kind, final Keyspace keyspace) {
+		this.kind = kind;
+		this.keyspace = keyspace;
+		this.engines = new Sha256Engine[keyspace.maxLength() + 1];
+		this.candidates = new byte[keyspace.maxLength() + 1][][];
+	}
+
+	/**
+	 * Hash all candidates in the range, as many at once as the engine hashes per call, and report the hits.
+	 *
+	 * @param rangeMin index of the first candidate to check (inclusive)
+	 * @param rangeMax index of the last candidate to check (inclusive)
+	 * @param skip ascending indexes of candidates not to check, e.g., because they were checked before; may be empty
+	 * @param targets the digests to look for
+	 * @param hits receives all hits
+	 * @param stop checked between engine calls; the scan ends early once it returns {@code true}
+	 */
+	public void crack(long rangeMin, long rangeMax, long[] skip, TargetSet targets, Hits hits, BooleanSupplier stop) {
+		final Keyspace.Cursor cursor = this.keyspace.cursor(rangeMin);
+		long index = rangeMin;
+
+		// The next candidate to skip
+		int nextSkip = Arrays.binarySearch(skip, rangeMin);
+		if (nextSkip < 0)
+			nextSkip = -nextSkip - 1;
+
+		while (index <= rangeMax && !stop.getAsBoolean()) {
+
+			// Collect up to one candidate per lane; all candidates of one call must have the same length
+			final int length = cursor.length();
+			final Sha256Engine engine = this.engine(length);
+			final byte[][] candidates = this.candidates[length];
+			int count = 0;
+			while (count < candidates.length && index <= rangeMax && cursor.length() == length) {
+				if (nextSkip < skip.length && skip[nextSkip] == index) {
+					nextSkip++;
+				} else {
+					this.indexes[count] = index;
+					System.arraycopy(cursor.candidate(), 0, candidates[count++], 0, length);
+				}
+				if (index++ < rangeMax)
+					cursor.next();
+			}
+			this.hash(engine, candidates, count, targets, hits);
+		}
+	}
+
+	/**
+	 * Hash the given candidates, as many at once as the engine hashes per call, and report the hits.
+	 *
+	 * @param indexes the indexes of the candidates to check
+	 * @param from the position of the first index to check (inclusive)
+	 * @param to the position of the last index to check (inclusive)
+	 * @param targets the digests to look for
+	 * @param hits receives all hits
+	 * @param stop checked between engine calls; the scan ends early once it returns {@code true}
+	 */
+	public void crack(long[] indexes, int from, int to, TargetSet targets, Hits hits, BooleanSupplier stop) {
+		int position = from;
+		while (position <= to && !stop.getAsBoolean()) {
+			Keyspace.Cursor cursor = this.keyspace.cursor(indexes[position]);
+
+			// Collect up to one candidate per lane; all candidates of one call must have the same length
+			final int length = cursor.length();
+			final Sha256Engine engine = this.engine(length);
+			final byte[][] candidates = this.candidates[length];
+			int count = 0;
+			while (count < candidates.length && position <= to && cursor.length() == length) {
+				this.indexes[count] = indexes[position];
+				System.arraycopy(cursor.candidate(), 0, candidates[count++], 0, length);
+				if (++position <= to)
+					cursor = this.keyspace.cursor(indexes[position]);
+			}
+			this.hash(engine, candidates, count, targets, hits);
+		}
+	}
+
+	private void hash(Sha256Engine engine, byte[][] candidates, int count, TargetSet targets, Hits hits) {
+		if (count == 0)
+			return;
+		engine.hash(candidates, this.digests, count);
+		for (int lane = 0; lane < count; lane++) {
+			int slot = targets.find(this.digests[lane]);
+			if (slot >= 0)
+				hits.found(this.indexes[lane], slot);
+		}
+	}
+
+	private Sha256Engine engine(int length) {
+		if (this.engines[length] == null) {
+			this.engines[length] = this.kind.create(length);
+			this.candidates[length] = new byte[this.engines[length].lanes()][length];
+			if (this.digests.length < this.engines[length].lanes()) {
+				this.digests = new byte[this.engines[length].lanes()][Digests.LENGTH];
+				this.indexes = new long[this.engines[length].lanes()];
+			}
+		}
+		return this.engines[length];
+	}
+}
@@ -0,0 +1,49 @@
+package de.hpi.akka_tutorial.pw;
+
+/**
+ * Hashes password candidates of one fixed length with SHA-256. Engines may hash several candidates per call
+ * to fill the CPU pipeline, so callers should always pass up to {@link #lanes()} candidates at once.
+ */
+public interface Sha256Engine {
+
+	/**
+	 * The available engine implementations.
+	 */
+	enum Kind {
+
+		/** Hashes with {@link java.security.MessageDigest}. */
+		JDK,
+
+		/** Hashes with the single-block {@link Sha256Kernel}. */
+		KERNEL;
+
+		/**
+		 * Create a new engine of this kind.
+		 *
+		 * @param length the length of all candidates to be hashed
+		 * @return the new {@link Sha256Engine}
+		 */
+		public Sha256Engine create(int length) {
+			switch (this) {
+				case KERNEL:
+					return new Sha256Kernel(length);
+				default:
+					return new JdkSha256Engine(length);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of candidates that this engine hashes per call at most
+	 */
+	int lanes();
+
+	/**
+	 * Hash the first {@code count} candidates into the digest buffers at the same positions.
+	 *
+	 * @param candidates the candidates, each of the length given to the engine
+	 * @param digests buffers of {@link Digests#LENGTH} bytes to write the digests to
+	 * @param count the number of candidates to hash, at most {@link #lanes()}
+	 */
+	void hash(byte[][] candidates, byte[][] digests, int count);
+}
@@ -0,0 +1,165 @@
+package de.hpi.akka_tutorial.pw;
+
+/**
+ * A SHA-256 implementation for short inputs of a fixed length, i.e., inputs that fit into a single block together
+ * with their padding. Everything that does not depend on the candidate is precomputed once per length: the padding
+ * and length words, the round constants added to them, and the constant parts of the message schedule. The kernel
+ * interleaves the rounds of two candidates in one loop, so that the two independent dependency chains keep the
+ * CPU pipeline busy.
+ */
+public class Sha256Kernel implements Sha256Engine {
+
+	/** The longest input that still fits into one block with padding and length. */
+	public static final int MAX_LENGTH = 55;
+
+	private static final int LANES = 4;
+
+	private static final int[] K = {
+			0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+			0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+			0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+			0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+			0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+			0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+			0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+			0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+	};
+
+	private static final int[] H = {
+			0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+	};
+
+	// The length of all candidates
+	private final int length;
+
+	// The number of leading message words that contain candidate bytes; all later words are constant
+	private final int variableWords;
+
+	// The message words with the padding and length already in place; the variable words are OR-ed into them
+	private final int[] template = new int[16];
+
+	// K[t] + W[t] for all rounds whose message word is constant, K[t] otherwise
+	private final int[] kw = new int[64];
+
+	// For the schedule words 16..31, the sum of all terms that only depend on constant message words
+	private final int[] scheduleConstant = new int[32];
+
+	// For the schedule words 16..31, a bit mask of the terms (1 = W[t-2], 2 = W[t-7], 4 = W[t-15], 8 = W[t-16]) that depend on the candidate
+	private final int[] scheduleVariable = new int[32];
+
+	// Message schedule buffers of the two interleaved candidates; the constant words 0..15 stay zero, because they are part of kw
+	private final int[] w0 = new int[64], w1 = new int[64];
+
+	/**
+	 * Construct a new {@link Sha256Kernel} object.
+	 *
+	 * @param length the length of all inputs to be hashed
+	 */
+	public Sha256Kernel(int length) {
+		if (length < 0 || length > MAX_LENGTH)
+			throw new IllegalArgumentException("The kernel can only hash inputs of 0 to " + MAX_LENGTH + " bytes, not " + length);
+		this.length = length;
+		this.variableWords = (length + 3) / 4;
+
+		// Padding: a single 1 bit after the message and the message length in bits in the last word
+		this.template[length / 4] |= 0x80 << (24 - 8 * (length % 4));
+		this.template[15] = length * 8;
+
+		for (int t = 0; t < 64; t++)
+			this.kw[t] = K[t] + (t >= this.variableWords && t < 16 ? this.template[t] : 0);
+
+		for (int t = 16; t < 32; t++) {
+			int constant = 0, variable = 0;
+			if (this.isConstant(t - 2)) constant += sigma1(this.template[t - 2]); else variable |= 1;
+			if (this.isConstant(t - 7)) constant += this.template[t - 7]; else variable |= 2;
+			if (this.isConstant(t - 15)) constant += sigma0(this.template[t - 15]); else variable |= 4;
+			if (this.isConstant(t - 16)) constant += this.template[t - 16]; else variable |= 8;
+			this.scheduleConstant[t] = constant;
+			this.scheduleVariable[t] = variable;
+		}
+	}
+
+	private boolean isConstant(int word) {
+		return word < 16 && word >= this.variableWords;
+	}
+
+	@Override
+	public int lanes() {
+		return LANES;
+	}
+
+	@Override
+	public void hash(byte[][] candidates, byte[][] digests, int count) {
+		for (int lane = 0; lane < count; lane += 2) {
+			this.load(candidates[lane], this.w0);
+			this.load(candidates[lane + 1 < count ? lane + 1 : lane], this.w1);
+			this.compress(digests[lane], lane + 1 < count ? digests[lane + 1] : null);
+		}
+	}
+
+	/**
+	 * Write the candidate bytes into the variable message words and expand the message schedule.
+	 */
+	private void load(byte[] candidate, int[] w) {
+		for (int i = 0; i < this.variableWords; i++) {
+			int word = this.template[i];
+			for (int j = 0, pos = 4 * i; j < 4 && pos < this.length; j++, pos++)
+				word |= (candidate[pos] & 0xFF) << (24 - 8 * j);
+			w[i] = word;
+		}
+		for (int t = 16; t < 32; t++) {
+			int value = this.scheduleConstant[t];
+			int variable = this.scheduleVariable[t];
+			if ((variable & 1) != 0) value += sigma1(w[t - 2]);
+			if ((variable & 2) != 0) value += w[t - 7];
+			if ((variable & 4) != 0) value += sigma0(w[t - 15]);
+			if ((variable & 8) != 0) value += w[t - 16];
+			w[t] = value;
+		}
+		for (int t = 32; t < 64; t++)
+			w[t] = sigma1(w[t - 2]) + w[t - 7] + sigma0(w[t - 15]) + w[t - 16];
+	}
+
+	/**
+	 * Run the 64 rounds for both loaded candidates at once and write their digests.
+	 */
+	private void compress(byte[] digest0, byte[] digest1) {
+		final int[] w0 = this.w0, w1 = this.w1, kw = this.kw;
+
+		int a0 = H[0], b0 = H[1], c0 = H[2], d0 = H[3], e0 = H[4], f0 = H[5], g0 = H[6], h0 = H[7];
+		int a1 = H[0], b1 = H[1], c1 = H[2], d1 = H[3], e1 = H[4], f1 = H[5], g1 = H[6], h1 = H[7];
+
+		for (int t = 0; t < 64; t++) {
+			// Constant message words are already part of kw, their schedule entries are zero
+			int t10 = h0 + (Integer.rotateRight(e0, 6) ^ Integer.rotateRight(e0, 11) ^ Integer.rotateRight(e0, 25)) + (g0 ^ (e0 & (f0 ^ g0))) + kw[t] + w0[t];
+			int t11 = h1 + (Integer.rotateRight(e1, 6) ^ Integer.rotateRight(e1, 11) ^ Integer.rotateRight(e1, 25)) + (g1 ^ (e1 & (f1 ^ g1))) + kw[t] + w1[t];
+			int t20 = (Integer.rotateRight(a0, 2) ^ Integer.rotateRight(a0, 13) ^ Integer.rotateRight(a0, 22)) + ((a0 & b0) | (c0 & (a0 | b0)));
+			int t21 = (Integer.rotateRight(a1, 2) ^ Integer.rotateRight(a1, 13) ^ Integer.rotateRight(a1, 22)) + ((a1 & b1) | (c1 & (a1 | b1)));
+
+			h0 = g0; g0 = f0; f0 = e0; e0 = d0 + t10; d0 = c0; c0 = b0; b0 = a0; a0 = t10 + t20;
+			h1 = g1; g1 = f1; f1 = e1; e1 = d1 + t11; d1 = c1; c1 = b1; b1 = a1; a1 = t11 + t21;
+		}
+
+		store(digest0, 0, a0 + H[0]); store(digest0, 1, b0 + H[1]); store(digest0, 2, c0 + H[2]); store(digest0, 3, d0 + H[3]);
+		store(digest0, 4, e0 + H[4]); store(digest0, 5, f0 + H[5]); store(digest0, 6, g0 + H[6]); store(digest0, 7, h0 + H[7]);
+		if (digest1 != null) {
+			store(digest1, 0, a1 + H[0]); store(digest1, 1, b1 + H[1]); store(digest1, 2, c1 + H[2]); store(digest1, 3, d1 + H[3]);
+			store(digest1, 4, e1 + H[4]); store(digest1, 5, f1 + H[5]); store(digest1, 6, g1 + H[6]); store(digest1, 7, h1 + H[7]);
+		}
+	}
+
+	private static void store(byte[] digest, int index, int word) {
+		digest[4 * index] = (byte) (word >>> 24);
+		digest[4 * index + 1] = (byte) (word >>> 16);
+		digest[4 * index + 2] = (byte) (word >>> 8);
+		digest[4 * index + 3] = (byte) word;
+	}
+
+	private static int sigma0(int x) {
+		return Integer.rotateRight(x, 7) ^ Integer.rotateRight(x, 18) ^ (x >>> 3);
+	}
+
+	private static int sigma1(int x) {
+		return Integer.rotateRight(x, 17) ^ Integer.rotateRight(x, 19) ^ (x >>> 10);
+	}
+}
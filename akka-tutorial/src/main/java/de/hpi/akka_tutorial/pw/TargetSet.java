@@ -0,0 +1,151 @@
+package de.hpi.akka_tutorial.pw;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The set of digests a worker is looking for. Probing a candidate digest does not allocate any objects and costs about
+ * the same for a handful of digests as for hundreds of thousands of them: a Bloom filter on the first four bytes of the
+ * digest rejects almost all candidates with two bit tests, the rest probe an open-addressed table of the first eight
+ * bytes, and only a prefix hit compares the full digest.
+ */
+public class TargetSet {
+
+	// Bits of Bloom filter per distinct digest; with two bits per digest about 1.5% of the non-targets pass the filter
+	private static final int BLOOM_BITS_PER_DIGEST = 16;
+
+	private static final int MIN_BLOOM_BITS = 512;
+
+	// The Bloom filter and the mask to reduce a hash to one of its bits
+	private final long[] bloom;
+
+	private final int bloomMask;
+
+	// The open-addressed table of digest prefixes, which is at most half full, and the slot plus one of each entry (0 for empty entries)
+	private final long[] tablePrefixes;
+
+	private final int[] tableSlots;
+
+	private final int tableMask;
+
+	// The distinct digests, one after the other, by slot
+	private final byte[] digests;
+
+	// For every distinct digest the positions at which it occurred in the input array
+	private final int[][] positions;
+
+	/**
+	 * Construct a new {@link TargetSet} object.
+	 *
+	 * @param digests the digests to look for; equal digests are merged
+	 */
+	public TargetSet(byte[][] digests) {
+		int bloomBits = Integer.highestOneBit(Math.max(MIN_BLOOM_BITS, (int) Math.min(1 << 30, (long) digests.length * BLOOM_BITS_PER_DIGEST)) - 1) << 1;
+		this.bloom = new long[bloomBits / 64];
+		this.bloomMask = bloomBits - 1;
+
+		int tableSize = Integer.highestOneBit(Math.max(2, 2 * digests.length) - 1) << 1;
+		this.tablePrefixes = new long[tableSize];
+		this.tableSlots = new int[tableSize];
+		this.tableMask = tableSize - 1;
+
+		// Insert every digest unless an equal one was inserted before, in which case only its position is remembered
+		byte[] distinct = new byte[digests.length * Digests.LENGTH];
+		List<List<Integer>> distinctPositions = new ArrayList<>();
+		for (int position = 0; position < digests.length; position++) {
+			byte[] digest = digests[position];
+			int slot = this.find(digest, distinct);
+			if (slot < 0) {
+				slot = distinctPositions.size();
+				System.arraycopy(digest, 0, distinct, slot * Digests.LENGTH, Digests.LENGTH);
+				distinctPositions.add(new ArrayList<>());
+				this.insert(digest, slot);
+			}
+			distinctPositions.get(slot).add(position);
+		}
+
+		this.digests = distinct;
+		this.positions = new int[distinctPositions.size()][];
+		for (int slot = 0; slot < this.positions.length; slot++)
+			this.positions[slot] = distinctPositions.get(slot).stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private void insert(byte[] digest, int slot) {
+		int word = word(digest);
+		this.setBloomBit(word);
+		this.setBloomBit(rehash(word));
+
+		long prefix = Digests.prefix(digest);
+		int entry = (int) prefix & this.tableMask;
+		while (this.tableSlots[entry] != 0)
+			entry = (entry + 1) & this.tableMask;
+		this.tablePrefixes[entry] = prefix;
+		this.tableSlots[entry] = slot + 1;
+	}
+
+	private void setBloomBit(int hash) {
+		int bit = hash & this.bloomMask;
+		this.bloom[bit >>> 6] |= 1L << bit;
+	}
+
+	private boolean isBloomBitSet(int hash) {
+		int bit = hash & this.bloomMask;
+		return (this.bloom[bit >>> 6] & (1L << bit)) != 0;
+	}
+
+	// The first four bytes of a digest as big endian int; digests are uniformly distributed, so this is a good hash already
+	private static int word(byte[] digest) {
+		return (digest[0] & 0xFF) << 24 | (digest[1] & 0xFF) << 16 | (digest[2] & 0xFF) << 8 | (digest[3] & 0xFF);
+	}
+
+	// A second hash of the same word for the second bit of the Bloom filter, taken from the well-mixed high bits of a multiplication
+	private static int rehash(int word) {
+		return Integer.reverse(word * 0x9E3779B9);
+	}
+
+	/**
+	 * @return the number of distinct digests in this set
+	 */
+	public int size() {
+		return this.positions.length;
+	}
+
+	/**
+	 * Look up a digest.
+	 *
+	 * @param digest the digest to look for
+	 * @return the slot of the digest in this set or {@code -1} if it is not contained
+	 */
+	public int find(byte[] digest) {
+		int word = word(digest);
+		if (!this.isBloomBitSet(word) || !this.isBloomBitSet(rehash(word)))
+			return -1;
+		return this.find(digest, this.digests);
+	}
+
+	private int find(byte[] digest, byte[] digests) {
+		long prefix = Digests.prefix(digest);
+		for (int entry = (int) prefix & this.tableMask; this.tableSlots[entry] != 0; entry = (entry + 1) & this.tableMask) {
+			if (this.tablePrefixes[entry] != prefix)
+				continue;
+
+			// Distinct digests may share a prefix, so compare the remaining bytes
+			int slot = this.tableSlots[entry] - 1;
+			int offset = slot * Digests.LENGTH;
+			int i = 8;
+			while (i < Digests.LENGTH && digests[offset + i] == digest[i])
+				i++;
+			if (i == Digests.LENGTH)
+				return slot;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param slot a slot returned by {@link #find(byte[])}
+	 * @return the positions of the digest in the array that this set was constructed from
+	 */
+	public int[] positions(int slot) {
+		return this.positions[slot];
+	}
+}
@@ -2,6 +2,8 @@ package de.hpi.akka_tutorial.remote;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.concurrent.TimeoutException;
 
@@ -11,11 +13,15 @@ import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Address;
 import akka.actor.PoisonPill;
+import akka.actor.Props;
+import de.hpi.akka_tutorial.pw.Keyspace;
 import de.hpi.akka_tutorial.remote.actors.scheduling.PWReactiveSchedulingStrategy.PWFactory;
 import de.hpi.akka_tutorial.remote.actors.scheduling.SSReactiveSchedulingStrategy.SSFactory;
+import de.hpi.akka_tutorial.remote.actors.scheduling.TaskKind;
 import de.hpi.akka_tutorial.remote.messages.ShutdownMessage;
 import de.hpi.akka_tutorial.Participant;
 import de.hpi.akka_tutorial.remote.actors.ExerciseListener;
+import de.hpi.akka_tutorial.remote.actors.Master;
 import de.hpi.akka_tutorial.remote.actors.PWMaster;
 import de.hpi.akka_tutorial.remote.actors.SSMaster;
 import de.hpi.akka_tutorial.remote.actors.Reaper;
@@ -30,24 +36,51 @@ public class PWCalculator {
 	private static final String DEFAULT_MASTER_SYSTEM_NAME = "MasterActorSystem";
 	private static final String DEFAULT_SLAVE_SYSTEM_NAME = "SlaveActorSystem";
 
-	private static void shutdown(final ActorRef shepherd, final ActorRef master1, final ActorRef master2) {
+	/**
+	 * The options of a master, which are named rather than positional, so that options of the same type cannot be swapped.
+	 */
+	public static class MasterOptions {
+
+		// The address that the master's ActorSystem binds to and the transport that it uses
+		public String host = "localhost";
+		public int port = 7877;
+		public AkkaUtils.Transport transport = AkkaUtils.Transport.NETTY;
+
+		// The workers that the master runs locally, how many tasks of each kind a worker holds at once and which kind goes first
+		public Props workerProps;
+		public int numLocalWorkers;
+		public Map<TaskKind, Integer> kind2weight;
+		public TaskKind priority;
+
+		// The password job: one sweep over all hashes or one per user, an optional digest index and the keyspace
+		public PWFactory pwFactory;
+		public boolean multiTarget;
+		public String digestIndexFile;
+		public Keyspace keyspace = Keyspace.DEFAULT;
+
+		// The substring job: a suffix automaton over all participants or batches of pairs, optionally in tiles
+		public SSFactory ssFactory;
+		public boolean suffixAutomaton;
+		public int pairsPerBatch;
+		public int tileSize;
+	}
+
+	private static void shutdown(final ActorRef shepherd, final ActorRef master) {
 		
 		// Tell the master that we will not send any further requests and want to shutdown the system after all current jobs finished
-		master1.tell(new ShutdownMessage(), ActorRef.noSender());
-		master2.tell(new ShutdownMessage(), ActorRef.noSender());
+		master.tell(new ShutdownMessage(), ActorRef.noSender());
 		
 		// Do not accept any new subscriptions
 		shepherd.tell(new ShutdownMessage(), ActorRef.noSender());
 	}
 	
-	private static void kill(final ActorRef listener, final ActorRef master1, final ActorRef master2, final ActorRef shepherd) {
+	private static void kill(final ActorRef listener, final ActorRef master, final ActorRef shepherd) {
 		
 		// End the listener
 		listener.tell(PoisonPill.getInstance(), ActorRef.noSender());
 
-		// End the masters
-		master1.tell(PoisonPill.getInstance(), ActorRef.noSender());
-		master2.tell(PoisonPill.getInstance(), ActorRef.noSender());
+		// End the master
+		master.tell(PoisonPill.getInstance(), ActorRef.noSender());
 		
 		// End the shepherd
 		shepherd.tell(PoisonPill.getInstance(), ActorRef.noSender()); 
@@ -63,10 +96,10 @@ public class PWCalculator {
 		System.out.println("ActorSystem terminated!");
 	}
 
-	public static void runSlave(String host, int port, String masterHost, int masterPort) {
+	public static void runSlave(String host, int port, String masterHost, int masterPort, AkkaUtils.Transport transport) {
 
 		// Create the local ActorSystem
-		final Config config = AkkaUtils.createRemoteAkkaConfig(host, port);
+		final Config config = AkkaUtils.createRemoteAkkaConfig(host, port, transport);
 		final ActorSystem actorSystem = ActorSystem.create(DEFAULT_SLAVE_SYSTEM_NAME, config);
 		
 		// Create the reaper.
@@ -76,16 +109,16 @@ public class PWCalculator {
 		final ActorRef slave = actorSystem.actorOf(Slave.props(), Slave.DEFAULT_NAME);
 
 		// Tell the Slave to register the local ActorSystem
-		slave.tell(new Slave.AddressMessage(new Address("akka.tcp", DEFAULT_MASTER_SYSTEM_NAME, masterHost, masterPort)), ActorRef.noSender());
+		slave.tell(new Slave.AddressMessage(new Address(transport.protocol(), DEFAULT_MASTER_SYSTEM_NAME, masterHost, masterPort)), ActorRef.noSender());
 		
 		// Await termination: The termination should be issued by the reaper
 		PWCalculator.awaitTermination(actorSystem);
 	}
 
-	public static void runMaster(String host, int port, PWFactory schedulingStrategyFactory, SSFactory ssfac, int numLocalWorkers, ArrayList<Participant> all_participants) {
+	public static void runMaster(MasterOptions options, ArrayList<Participant> all_participants) {
 
 		// Create the ActorSystem
-		final Config config = AkkaUtils.createRemoteAkkaConfig(host, port);
+		final Config config = AkkaUtils.createRemoteAkkaConfig(options.host, options.port, options.transport);
 		final ActorSystem actorSystem = ActorSystem.create(DEFAULT_MASTER_SYSTEM_NAME, config);
 
 		// Create the Reaper.
@@ -94,28 +127,35 @@ public class PWCalculator {
 		// Create the Listener
 		final ActorRef listener = actorSystem.actorOf(ExerciseListener.props(all_participants), ExerciseListener.DEFAULT_NAME);
 
-		// Create the Masters
-		final ActorRef pwmaster = actorSystem.actorOf(PWMaster.props(listener, schedulingStrategyFactory, numLocalWorkers), PWMaster.DEFAULT_NAME);
-		final ActorRef ssmaster = actorSystem.actorOf(SSMaster.props(listener, ssfac, numLocalWorkers), SSMaster.DEFAULT_NAME);
+		// Create the Master, which runs the password and the substring job on one pool of workers
+		final ActorRef master = actorSystem.actorOf(Master.props(listener, options.workerProps, options.numLocalWorkers, options.kind2weight, options.priority,
+				PWMaster.factory(options.pwFactory, options.digestIndexFile, options.keyspace), SSMaster.factory(options.ssFactory, options.pairsPerBatch, options.tileSize)), Master.DEFAULT_NAME);
 
 		// Create the Shepherd
-		final ActorRef shepherd = actorSystem.actorOf(Shepherd.props(pwmaster), Shepherd.DEFAULT_NAME);
+		final ActorRef shepherd = actorSystem.actorOf(Shepherd.props(master), Shepherd.DEFAULT_NAME);
 
-		// Schedule all pw cracking jobs
-		for (Participant p : all_participants) {
-			pwmaster.tell(new PWMaster.PWHashMessage(p.getId(), p.getPwhash()), ActorRef.noSender());
+		// Schedule all pw cracking jobs, either as one sweep over all hashes or as one sweep per user
+		if (options.multiTarget) {
+			Map<Integer, String> userid2pwhash = new LinkedHashMap<>();
+			for (Participant p : all_participants) {
+				userid2pwhash.put(p.getId(), p.getPwhash());
+			}
+			master.tell(new PWMaster.PWHashBatchMessage(userid2pwhash), ActorRef.noSender());
+		} else {
+			for (Participant p : all_participants) {
+				master.tell(new PWMaster.PWHashMessage(p.getId(), p.getPwhash()), ActorRef.noSender());
+			}
 		}
 
-		// schedule all substring matching jobs, reducing combinations to a minimum
-		for (int i = 0; i < all_participants.size(); ++i) {
-			for (int j = 0;  j < all_participants.size(); ++j) {
-				if (i == j) continue; // do not compare with self
-				ssmaster.tell(new SSMaster.CompareMessage(all_participants.get(i), all_participants.get(j)), ActorRef.noSender());
-			}
+		// Match the DNA of all participants at once with a suffix automaton, or compare every pair of participants once
+		if (options.suffixAutomaton) {
+			master.tell(new SSMaster.BestPartnersMessage(all_participants), ActorRef.noSender());
+		} else {
+			master.tell(new SSMaster.AllPairsMessage(all_participants), ActorRef.noSender());
 		}
 		
-		PWCalculator.enterInteractiveLoop(listener, pwmaster, ssmaster, shepherd);
-		PWCalculator.shutdown(shepherd, pwmaster, ssmaster);
+		PWCalculator.enterInteractiveLoop(listener, master, shepherd);
+		PWCalculator.shutdown(shepherd, master);
 		
 		System.out.println("Stopping...");
 
@@ -124,7 +164,7 @@ public class PWCalculator {
 		
 	}
 	
-	private static void enterInteractiveLoop(final ActorRef listener, final ActorRef master1, final ActorRef master2, final ActorRef shepherd) {
+	private static void enterInteractiveLoop(final ActorRef listener, final ActorRef master, final ActorRef shepherd) {
 		
 		// Read ranges from the console and process them
 		final Scanner scanner = new Scanner(System.in);
@@ -143,11 +183,11 @@ public class PWCalculator {
 
 			switch (line) {
 				case "exit":
-					PWCalculator.shutdown(shepherd, master1, master2);
+					PWCalculator.shutdown(shepherd, master);
 					scanner.close();
 					return;
 				case "kill":
-					PWCalculator.kill(listener, master1, master2, shepherd);
+					PWCalculator.kill(listener, master, shepherd);
 					scanner.close();
 					return;
 				default:
@@ -33,11 +33,12 @@ public class ExerciseListener extends AbstractLoggingActor {
 	public ExerciseListener(final ArrayList<Participant> pl) {
 		for (Participant p : pl) {
 			participant_list.put(new Integer(p.getId()), p);
+			pwhash2participants.computeIfAbsent(p.getPwhash().toLowerCase(), h -> new ArrayList<>()).add(p);
 		}
 	}
 
 		/**
-         * Asks the {@link ExerciseListener} to store a given password to a user.
+         * Asks the {@link ExerciseListener} to store a given password to all users with the given password hash.
          */
 	public static class PWListenerMessage implements Serializable {
 		
@@ -45,11 +46,11 @@ public class ExerciseListener extends AbstractLoggingActor {
 
 		private String password;
 		
-		private Integer userid;
+		private String pwhash;
 
-		public PWListenerMessage(final String password, final Integer userid) {
+		public PWListenerMessage(final String password, final String pwhash) {
 			this.password = password;
-			this.userid = userid;
+			this.pwhash = pwhash;
 		}
 
 		/**
@@ -83,6 +84,7 @@ public class ExerciseListener extends AbstractLoggingActor {
 	// The set of all users and passwords received by this listener actor
 	private final Map<String, String> pw_map = new HashMap<String, String>();
 	private final Map<Integer, Participant> participant_list = new HashMap<Integer, Participant>();
+	private final Map<String, List<Participant>> pwhash2participants = new HashMap<String, List<Participant>>();
 
 	@Override
 	public void preStart() throws Exception {
@@ -112,8 +114,11 @@ public class ExerciseListener extends AbstractLoggingActor {
 	}
 	
 	private void handle(PWListenerMessage message) {
-		System.out.println(String.format("Found password for user %d: %s", message.userid, message.password));
-		this.participant_list.get(message.userid).setPw_clear(message.password);
+		// Several users might share the same password hash
+		for (Participant p : this.pwhash2participants.getOrDefault(message.pwhash.toLowerCase(), Collections.emptyList())) {
+			System.out.println(String.format("Found password for user %d: %s", p.getId(), message.password));
+			p.setPw_clear(message.password);
+		}
 	}
 	private void refreshParticipant(Participant p1) {
 		Participant p2 = this.participant_list.get(p1.getId());
@@ -124,6 +129,7 @@ public class ExerciseListener extends AbstractLoggingActor {
 		}
 	}
 	private void handle(SSListenerMessage message) {
+		// Each pair is compared only once, so the match may be the best one for either participant
 		/*if (this.participant_list.containsKey(message.p1.getId())){
 			this.refreshParticipant(message.p1);
 		}
@@ -137,6 +143,7 @@ public class ExerciseListener extends AbstractLoggingActor {
 			this.participant_list.put(message.p2.getId(), message.p2);
 		}*/
 		refreshParticipant(message.p1);
+		refreshParticipant(message.p2);
 	}
 	
 	private void handle(ShutdownMessage message) {
@@ -0,0 +1,297 @@
+package de.hpi.akka_tutorial.remote.actors;
+
+import static akka.actor.SupervisorStrategy.escalate;
+import static akka.actor.SupervisorStrategy.stop;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import akka.actor.AbstractLoggingActor;
+import akka.actor.ActorRef;
+import akka.actor.Deploy;
+import akka.actor.OneForOneStrategy;
+import akka.actor.PoisonPill;
+import akka.actor.Props;
+import akka.actor.SupervisorStrategy;
+import akka.actor.Terminated;
+import akka.japi.pf.DeciderBuilder;
+import akka.remote.RemoteScope;
+import de.hpi.akka_tutorial.remote.actors.scheduling.SchedulingStrategy;
+import de.hpi.akka_tutorial.remote.actors.scheduling.TaskKind;
+import de.hpi.akka_tutorial.remote.actors.scheduling.TaskScheduler;
+import de.hpi.akka_tutorial.remote.messages.RemoteSystemMessage;
+import de.hpi.akka_tutorial.remote.messages.ShutdownMessage;
+import de.hpi.akka_tutorial.util.AkkaUtils;
+import scala.concurrent.duration.Duration;
+
+/**
+ * The master runs several {@link Job}s, e.g., a {@link PWMaster} and an {@link SSMaster}, on one pool of
+ * {@link PoolWorker}s, which it starts locally and on every subscribed actor system. Every job splits its requests into
+ * tasks of its own {@link TaskKind}; the master's {@link TaskScheduler} decides which kind of task a worker gets next,
+ * so that no worker is idle while any job still has tasks.
+ */
+public class Master extends AbstractLoggingActor {
+
+	public static final String DEFAULT_NAME = "master";
+
+	/**
+	 * The requests and the tasks of one {@link TaskKind} that a {@link Master} runs.
+	 */
+	public interface Job {
+
+		/**
+		 * A factory for a {@link Job}.
+		 */
+		interface Factory {
+
+			/**
+			 * Create a new {@link Job}.
+			 *
+			 * @param master the master that runs the new instance
+			 * @return the new {@link Job}
+			 */
+			Job create(Master master) throws IOException;
+		}
+
+		/**
+		 * @return the strategy that splits the requests of this job into tasks
+		 */
+		SchedulingStrategy schedulingStrategy();
+
+		/**
+		 * @return the handlers of the requests of this job and of the workers' answers to its tasks
+		 */
+		Receive receive();
+
+		/**
+		 * Schedule further tasks, if this job generates them lazily, before the master assigns tasks to free workers.
+		 */
+		default void prepareTasks() {
+		}
+
+		/**
+		 * @return {@code true} if all requests of this job have been processed
+		 */
+		boolean hasFinished();
+	}
+
+	/**
+	 * Create the {@link Props} necessary to instantiate new {@link Master} actors.
+	 *
+	 * @param listener the listener that collects all results
+	 * @param workerProps the {@link Props} of the {@link PoolWorker}s to start, locally and on remote actor systems
+	 * @param numLocalWorkers number of workers that this master should start locally
+	 * @param kind2weight the number of tasks of each kind that a worker holds at once while all kinds have tasks, see {@link TaskScheduler}
+	 * @param priority the kind whose tasks get the free slots of a worker first, or {@code null} to weigh all kinds
+	 * @param jobs the jobs to run, one per kind of tasks
+	 * @return the {@link Props}
+	 */
+	public static Props props(final ActorRef listener, final Props workerProps, final int numLocalWorkers, final Map<TaskKind, Integer> kind2weight, final TaskKind priority, final Job.Factory... jobs) {
+		final Map<TaskKind, Integer> weights = new EnumMap<>(kind2weight);
+		return Props.create(Master.class, () -> new Master(listener, workerProps, numLocalWorkers, weights, priority, jobs));
+	}
+
+	// The supervisor strategy for the worker actors created by this master actor
+	private static SupervisorStrategy strategy =
+			new OneForOneStrategy(0, Duration.create(1, TimeUnit.SECONDS), DeciderBuilder
+					.match(Exception.class, e -> stop())
+					.matchAny(o -> escalate())
+					.build());
+
+	// The heap that a worker needs at most, for the tasks of all jobs
+	private static final long WORKER_HEAP = 96L << 20;
+
+	// A reference to the listener actor that collects all results
+	private final ActorRef listener;
+
+	// The props of all workers
+	private final Props workerProps;
+
+	// The scheduler that shares the workers among the jobs
+	private final TaskScheduler scheduler;
+
+	// The jobs that this master runs
+	private final List<Job> jobs = new ArrayList<>();
+
+	// The number of bytes that a serialized message to a worker may have at most
+	private final int maxMessageBytes;
+
+	// A flag indicating whether this actor is still accepting new requests
+	private boolean isAcceptingRequests = true;
+
+	/**
+	 * Construct a new {@link Master} object.
+	 *
+	 * @param listener a reference to an {@link ExerciseListener} actor to send results to
+	 * @param workerProps the {@link Props} of the {@link PoolWorker}s to start
+	 * @param numLocalWorkers number of workers that this master should start locally
+	 * @param kind2weight the number of tasks of each kind that a worker holds at once while all kinds have tasks
+	 * @param priority the kind whose tasks get the free slots of a worker first, or {@code null}
+	 * @param jobFactories the factories of the jobs to run
+	 */
+	public Master(final ActorRef listener, final Props workerProps, final int numLocalWorkers, final Map<TaskKind, Integer> kind2weight, final TaskKind priority, final Job.Factory... jobFactories) throws IOException {
+
+		// Save the reference to the Listener actor
+		this.listener = listener;
+		this.workerProps = workerProps;
+		this.maxMessageBytes = AkkaUtils.maximumMessageBytes(this.getContext().getSystem().settings().config());
+
+		// Create the jobs and schedule their tasks with their weights
+		this.scheduler = new TaskScheduler(priority);
+		for (Job.Factory jobFactory : jobFactories) {
+			Job job = jobFactory.create(this);
+			SchedulingStrategy schedulingStrategy = job.schedulingStrategy();
+			this.scheduler.addStrategy(schedulingStrategy, kind2weight.getOrDefault(schedulingStrategy.kind(), TaskScheduler.DEFAULT_WEIGHT));
+			this.jobs.add(job);
+		}
+
+		// Start the specified number of local workers
+		for (int i = 0; i < numLocalWorkers; i++)
+			this.addWorker(this.getContext().actorOf(workerProps));
+	}
+
+	@Override
+	public void preStart() throws Exception {
+		super.preStart();
+
+		// Register at this actor system's reaper
+		Reaper.watchWithDefaultReaper(this);
+	}
+
+	@Override
+	public void postStop() throws Exception {
+		super.postStop();
+
+		// If the master has stopped, it can also stop the listener
+		this.listener.tell(PoisonPill.getInstance(), this.getSelf());
+
+		// Log the stop event
+		this.log().info("Stopped {}.", this.getSelf());
+	}
+
+	@Override
+	public SupervisorStrategy supervisorStrategy() {
+		return Master.strategy;
+	}
+
+	@Override
+	public Receive createReceive() {
+		Receive receive = receiveBuilder()
+				.match(RemoteSystemMessage.class, this::handle)
+				.match(ShutdownMessage.class, this::handle)
+				.match(Terminated.class, this::handle)
+				.build();
+		for (Job job : this.jobs)
+			receive = receive.orElse(job.receive());
+		return receive.orElse(receiveBuilder()
+				.matchAny(object -> this.log().info(this.getClass().getName() + " received unknown message: " + object.toString()))
+				.build());
+	}
+
+	/**
+	 * @return the listener that collects all results
+	 */
+	ActorRef getListener() {
+		return this.listener;
+	}
+
+	/**
+	 * @return the scheduler that shares the workers among the jobs
+	 */
+	TaskScheduler getScheduler() {
+		return this.scheduler;
+	}
+
+	/**
+	 * @return the number of bytes that a serialized message to a worker may have at most
+	 */
+	int getMaxMessageBytes() {
+		return this.maxMessageBytes;
+	}
+
+	/**
+	 * @return whether this master still accepts new requests
+	 */
+	boolean isAcceptingRequests() {
+		return this.isAcceptingRequests;
+	}
+
+	/**
+	 * Let the jobs schedule further tasks, fill the free slots of all workers and stop the actor hierarchy if all work
+	 * is complete. Every job calls this once it handled a message.
+	 */
+	void update() {
+		for (Job job : this.jobs)
+			job.prepareTasks();
+		this.scheduler.assignTasks();
+
+		// Check if work is complete and stop the actor hierarchy if true
+		if (this.hasFinished()) {
+			this.stopSelfAndListener();
+		}
+	}
+
+	private void handle(RemoteSystemMessage message) {
+
+		// Create one worker per core of the remote system, as far as its heap allows
+		int workers = message.workers(WORKER_HEAP);
+		for (int i = 0; i < workers; i++)
+			this.addWorker(this.getContext().actorOf(this.workerProps.withDeploy(new Deploy(new RemoteScope(message.getRemoteAddress())))));
+
+		this.log().info("Deployed {} workers to {} with {} cores and {} MB heap.", workers, message.getRemoteAddress(), message.getCores(), message.getMaxHeap() >> 20);
+
+		// Give the new workers tasks
+		this.update();
+	}
+
+	private void addWorker(ActorRef worker) {
+
+		// Add the worker to the scheduler and the watch list
+		this.scheduler.addWorker(worker);
+		this.getContext().watch(worker);
+	}
+
+	private void handle(ShutdownMessage message) {
+
+		// Stop receiving new requests
+		this.isAcceptingRequests = false;
+
+		// Check if work is complete and stop the actor hierarchy if true
+		if (this.hasFinished()) {
+			this.stopSelfAndListener();
+		}
+	}
+
+	private void handle(Terminated message) {
+
+		// Find the sender of this message
+		final ActorRef sender = this.getSender();
+
+		// Remove the sender from the scheduler, which re-schedules its tasks to the other workers
+		this.scheduler.removeWorker(sender);
+
+		this.log().warning("{} has terminated.", sender);
+
+		// Re-assign the worker's tasks and check if work is complete
+		this.update();
+	}
+
+	private boolean hasFinished() {
+
+		// The master has finished if (1) there will be no further requests and (2) either all requests have been processed or there are no more workers to process these requests
+		return !this.isAcceptingRequests && (this.jobs.stream().allMatch(Job::hasFinished) || this.scheduler.countWorkers() < 1);
+	}
+
+	private void stopSelfAndListener() {
+
+		// Tell the listener to stop
+		this.listener.tell(new ShutdownMessage(), this.getSelf());
+
+		// Stop self and all child actors by sending a poison pill
+		this.getSelf().tell(PoisonPill.getInstance(), this.getSelf());
+	}
+}
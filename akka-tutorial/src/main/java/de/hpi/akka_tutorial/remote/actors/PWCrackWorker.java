@@ -1,13 +1,37 @@
 package de.hpi.akka_tutorial.remote.actors;
 
-import java.io.Serializable;
-import java.io.UnsupportedEncodingException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
+import akka.actor.AbstractActor;
 import akka.actor.AbstractLoggingActor;
+import akka.actor.ActorRef;
 import akka.actor.Props;
+import akka.actor.Status;
+import akka.japi.pf.ReceiveBuilder;
+import de.hpi.akka_tutorial.pw.Digests;
+import de.hpi.akka_tutorial.pw.Keyspace;
+import de.hpi.akka_tutorial.pw.RangeCracker;
+import de.hpi.akka_tutorial.pw.Sha256Engine;
+import de.hpi.akka_tutorial.pw.TargetSet;
+import de.hpi.akka_tutorial.remote.actors.scheduling.TaskKind;
+import de.hpi.akka_tutorial.remote.messages.TaskMessage;
+import de.hpi.akka_tutorial.remote.serialization.CompactReader;
+import de.hpi.akka_tutorial.remote.serialization.CompactSerializer;
+import de.hpi.akka_tutorial.remote.serialization.CompactWriter;
 
 /**
  * The worker waits tests ranges of numbers for passwords.
@@ -20,39 +44,206 @@ public class PWCrackWorker extends AbstractLoggingActor {
 	 * @return the {@link Props}
 	 */
 	public static Props props() {
-		return Props.create(PWCrackWorker.class);
+		return props(Sha256Engine.Kind.JDK, false);
 	}
 
 	/**
-	 * Asks the {@link PWCrackWorker} to brute force a password in a given range.
+	 * Create the {@link Props} necessary to instantiate new {@link PWCrackWorker} actors.
+	 *
+	 * @param engine the kind of {@link Sha256Engine} that the workers hash with
+	 * @param parallel whether each worker splits its ranges across all cores of its actor system
+	 * @return the {@link Props}
 	 */
-	public static class PWValidationMessage implements Serializable {
-		
-		private static final long serialVersionUID = -7467053227355130231L;
-		
+	public static Props props(final Sha256Engine.Kind engine, final boolean parallel) {
+		return Props.create(PWCrackWorker.class, engine, parallel);
+	}
+
+	/**
+	 * Tells the {@link PWCrackWorker} the keyspace and the password hashes of a task. The master sends it once to every
+	 * worker before the first {@link PWValidationMessage} of the task, so that large sets of hashes are neither shipped
+	 * nor indexed again for every range. Sets of hashes that exceed the frame size of the transport are split into
+	 * several messages, see {@link #split}, which the worker collects before it indexes the hashes.
+	 */
+	public static class TargetsMessage implements CompactSerializer.Compact, TaskMessage {
+
+		private static final long serialVersionUID = 2950385740912754117L;
+
+		// The bytes of the fields besides the hashes at most: the offset, the total and the lengths of both arrays
+		private static final int MAX_FIELD_BYTES = 4 * 5;
+
+		// The bytes of a user id at most, which are written as differences between neighbours
+		private static final int MAX_USERID_BYTES = 5;
+
 		private int id;
 
-		private int rangeMin;
+		private Keyspace keyspace;
+
+		// The position of this message's hashes among all hashes of the task and the number of all hashes
+		private int offset;
+
+		private int total;
+
+		private int[] userids;
+
+		private byte[][] digests;
+
+		/**
+		 * Construct a new {@link TargetsMessage} object with all hashes of a task.
+		 *
+		 * @param id the id of the task
+		 * @param keyspace the keyspace that the task's ranges belong to
+		 * @param userids the users whose passwords are searched
+		 * @param digests the raw password hashes of these users (at the same positions), see {@link #decode(String[])}
+		 */
+		public TargetsMessage(int id, Keyspace keyspace, int[] userids, byte[][] digests) {
+			this(id, keyspace, 0, userids.length, userids, digests);
+		}
+
+		/**
+		 * Construct a new {@link TargetsMessage} object with some of the hashes of a task.
+		 *
+		 * @param id the id of the task
+		 * @param keyspace the keyspace that the task's ranges belong to
+		 * @param offset the position of the first hash of this message among all hashes of the task
+		 * @param total the number of all hashes of the task
+		 * @param userids the users whose passwords are searched
+		 * @param digests the raw password hashes of these users (at the same positions), see {@link #decode(String[])}
+		 */
+		public TargetsMessage(int id, Keyspace keyspace, int offset, int total, int[] userids, byte[][] digests) {
+			this.id = id;
+			this.keyspace = keyspace;
+			this.offset = offset;
+			this.total = total;
+			this.userids = userids;
+			this.digests = digests;
+		}
+
+		/**
+		 * Decode hex pwhashes once, so that workers can compare raw digest bytes.
+		 *
+		 * @param pwhashes the hex encoded password hashes
+		 * @return the raw digests to pass to {@link #TargetsMessage(int, Keyspace, int[], byte[][])}
+		 */
+		public static byte[][] decode(String[] pwhashes) {
+			return Digests.fromHex(pwhashes);
+		}
+
+		/**
+		 * Split the hashes of a task into as few messages as possible that are serialized into at most the given number of bytes each.
+		 *
+		 * @param id the id of the task
+		 * @param keyspace the keyspace that the task's ranges belong to
+		 * @param userids the users whose passwords are searched
+		 * @param digests the raw password hashes of these users (at the same positions)
+		 * @param maxBytes the number of bytes that a serialized message may have at most
+		 * @return the messages, at least one
+		 * @throws IllegalArgumentException if not even a single hash fits into a message
+		 */
+		public static List<TargetsMessage> split(int id, Keyspace keyspace, int[] userids, byte[][] digests, int maxBytes) {
+			byte[] spec = keyspace.toString().getBytes(StandardCharsets.UTF_8);
+			int headerBytes = CompactWriter.intBytes(id) + CompactWriter.intBytes(spec.length) + spec.length + MAX_FIELD_BYTES;
+			List<TargetsMessage> messages = new ArrayList<>();
+			int from = 0;
+			int bytes = headerBytes;
+			for (int i = 0; i < userids.length; i++) {
+				int targetBytes = MAX_USERID_BYTES + CompactWriter.intBytes(digests[i].length) + digests[i].length;
+				if (headerBytes + targetBytes > maxBytes)
+					throw new IllegalArgumentException("The targets of task " + id + " do not fit into messages of " + maxBytes + " bytes");
+				if (bytes + targetBytes > maxBytes) {
+					messages.add(new TargetsMessage(id, keyspace, from, userids.length, Arrays.copyOfRange(userids, from, i), Arrays.copyOfRange(digests, from, i)));
+					from = i;
+					bytes = headerBytes;
+				}
+				bytes += targetBytes;
+			}
+			messages.add(from == 0 ? new TargetsMessage(id, keyspace, userids, digests)
+					: new TargetsMessage(id, keyspace, from, userids.length, Arrays.copyOfRange(userids, from, userids.length), Arrays.copyOfRange(digests, from, digests.length)));
+			return messages;
+		}
 
-		private int rangeMax;
+		/**
+		 * For serialization/deserialization only.
+		 */
+		@SuppressWarnings("unused")
+		private TargetsMessage() {
+		}
+
+		@Override
+		public TaskKind kind() {
+			return TaskKind.PASSWORD;
+		}
+
+		@Override
+		public void writeTo(CompactWriter out) {
+			out.writeInt(this.id);
+			out.writeString(this.keyspace.toString());
+			out.writeInt(this.offset);
+			out.writeInt(this.total);
+			out.writeInts(this.userids);
+			out.writeByteArrays(this.digests);
+		}
+
+		/**
+		 * Read a message that was written by {@link #writeTo(CompactWriter)}.
+		 */
+		public static TargetsMessage readFrom(CompactReader in) {
+			TargetsMessage message = new TargetsMessage();
+			message.id = in.readInt();
+			message.keyspace = Keyspace.parse(in.readString());
+			message.offset = in.readInt();
+			message.total = in.readInt();
+			message.userids = in.readInts();
+			message.digests = in.readByteArrays();
+			return message;
+		}
+	}
+
+	/**
+	 * Asks the {@link PWCrackWorker} to brute force the passwords of a task, see {@link TargetsMessage}, in a given range or list of candidates.
+	 */
+	public static class PWValidationMessage implements CompactSerializer.Compact, TaskMessage {
 		
-		private Integer userid;
+		private static final long serialVersionUID = -7467053227355130232L;
 		
-		private String pwhash;
+		private int id;
+
+		private int subqueryId;
+
+		private long rangeMin;
+
+		private long rangeMax;
+
+		private long[] skip;
+
+		private long[] candidates;
 		
 		/**
 		 * Construct a new {@link PWValidationMessage} object.
 		 * 
 		 * @param id the id of the task that this range belongs to
-		 * @param rangeMin first number in the range to be checked as password (inclusive)
-		 * @param rangeMax last number in the range to be checked as password (inclusive)
+		 * @param subqueryId the id of this range within its task, which the answer repeats
+		 * @param rangeMin index of the first candidate in the range to be checked as password (inclusive)
+		 * @param rangeMax index of the last candidate in the range to be checked as password (inclusive)
+		 * @param skip ascending indexes of candidates within the range that need not be checked, e.g., because they were checked before
 		 */
-		public PWValidationMessage(int id, int rangeMin, int rangeMax, Integer userid, String pwhash) {
+		public PWValidationMessage(int id, int subqueryId, long rangeMin, long rangeMax, long[] skip) {
 			this.id = id;
+			this.subqueryId = subqueryId;
 			this.rangeMin = rangeMin;
 			this.rangeMax = rangeMax;
-			this.pwhash = pwhash;
-			this.userid = userid;
+			this.skip = skip;
+		}
+
+		/**
+		 * Construct a new {@link PWValidationMessage} object that checks a list of candidates instead of a range.
+		 *
+		 * @param id the id of the task that these candidates belong to
+		 * @param subqueryId the id of this list within its task, which the answer repeats
+		 * @param candidates the indexes of the candidates to be checked as password
+		 */
+		public PWValidationMessage(int id, int subqueryId, long[] candidates) {
+			this(id, subqueryId, 0, candidates.length - 1, null);
+			this.candidates = candidates;
 		}
 		
 		/**
@@ -61,8 +252,404 @@ public class PWCrackWorker extends AbstractLoggingActor {
 		@SuppressWarnings("unused")
 		private PWValidationMessage() {
 		}
+
+		@Override
+		public TaskKind kind() {
+			return TaskKind.PASSWORD;
+		}
+
+		@Override
+		public void writeTo(CompactWriter out) {
+			out.writeInt(this.id);
+			out.writeInt(this.subqueryId);
+			out.writeLong(this.rangeMin);
+			out.writeLong(this.rangeMax - this.rangeMin);
+			out.writeLongs(this.skip);
+			out.writeLongs(this.candidates);
+		}
+
+		/**
+		 * Read a message that was written by {@link #writeTo(CompactWriter)}.
+		 */
+		public static PWValidationMessage readFrom(CompactReader in) {
+			PWValidationMessage message = new PWValidationMessage();
+			message.id = in.readInt();
+			message.subqueryId = in.readInt();
+			message.rangeMin = in.readLong();
+			message.rangeMax = message.rangeMin + in.readLong();
+			message.skip = in.readLongs();
+			message.candidates = in.readLongs();
+			return message;
+		}
 	}
 	
+	/**
+	 * Asks the {@link PWCrackWorker} to stop working on all ranges of a task as soon as possible and to forget the task's
+	 * {@link TargetsMessage}, because the task's passwords were found or all of its ranges were checked.
+	 * The worker still answers each of these ranges with a {@link PWMaster.PWMessage}.
+	 */
+	public static class CancelMessage implements TaskMessage {
+
+		private static final long serialVersionUID = 5403418562712396421L;
+
+		private int id;
+
+		public CancelMessage(int id) {
+			this.id = id;
+		}
+
+		/**
+		 * For serialization/deserialization only.
+		 */
+		@SuppressWarnings("unused")
+		private CancelMessage() {
+		}
+
+		@Override
+		public TaskKind kind() {
+			return TaskKind.PASSWORD;
+		}
+	}
+
+	/**
+	 * Asks the {@link PWCrackWorker} itself to check the next chunk of its current range.
+	 */
+	private static class ContinueMessage implements TaskMessage {
+
+		private static final long serialVersionUID = -6175302286518341706L;
+
+		@Override
+		public TaskKind kind() {
+			return TaskKind.PASSWORD;
+		}
+	}
+
+	// Sequential workers check their ranges in chunks of this size and look for cancellations in between
+	private static final int CHUNK_SIZE = 16_384;
+
+	// Parallel workers never hash smaller chunks than this
+	private static final int MIN_CHUNK_SIZE = 4096;
+
+	// The pool that parallel workers split their ranges across; a dedicated pool with one thread per core, so that hashing does not block the actor dispatcher
+	private static ForkJoinPool crackingPool;
+
+	private static synchronized ForkJoinPool crackingPool() {
+		if (crackingPool == null)
+			crackingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		return crackingPool;
+	}
+
+	/**
+	 * The hashes of a task whose {@link TargetsMessage}s did not all arrive yet.
+	 */
+	private static class PendingTargets {
+
+		private final int[] userids;
+
+		private final byte[][] digests;
+
+		private int received = 0;
+
+		PendingTargets(int total) {
+			this.userids = new int[total];
+			this.digests = new byte[total][];
+		}
+
+		/**
+		 * @return whether all hashes of the task arrived
+		 */
+		boolean add(TargetsMessage message) {
+			System.arraycopy(message.userids, 0, this.userids, message.offset, message.userids.length);
+			System.arraycopy(message.digests, 0, this.digests, message.offset, message.digests.length);
+			this.received += message.userids.length;
+			return this.received == this.userids.length;
+		}
+	}
+
+	/**
+	 * The targets of one task, see {@link TargetsMessage}, and which of them were found by any of its ranges.
+	 */
+	private static class Task {
+
+		private final Keyspace keyspace;
+
+		private final int[] userids;
+
+		private final TargetSet targets;
+
+		// The slots of the target set that were found already (1) or not (0)
+		private final AtomicIntegerArray found;
+
+		// The number of slots that were not found yet
+		private final AtomicInteger open;
+
+		Task(Keyspace keyspace, int[] userids, byte[][] digests) {
+			this.keyspace = keyspace;
+			this.userids = userids;
+			this.targets = new TargetSet(digests);
+			this.found = new AtomicIntegerArray(this.targets.size());
+			this.open = new AtomicInteger(this.targets.size());
+		}
+
+		boolean isComplete() {
+			return this.open.get() == 0;
+		}
+	}
+
+	/**
+	 * Collects the hits of one {@link PWValidationMessage}, possibly from several threads.
+	 */
+	private static class Result implements RangeCracker.Hits {
+
+		private final Task task;
+
+		private final List<String> passwords = new ArrayList<>();
+		private final List<Integer> passwordUserids = new ArrayList<>();
+
+		Result(Task task) {
+			this.task = task;
+		}
+
+		@Override
+		public void found(long index, int slot) {
+			if (!this.task.found.compareAndSet(slot, 0, 1))
+				return;
+
+			// Several users might share the same hash
+			String password = this.task.keyspace.candidate(index);
+			synchronized (this) {
+				for (int position : this.task.targets.positions(slot)) {
+					this.passwords.add(password);
+					this.passwordUserids.add(this.task.userids[position]);
+				}
+			}
+			this.task.open.decrementAndGet();
+		}
+
+		synchronized PWMaster.PWMessage toMessage(int requestId, int subqueryId) {
+			return new PWMaster.PWMessage(requestId, subqueryId, this.passwords.toArray(new String[0]),
+					this.passwordUserids.stream().mapToInt(Integer::intValue).toArray());
+		}
+	}
+
+	/**
+	 * The state of one {@link PWValidationMessage} that is being processed.
+	 */
+	private static class Job {
+
+		private final PWValidationMessage message;
+
+		// The master to answer to
+		private final ActorRef sender;
+
+		private final Task task;
+
+		private final Result result;
+
+		// Set once the master cancelled the job's task
+		private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+		// The next candidate (or position in the candidate list) to check, if the job is processed in chunks on the actor thread
+		private long next;
+
+		Job(PWValidationMessage message, ActorRef sender, Task task) {
+			this.message = message;
+			this.sender = sender;
+			this.task = task;
+			this.result = new Result(task);
+			this.next = message.rangeMin;
+		}
+
+		boolean isDone() {
+			return this.shouldStop() || this.next > this.message.rangeMax;
+		}
+
+		boolean shouldStop() {
+			return this.task.isComplete() || this.cancelled.get();
+		}
+
+		/**
+		 * Check the candidates from one index (or position in the candidate list) to another, both inclusive.
+		 */
+		void crack(RangeCracker cracker, long from, long to) {
+			if (this.message.candidates != null)
+				cracker.crack(this.message.candidates, (int) from, (int) to, this.task.targets, this.result, this::shouldStop);
+			else
+				cracker.crack(from, to, this.message.skip == null ? NO_SKIP : this.message.skip, this.task.targets, this.result, this::shouldStop);
+		}
+	}
+
+	private static final long[] NO_SKIP = new long[0];
+
+	/**
+	 * The state and the message handlers of a {@link PWCrackWorker}, so that a {@link PoolWorker} can run the same tasks.
+	 */
+	static class Cracker {
+
+		// The kind of engine that hashes all candidates
+		private final Sha256Engine.Kind engine;
+
+		// Whether ranges are split across the cracking pool or checked on the actor thread
+		private final boolean parallel;
+
+		// The cracker for ranges that are checked on the actor thread, for the keyspace of the last such range
+		private RangeCracker cracker;
+		private Keyspace crackerKeyspace;
+
+		// The targets of all tasks that this worker received ranges for and that were not cancelled yet
+		private final Map<Integer, Task> tasks = new HashMap<>();
+
+		// The targets of the tasks whose targets did not all arrive yet
+		private final Map<Integer, PendingTargets> pendingTargets = new HashMap<>();
+
+		// The jobs to be processed in chunks on the actor thread; the head is the current one
+		private final Queue<Job> sequentialJobs = new ArrayDeque<>();
+
+		// The jobs currently processed on the cracking pool
+		private final Set<Job> parallelJobs = ConcurrentHashMap.newKeySet();
+
+		Cracker(final Sha256Engine.Kind engine, final boolean parallel) {
+			this.engine = engine;
+			this.parallel = parallel;
+		}
+
+		/**
+		 * @param actor the actor that runs the tasks and answers their senders
+		 * @return the handlers of all tasks of a {@link PWCrackWorker}
+		 */
+		Receive receive(final AbstractActor actor) {
+			return ReceiveBuilder.create()
+					.match(TargetsMessage.class, this::handle)
+					.match(PWValidationMessage.class, message -> this.handle(actor, message))
+					.match(ContinueMessage.class, message -> this.handle(actor, message))
+					.match(CancelMessage.class, this::handle)
+					.match(Status.Failure.class, this::handle)
+					.build();
+		}
+
+		private void handle(TargetsMessage message) {
+
+			// Index the hashes once for all ranges of the task, as soon as all of them arrived
+			if (message.offset == 0 && message.userids.length == message.total) {
+				this.tasks.put(message.id, new Task(message.keyspace, message.userids, message.digests));
+				return;
+			}
+			PendingTargets pending = this.pendingTargets.computeIfAbsent(message.id, id -> new PendingTargets(message.total));
+			if (pending.add(message)) {
+				this.pendingTargets.remove(message.id);
+				this.tasks.put(message.id, new Task(message.keyspace, pending.userids, pending.digests));
+			}
+		}
+
+		private void handle(AbstractActor actor, PWValidationMessage message) {
+			
+			// Log that we started processing the current task
+			//this.log().info("Brute force values [start range, end range, hash]: [{},{}] ...", message.rangeMin, message.rangeMax);
+
+			// The master sends the targets of a task before its first range
+			final Task task = this.tasks.get(message.id);
+			if (task == null)
+				throw new IllegalStateException("Received a range of task " + message.id + " before its targets");
+
+			// Hash every number only once and probe it against all hashes of the task that are still open
+			final Job job = new Job(message, actor.getSender(), task);
+
+			if (this.parallel) {
+				this.crackInParallel(actor.getSelf(), job);
+				return;
+			}
+
+			// Queue the job and start processing it if no other job is running
+			this.sequentialJobs.add(job);
+			if (this.sequentialJobs.size() == 1) {
+				actor.getSelf().tell(new ContinueMessage(), actor.getSelf());
+			}
+		}
+
+		private void handle(AbstractActor actor, ContinueMessage message) {
+			final Job job = this.sequentialJobs.peek();
+			if (job == null)
+				return;
+
+			// Iterate over the next chunk of candidates and check if we cracked any of the hashes
+			if (!job.isDone()) {
+				if (!job.task.keyspace.equals(this.crackerKeyspace)) {
+					this.cracker = new RangeCracker(this.engine, job.task.keyspace);
+					this.crackerKeyspace = job.task.keyspace;
+				}
+				long chunkMax = Math.min(job.next + CHUNK_SIZE - 1, job.message.rangeMax);
+				job.crack(this.cracker, job.next, chunkMax);
+				job.next = chunkMax + 1;
+			}
+
+			// Tell the master all passwords found in that range (possibly none) once it is done, cancelled or all hashes were found
+			if (job.isDone()) {
+				job.sender.tell(job.result.toMessage(job.message.id, job.message.subqueryId), actor.getSelf());
+				this.sequentialJobs.poll();
+			}
+
+			// Continue after any messages that arrived in the meantime, e.g., cancellations
+			if (!this.sequentialJobs.isEmpty()) {
+				actor.getSelf().tell(message, actor.getSelf());
+			}
+		}
+
+		private void handle(CancelMessage message) {
+			this.tasks.remove(message.id);
+			this.pendingTargets.remove(message.id);
+			for (Job job : this.sequentialJobs)
+				if (job.message.id == message.id)
+					job.cancelled.set(true);
+			for (Job job : this.parallelJobs)
+				if (job.message.id == message.id)
+					job.cancelled.set(true);
+		}
+
+		private void crackInParallel(ActorRef self, Job job) {
+			final PWValidationMessage message = job.message;
+			final Sha256Engine.Kind engine = this.engine;
+			final ForkJoinPool pool = crackingPool();
+			this.parallelJobs.add(job);
+
+			// Split the range into a few chunks per thread, so that threads finishing early can steal work
+			final long chunkSize = Math.max(MIN_CHUNK_SIZE, (message.rangeMax - message.rangeMin + 1) / (4 * pool.getParallelism()));
+			pool.execute(() -> {
+				try {
+					List<ForkJoinTask<?>> chunks = new ArrayList<>();
+					for (long chunkMin = message.rangeMin; chunkMin <= message.rangeMax; chunkMin += chunkSize) {
+						final long min = chunkMin;
+						final long max = Math.min(chunkMin + chunkSize - 1, message.rangeMax);
+						chunks.add(ForkJoinTask.adapt(() -> {
+							if (!job.shouldStop())
+								job.crack(new RangeCracker(engine, job.task.keyspace), min, max);
+						}));
+					}
+					ForkJoinTask.invokeAll(chunks);
+
+					// Tell the master all passwords found in that range (possibly none) once all chunks completed, the job was cancelled or all hashes were found
+					job.sender.tell(job.result.toMessage(message.id, message.subqueryId), self);
+				} catch (RuntimeException e) {
+					self.tell(new Status.Failure(e), self);
+				} finally {
+					this.parallelJobs.remove(job);
+				}
+			});
+		}
+
+		private void handle(Status.Failure failure) {
+			
+			// Let the supervisor stop this worker, so that the master re-schedules its range
+			throw new IllegalStateException("Cracking a range failed", failure.cause());
+		}
+	}
+
+	// The state and the handlers of all tasks
+	private final Cracker cracker;
+
+	public PWCrackWorker(final Sha256Engine.Kind engine, final boolean parallel) {
+		this.cracker = new Cracker(engine, parallel);
+	}
+
 	@Override
 	public void preStart() throws Exception {
 		super.preStart();
@@ -81,61 +668,9 @@ public class PWCrackWorker extends AbstractLoggingActor {
 
 	@Override
 	public Receive createReceive() {
-		return receiveBuilder()
-				.match(PWValidationMessage.class, this::handle)
-				.matchAny(object -> this.log().info(this.getClass().getName() + " received unknown message: " + object.toString()))
-				.build();
-	}
-
-	private void handle(PWValidationMessage message) {
-		
-		// Log that we started processing the current task
-		//this.log().info("Brute force values [start range, end range, hash]: [{},{}] ...", message.rangeMin, message.rangeMax);
-
-		// Iterate over the range of numbers and check if we cracked the hash
-		for (int i = message.rangeMin; i <= message.rangeMax; i++) {
-			if (isPassword(i, message.pwhash)) {
-				
-				// Found the password. Tell master and stop checking.
-				this.getSender().tell(new PWMaster.PWMessage(message.id, i, message.userid), this.getSelf());
-				return;
-				
-			}
-		}
-
-		// Couldn't find the password in that range, return null
-		this.getSender().tell(new PWMaster.PWMessage(message.id, -1, message.userid), this.getSelf());
-
-		// Asynchronous version: Consider using a dedicated executor service.
-//		ActorRef sender = this.getSender();
-//		ActorRef self = this.getSelf();
-//		getContext().getSystem().dispatcher().execute(() -> {
-//			final List<Object> result = new ArrayList<>();
-//			for (Long number : message.getNumbers())
-//				if (this.isPrime(number.longValue()))
-//					result.add(number);
-//
-//			sender.tell(new Master.ObjectMessage(message.getId(), result), self);
-//		});
-	}
-
-	private boolean isPassword(int i, String pwhash) {
-		// Check if i as a 7 character string (e.g. 0000204) has a SHA-256 value equal to pwhash
-		String pw2 = String.valueOf(i);
-		while (pw2.length() < 7) { // if it's stupid, but working...
-			pw2 = "0" + pw2;
-		}
-		try {
-			String pw2_hash = String.format("%064x", new java.math.BigInteger(1, java.security.MessageDigest.getInstance("SHA-256").digest(pw2.getBytes("UTF-8"))));
-			
-			return pw2_hash.equals(pwhash);
-		} catch (NoSuchAlgorithmException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (UnsupportedEncodingException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		return false;
+		return this.cracker.receive(this)
+				.orElse(receiveBuilder()
+						.matchAny(object -> this.log().info(this.getClass().getName() + " received unknown message: " + object.toString()))
+						.build());
 	}
-}
\ No newline at end of file
+}
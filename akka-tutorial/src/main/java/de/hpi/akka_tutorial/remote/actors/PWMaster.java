@@ -1,42 +1,43 @@
 package de.hpi.akka_tutorial.remote.actors;
 
-import static akka.actor.SupervisorStrategy.escalate;
-import static akka.actor.SupervisorStrategy.stop;
-
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.List;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
-
-import akka.actor.AbstractLoggingActor;
-import akka.actor.ActorRef;
-import akka.actor.Address;
-import akka.actor.Deploy;
-import akka.actor.OneForOneStrategy;
-import akka.actor.PoisonPill;
-import akka.actor.Props;
-import akka.actor.SupervisorStrategy;
-import akka.actor.Terminated;
-import akka.japi.pf.DeciderBuilder;
-import akka.remote.RemoteScope;
+import java.util.Set;
+
+import akka.actor.AbstractActor.Receive;
+import akka.japi.pf.ReceiveBuilder;
+import de.hpi.akka_tutorial.pw.DigestIndex;
+import de.hpi.akka_tutorial.pw.Digests;
+import de.hpi.akka_tutorial.pw.Keyspace;
 import de.hpi.akka_tutorial.remote.actors.scheduling.PWSchedulingStrategy;
-import de.hpi.akka_tutorial.remote.messages.ShutdownMessage;
-import scala.concurrent.duration.Duration;
+import de.hpi.akka_tutorial.remote.actors.scheduling.TaskKind;
+import de.hpi.akka_tutorial.remote.serialization.CompactReader;
+import de.hpi.akka_tutorial.remote.serialization.CompactSerializer;
+import de.hpi.akka_tutorial.remote.serialization.CompactWriter;
 
 /**
- * The master receives password hashes and ranges of possible passwords to brute force it. This is done by delegation to slaves.
+ * The password job of the {@link Master}: it receives password hashes and splits the keyspace into ranges of possible
+ * passwords, which the master's workers brute force.
  */
-public class PWMaster extends AbstractLoggingActor {
-
-	public static final String DEFAULT_NAME = "master";
+public class PWMaster implements Master.Job {
 
 	/**
-	 * Create the {@link Props} necessary to instantiate new {@link PWMaster} actors.
+	 * Create the {@link Master.Job.Factory} of a {@link PWMaster}.
 	 *
-	 * @return the {@link Props}
+	 * @param schedulingStrategyFactory defines which {@link PWSchedulingStrategy} to use
+	 * @param digestIndexFile a {@link DigestIndex} file to resolve hashes with instead of brute forcing them, or {@code null}
+	 * @param keyspace the {@link Keyspace} that contains the passwords
+	 * @return the factory
 	 */
-	public static Props props(final ActorRef listener, PWSchedulingStrategy.PWFactory schedulingStrategyFactory, final int numLocalWorkers) {
-		return Props.create(PWMaster.class, () -> new PWMaster(listener, schedulingStrategyFactory, numLocalWorkers));
+	public static Master.Job.Factory factory(PWSchedulingStrategy.PWFactory schedulingStrategyFactory, final String digestIndexFile, final Keyspace keyspace) {
+		return master -> new PWMaster(master, schedulingStrategyFactory, digestIndexFile, keyspace);
 	}
 
 	/**
@@ -73,22 +74,51 @@ public class PWMaster extends AbstractLoggingActor {
 
 
 	/**
-	 * Answer to a {@link PWCrackWorker.PWValidationMessage}. Tells the {@link PWMaster} the password if it was found.
+	 * Asks the {@link PWMaster} to crack the pwhashes of many users in a single sweep over the password range.
 	 */
-	public static class PWMessage implements Serializable {
+	public static class PWHashBatchMessage implements Serializable {
+
+		private static final long serialVersionUID = -2431770158930271473L;
+
+		private LinkedHashMap<Integer, String> userid2pwhash;
+
+		public PWHashBatchMessage(final Map<Integer, String> userid2pwhash) {
+			this.userid2pwhash = new LinkedHashMap<>(userid2pwhash);
+		}
+
+		/**
+		 * For serialization/deserialization only.
+		 */
+		@SuppressWarnings("unused")
+		private PWHashBatchMessage() {
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s[%,d users]", this.getClass().getSimpleName(), this.userid2pwhash.size());
+		}
+	}
+
+	/**
+	 * Answer to a {@link PWCrackWorker.PWValidationMessage}. Tells the {@link PWMaster} the passwords that were found (if any).
+	 */
+	public static class PWMessage implements CompactSerializer.Compact {
 
 		private static final long serialVersionUID = 4862570515887001983L;
 
 		private int requestId;
 
-		private int password;
+		private int subqueryId;
 
-		private Integer userid;
+		private String[] passwords;
 
-		public PWMessage(final int requestId, final int password, final Integer userid) {
+		private int[] userids;
+
+		public PWMessage(final int requestId, final int subqueryId, final String[] passwords, final int[] userids) {
 			this.requestId = requestId;
-			this.password = password;
-			this.userid = userid;
+			this.subqueryId = subqueryId;
+			this.passwords = passwords;
+			this.userids = userids;
 		}
 		
 		/**
@@ -98,6 +128,26 @@ public class PWMaster extends AbstractLoggingActor {
 		private PWMessage() {
 		}
 
+		@Override
+		public void writeTo(CompactWriter out) {
+			out.writeInt(this.requestId);
+			out.writeInt(this.subqueryId);
+			out.writeStrings(this.passwords);
+			out.writeInts(this.userids);
+		}
+
+		/**
+		 * Read a message that was written by {@link #writeTo(CompactWriter)}.
+		 */
+		public static PWMessage readFrom(CompactReader in) {
+			PWMessage message = new PWMessage();
+			message.requestId = in.readInt();
+			message.subqueryId = in.readInt();
+			message.passwords = in.readStrings();
+			message.userids = in.readInts();
+			return message;
+		}
+
 		@Override
 		public boolean equals(Object o) {
 			if (this == o) return true;
@@ -105,46 +155,19 @@ public class PWMaster extends AbstractLoggingActor {
 				return false;
 			final PWMessage that = (PWMessage) o;
 			return this.requestId == that.requestId &&
-					Objects.equals(this.userid, that.userid) &&
-					Objects.equals(this.password, that.password);
+					this.subqueryId == that.subqueryId &&
+					Arrays.equals(this.userids, that.userids) &&
+					Arrays.equals(this.passwords, that.passwords);
 		}
 
 		@Override
 		public int hashCode() {
-			return Objects.hash(this.requestId, this.password, this.userid);
+			return Objects.hash(this.requestId, this.subqueryId, Arrays.hashCode(this.passwords), Arrays.hashCode(this.userids));
 		}
 	}
 
-	/**
-	 * Asks the {@link PWMaster} to schedule work to a new remote actor system.
-	 */
-	public static class RemoteSystemMessage implements Serializable {
-
-		private static final long serialVersionUID = 2786272840353304769L;
-
-		private Address remoteAddress;
-
-		public RemoteSystemMessage(final Address remoteAddress) {
-			this.remoteAddress = remoteAddress;
-		}
-		
-		/**
-		 * For serialization/deserialization only.
-		 */
-		@SuppressWarnings("unused")
-		private RemoteSystemMessage() {
-		}
-	}
-
-	// The supervisor strategy for the worker actors created by this master actor
-	private static SupervisorStrategy strategy =
-			new OneForOneStrategy(0, Duration.create(1, TimeUnit.SECONDS), DeciderBuilder
-					.match(Exception.class, e -> stop())
-					.matchAny(o -> escalate())
-					.build());
-	
-	// A reference to the listener actor that collects all cracked passwords
-	private final ActorRef listener;
+	// The master that runs this job
+	private final Master master;
 	
 	// The scheduling strategy that splits range messages into smaller tasks and distributes these to the workers
 	private final PWSchedulingStrategy schedulingStrategy;
@@ -152,138 +175,165 @@ public class PWMaster extends AbstractLoggingActor {
 	// A helper variable to assign unique IDs to each range query
 	private int nextQueryId = 0;
 
-	// A flag indicating whether this actor is still accepting new range messages
-	private boolean isAcceptingRequests = true;
+	// The precomputed index that resolves hashes without brute force, if any
+	private final DigestIndex digestIndex;
 
+	// The keyspace that contains the passwords
+	private final Keyspace keyspace;
 
-	public PWMaster(final ActorRef listener, PWSchedulingStrategy.PWFactory schedulingStrategyFactory, int numLocalWorkers) {
-		
-		// Save the reference to the Listener actor
-		this.listener = listener;
+	// All hashes that were requested so far, and those still being cracked by the user that the scheduler tracks them for
+	private final Set<String> requestedPwhashes = new HashSet<>();
+	private final Map<Integer, String> userid2pendingPwhash = new HashMap<>();
 
-		// Create a scheduling strategy.
-		this.schedulingStrategy = schedulingStrategyFactory.create(this.getSelf());
-		
-		// Start the specified number of local workers
-		for (int i = 0; i < numLocalWorkers; i++) {
-			
-			// Create a new worker
-			ActorRef worker = this.getContext().actorOf(PWCrackWorker.props());
-			this.schedulingStrategy.addWorker(worker);
-
-			// Add the worker to the watch list and our router
-			this.getContext().watch(worker);
-		}
-	}
 
-	@Override
-	public void preStart() throws Exception {
-		super.preStart();
+	/**
+	 * Construct a new {@link PWMaster} object.
+	 *
+	 * @param master the master that runs this job
+	 * @param schedulingStrategyFactory defines which {@link PWSchedulingStrategy} to use
+	 * @param digestIndexFile a {@link DigestIndex} file to resolve hashes with instead of brute forcing them, or {@code null}
+	 * @param keyspace the {@link Keyspace} that contains the passwords
+	 */
+	public PWMaster(final Master master, PWSchedulingStrategy.PWFactory schedulingStrategyFactory, String digestIndexFile, Keyspace keyspace) throws IOException {
 		
-		// Register at this actor system's reaper
-		Reaper.watchWithDefaultReaper(this);
-	}
+		// Save the reference to the master
+		this.master = master;
+		this.keyspace = keyspace;
 
-	@Override
-	public void postStop() throws Exception {
-		super.postStop();
-		
-		// If the master has stopped, it can also stop the listener
-		this.listener.tell(PoisonPill.getInstance(), this.getSelf());
-		
-		// Log the stop event
-		this.log().info("Stopped {}.", this.getSelf());
+		// Map the digest index, if one was given
+		this.digestIndex = digestIndexFile == null ? null : DigestIndex.open(Paths.get(digestIndexFile), keyspace);
+
+		// Create a scheduling strategy.
+		this.schedulingStrategy = schedulingStrategyFactory.create(master.getSelf(), master.log(), keyspace, master.getMaxMessageBytes());
 	}
 
 	@Override
-	public SupervisorStrategy supervisorStrategy() {
-		return PWMaster.strategy;
+	public PWSchedulingStrategy schedulingStrategy() {
+		return this.schedulingStrategy;
 	}
 
 	@Override
-	public Receive createReceive() {
-		return receiveBuilder()
+	public Receive receive() {
+		return ReceiveBuilder.create()
 				.match(PWHashMessage.class, this::handle)
+				.match(PWHashBatchMessage.class, this::handle)
 				.match(PWMessage.class, this::handle)
-				.match(ShutdownMessage.class, this::handle)
-				.match(Terminated.class, this::handle)
-				.matchAny(object -> this.log().info(this.getClass().getName() + " received unknown message: " + object.toString()))
 				.build();
 	}
+
+	@Override
+	public boolean hasFinished() {
+		return !this.schedulingStrategy.hasTasksInProgress();
+	}
 	
 	private void handle(PWMessage message) {
 
-		// If the worker found the password tell the listener
-		if (message.password > 0) { 
-			String pw = String.valueOf(message.password);
-			while (pw.length() < 7) { // if it's stupid, but working...
-				pw = "0" + pw;
+		// If the worker found passwords tell the listener, which forwards them to all users with the same hash
+		for (int i = 0; i < message.passwords.length; i++) { 
+			String pwhash = this.userid2pendingPwhash.remove(message.userids[i]);
+			if (pwhash != null) {
+				this.tellPassword(message.passwords[i], pwhash);
 			}
-		
-			// Forward the cracked password to the listener
-			this.listener.tell(new ExerciseListener.PWListenerMessage(pw, message.userid), this.getSelf());
 		}
-		// Notify the scheduler that the worker has finished its task
-		this.schedulingStrategy.finished(message.requestId, this.getSender());
-		
-		// Check if work is complete and stop the actor hierarchy if true
-		if (this.hasFinished()) {
-			this.stopSelfAndListener();
+
+		// Stop searching for the found passwords
+		if (message.passwords.length > 0) {
+			this.schedulingStrategy.passwordsFound(message.requestId, message.userids);
 		}
+
+		// Notify the scheduler that the worker has finished its task and give the worker further tasks
+		this.schedulingStrategy.finished(message.requestId, message.subqueryId, this.master.getSender());
+		this.master.getScheduler().finished(TaskKind.PASSWORD, this.master.getSender());
+		this.master.update();
 	}
 
 	private void handle(PWHashMessage message) {
 		
 		// Check if we are still accepting requests
-		if (!this.isAcceptingRequests) {
-			this.log().warning("Discarding request {}.", message);
+		if (!this.master.isAcceptingRequests()) {
+			this.master.log().warning("Discarding request {}.", message);
+			return;
+		}
+
+		// Crack every distinct hash only once
+		String pwhash = message.pwhash.toLowerCase();
+		if (!this.isNewPwhash(message.userid, pwhash)) {
+			return;
+		}
+
+		// Resolve the hash with the index, if we have one
+		if (this.digestIndex != null) {
+			this.lookup(message.userid, pwhash);
 			return;
 		}
 
 		// Schedule the request
-		this.schedulingStrategy.schedule(this.nextQueryId, message.userid, message.pwhash);
+		this.userid2pendingPwhash.put(message.userid, pwhash);
+		this.schedulingStrategy.schedule(this.nextQueryId, message.userid, pwhash);
 		this.nextQueryId++;
+		this.master.update();
 	}
 
-	private void handle(ShutdownMessage message) {
-		
-		// Stop receiving new queries
-		this.isAcceptingRequests = false;
+	private void handle(PWHashBatchMessage message) {
 		
-		// Check if work is complete and stop the actor hierarchy if true
-		if (this.hasFinished()) {
-			this.stopSelfAndListener();
+		// Check if we are still accepting requests
+		if (!this.master.isAcceptingRequests()) {
+			this.master.log().warning("Discarding request {}.", message);
+			return;
+		}
+
+		// Crack every distinct hash only once, tracked by the first user that has it
+		Map<Integer, String> userid2pwhash = new LinkedHashMap<>();
+		message.userid2pwhash.forEach((userid, pwhash) -> {
+			if (this.isNewPwhash(userid, pwhash.toLowerCase())) {
+				userid2pwhash.put(userid, pwhash.toLowerCase());
+			}
+		});
+		if (userid2pwhash.isEmpty()) {
+			return;
 		}
+
+		// Resolve the hashes with the index, if we have one
+		if (this.digestIndex != null) {
+			userid2pwhash.forEach(this::lookup);
+			return;
+		}
+
+		// Schedule one sweep for all hashes of the batch
+		this.userid2pendingPwhash.putAll(userid2pwhash);
+		this.schedulingStrategy.schedule(this.nextQueryId, userid2pwhash);
+		this.nextQueryId++;
+		this.master.update();
 	}
-	
-	private void handle(Terminated message) {
-		
-		// Find the sender of this message
-		final ActorRef sender = this.getSender();
-		
-		// Remove the sender from the scheduler
-		this.schedulingStrategy.removeWorker(sender);
-		
-		this.log().warning("{} has terminated.", sender);
-		
-		// Check if work is complete and stop the actor hierarchy if true
-		if (this.hasFinished()) {
-			this.stopSelfAndListener();
+
+	/**
+	 * Check whether a hash was not requested before. The listener hands the password of a hash to all users that
+	 * have it, so hashes that were cracked or are being cracked already need no further work.
+	 *
+	 * @param userid the user that the hash was requested for
+	 * @param pwhash the lowercase hash
+	 * @return whether the hash needs to be cracked
+	 */
+	private boolean isNewPwhash(Integer userid, String pwhash) {
+		if (this.requestedPwhashes.add(pwhash)) {
+			return true;
 		}
+		this.master.log().debug("Reusing the result for the hash of user {}.", userid);
+		return false;
 	}
 
-	private boolean hasFinished() {
-		
-		// The master has finished if (1) there will be no further requests and (2) either all requests have been processed or there are no more workers to process these requests
-		return !this.isAcceptingRequests && (!this.schedulingStrategy.hasTasksInProgress() || this.schedulingStrategy.countWorkers() < 1);
+	private void lookup(Integer userid, String pwhash) {
+		long index = this.digestIndex.lookup(Digests.fromHex(pwhash));
+		if (index < 0) {
+			this.master.log().warning("No password of the indexed keyspace has the hash of user {}.", userid);
+			return;
+		}
+		this.tellPassword(this.keyspace.candidate(index), pwhash);
 	}
 
-	private void stopSelfAndListener() {
-		
-		// Tell the listener to stop
-		this.listener.tell(new ShutdownMessage(), this.getSelf());
+	private void tellPassword(String password, String pwhash) {
 		
-		// Stop self and all child actors by sending a poison pill
-		this.getSelf().tell(PoisonPill.getInstance(), this.getSelf());
+		// Forward the cracked password to the listener
+		this.master.getListener().tell(new ExerciseListener.PWListenerMessage(password, pwhash), this.master.getSelf());
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,102 @@
+package de.hpi.akka_tutorial.remote.actors;
+
+import com.typesafe.config.Config;
+
+import akka.actor.AbstractLoggingActor;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.dispatch.PriorityGenerator;
+import akka.dispatch.UnboundedStablePriorityMailbox;
+import de.hpi.akka_tutorial.pw.Sha256Engine;
+import de.hpi.akka_tutorial.remote.actors.scheduling.TaskKind;
+import de.hpi.akka_tutorial.remote.messages.TaskMessage;
+import de.hpi.akka_tutorial.ss.LcsEngine;
+
+/**
+ * A worker that runs the tasks of both a {@link PWCrackWorker} and an {@link SSWorker}, so that the {@link Master} can
+ * schedule all kinds of tasks to one pool of workers. Its ranges of passwords are checked in chunks, so substring tasks
+ * are interleaved with them instead of waiting for a whole range. With a priority, queued tasks of that kind are run
+ * before those of the other kinds; tasks of the same kind keep their order.
+ */
+public class PoolWorker extends AbstractLoggingActor {
+
+	/**
+	 * Create the {@link Props} necessary to instantiate new {@link PoolWorker} actors.
+	 *
+	 * @param pwEngine the kind of {@link Sha256Engine} that the workers hash with
+	 * @param parallel whether each worker splits its ranges across all cores of its actor system
+	 * @param lcsEngine the kind of {@link LcsEngine} that the workers find longest common substrings with
+	 * @param automatonCacheBytes the number of bytes of suffix automata that each worker keeps, or 0 to only use the engine
+	 * @param priority the kind of tasks that the workers run first, or {@code null} to run all tasks in the order they arrive
+	 * @return the {@link Props}
+	 */
+	public static Props props(final Sha256Engine.Kind pwEngine, final boolean parallel, final LcsEngine.Kind lcsEngine, final long automatonCacheBytes, final TaskKind priority) {
+		Props props = Props.create(PoolWorker.class, pwEngine, parallel, lcsEngine, automatonCacheBytes);
+		return priority == null ? props : props.withMailbox(mailbox(priority));
+	}
+
+	/**
+	 * @return the mailbox that runs the tasks of the kind first, see base.conf
+	 */
+	private static String mailbox(TaskKind first) {
+		return "pool-worker-mailbox." + first.name().toLowerCase() + "-first";
+	}
+
+	/**
+	 * A mailbox that dequeues the {@link TaskMessage}s of one {@link TaskKind}, which its configuration names as
+	 * {@code first}, before those of the other kinds. Messages that belong to no task, e.g., failures, come first of all.
+	 */
+	public static class PriorityMailbox extends UnboundedStablePriorityMailbox {
+
+		public PriorityMailbox(ActorSystem.Settings settings, Config config) {
+			super(priorityGenerator(TaskKind.valueOf(config.getString("first").toUpperCase())));
+		}
+
+		private static PriorityGenerator priorityGenerator(final TaskKind first) {
+			return new PriorityGenerator() {
+				@Override
+				public int gen(Object message) {
+					if (!(message instanceof TaskMessage))
+						return 0;
+					return ((TaskMessage) message).kind() == first ? 1 : 2;
+				}
+			};
+		}
+	}
+
+	// The state and the handlers of the password tasks
+	private final PWCrackWorker.Cracker cracker;
+
+	// The state and the handlers of the substring tasks
+	private final SSWorker.Matcher matcher;
+
+	public PoolWorker(final Sha256Engine.Kind pwEngine, final boolean parallel, final LcsEngine.Kind lcsEngine, final long automatonCacheBytes) {
+		this.cracker = new PWCrackWorker.Cracker(pwEngine, parallel);
+		this.matcher = new SSWorker.Matcher(lcsEngine, automatonCacheBytes);
+	}
+
+	@Override
+	public void preStart() throws Exception {
+		super.preStart();
+
+		// Register at this actor system's reaper
+		Reaper.watchWithDefaultReaper(this);
+	}
+
+	@Override
+	public void postStop() throws Exception {
+		super.postStop();
+
+		// Log the stop event
+		this.matcher.logStopped(this.log(), this.getSelf());
+	}
+
+	@Override
+	public Receive createReceive() {
+		return this.cracker.receive(this)
+				.orElse(this.matcher.receive(this))
+				.orElse(receiveBuilder()
+						.matchAny(object -> this.log().info(this.getClass().getName() + " received unknown message: " + object.toString()))
+						.build());
+	}
+}
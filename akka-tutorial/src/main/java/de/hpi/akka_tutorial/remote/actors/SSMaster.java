@@ -1,41 +1,63 @@
 package de.hpi.akka_tutorial.remote.actors;
 
-import akka.actor.*;
-import akka.japi.pf.DeciderBuilder;
-import akka.remote.RemoteScope;
-import com.typesafe.config.ConfigException;
+import akka.actor.AbstractActor.Receive;
+import akka.japi.pf.ReceiveBuilder;
 import de.hpi.akka_tutorial.Participant;
 import de.hpi.akka_tutorial.remote.actors.scheduling.SSSchedulingStrategy;
-import de.hpi.akka_tutorial.remote.messages.ShutdownMessage;
-import scala.concurrent.duration.Duration;
+import de.hpi.akka_tutorial.remote.actors.scheduling.TaskKind;
+import de.hpi.akka_tutorial.ss.GeneralizedSuffixAutomaton;
+import de.hpi.akka_tutorial.ss.PackedDna;
+import de.hpi.akka_tutorial.ss.TiledLcs;
+import de.hpi.akka_tutorial.util.AkkaUtils;
+import de.hpi.akka_tutorial.remote.serialization.CompactReader;
+import de.hpi.akka_tutorial.remote.serialization.CompactSerializer;
+import de.hpi.akka_tutorial.remote.serialization.CompactWriter;
 
 import java.io.Serializable;
-import java.util.Objects;
-import java.util.concurrent.TimeUnit;
-
-import static akka.actor.SupervisorStrategy.escalate;
-import static akka.actor.SupervisorStrategy.stop;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 
 /**
- * The master receives password hashes and ranges of possible passwords to brute force it. This is done by delegation to slaves.
+ * The substring job of the {@link Master}: it receives pairs of participants and lets the master's workers find the
+ * longest common substring of their DNA.
  */
-public class SSMaster extends AbstractLoggingActor {
+public class SSMaster implements Master.Job {
 
-	public static final String DEFAULT_NAME = "ssmaster";
+	/**
+	 * Create the {@link Master.Job.Factory} of an {@link SSMaster}.
+	 *
+	 * @param schedulingStrategyFactory defines which {@link SSSchedulingStrategy} to use
+	 * @param pairsPerBatch the number of pairs that each task of an {@link AllPairsMessage} compares, with the DNA sent to each worker only once, or 0 to send every pair with the DNA of both participants
+	 * @param tileSize the side length of the tiles that pairs with two longer sequences are compared in, see {@link TiledLcs}, or 0 to compare every pair as a whole
+	 * @return the factory
+	 */
+	public static Master.Job.Factory factory(SSSchedulingStrategy.Factory schedulingStrategyFactory, final int pairsPerBatch, final int tileSize) {
+		return master -> new SSMaster(master, schedulingStrategyFactory, pairsPerBatch, tileSize);
+	}
 
 	/**
-	 * Create the {@link Props} necessary to instantiate new {@link SSMaster} actors.
+	 * Get the largest side length of tiles whose {@link SSWorker.TileMessage}s and {@link TileFinalizedMessage}s are
+	 * serialized into at most the given number of bytes, so that the transport does not drop them.
 	 *
-	 * @return the {@link Props}
+	 * @param maxMessageBytes the number of bytes that a serialized message may have at most, see {@link AkkaUtils#maximumMessageBytes}
+	 * @return the largest tile size, or 0 if not even a single base fits
 	 */
-	public static Props props(final ActorRef listener, SSSchedulingStrategy.Factory schedulingStrategyFactory, final int numLocalWorkers) {
-		return Props.create(SSMaster.class, () -> new SSMaster(listener, schedulingStrategyFactory, numLocalWorkers));
+	public static int maxTileSize(int maxMessageBytes) {
+		int tileSize = Math.max(0, maxMessageBytes / 12);
+		while (tileSize > 0 && (SSWorker.TileMessage.maxBytes(tileSize) > maxMessageBytes || TileFinalizedMessage.maxBytes(tileSize) > maxMessageBytes))
+			tileSize--;
+		return tileSize;
 	}
 
 	/**
 	 * Answer to a {@link SSWorker.PWValidationMessage}. Tells the {@link SSMaster} the longest matching SS (substring) for a pair.
 	 */
-	public static class FinalizedMessage implements Serializable {
+	public static class FinalizedMessage implements CompactSerializer.Compact {
 
 		private static final long serialVersionUID = 27870728456304769L;
 
@@ -55,6 +77,105 @@ public class SSMaster extends AbstractLoggingActor {
 		@SuppressWarnings("unused")
 		private FinalizedMessage() {
 		}
+
+		@Override
+		public void writeTo(CompactWriter out) {
+			out.writeInt(this.requestId);
+			out.writeParticipant(this.participant1);
+			out.writeParticipant(this.participant2);
+		}
+
+		/**
+		 * Read a message that was written by {@link #writeTo(CompactWriter)}.
+		 */
+		public static FinalizedMessage readFrom(CompactReader in) {
+			FinalizedMessage message = new FinalizedMessage();
+			message.requestId = in.readInt();
+			message.participant1 = in.readParticipant();
+			message.participant2 = in.readParticipant();
+			return message;
+		}
+	}
+
+	/**
+	 * Answer to a {@link SSWorker.PairBatchMessage}. Tells the {@link SSMaster} the longest matching SS (substring) for every pair of the batch.
+	 */
+	public static class PairBatchFinalizedMessage implements Serializable {
+
+		private static final long serialVersionUID = -8790415582346627410L;
+
+		private int requestId;
+		private int[] firstIds;
+		private int[] secondIds;
+		private String[] substrings;
+
+		public PairBatchFinalizedMessage(final int id, final int[] firstIds, final int[] secondIds, final String[] substrings) {
+			this.requestId = id;
+			this.firstIds = firstIds;
+			this.secondIds = secondIds;
+			this.substrings = substrings;
+		}
+
+		/**
+		 * For serialization/deserialization only.
+		 */
+		@SuppressWarnings("unused")
+		private PairBatchFinalizedMessage() {
+		}
+	}
+
+	/**
+	 * Answer to a {@link SSWorker.TileMessage}. Tells the {@link SSMaster} the boundaries and the longest match of a tile.
+	 */
+	public static class TileFinalizedMessage implements CompactSerializer.Compact {
+
+		private static final long serialVersionUID = 5530714387402187385L;
+
+		/**
+		 * Get the number of bytes that the answer for a tile of the given side length is serialized into at most.
+		 *
+		 * @param tileSize the number of rows and columns of the tile
+		 * @return the number of bytes
+		 */
+		public static int maxBytes(int tileSize) {
+			// The id, both boundaries with five bytes per cell plus their length, and the longest match
+			return 5 + 5 + 5 * tileSize + 5 + 5 * (tileSize + 1) + 3 * 5;
+		}
+
+		private int requestId;
+		private TiledLcs.Tile tile;
+
+		public TileFinalizedMessage(final int id, final TiledLcs.Tile tile) {
+			this.requestId = id;
+			this.tile = tile;
+		}
+
+		/**
+		 * For serialization/deserialization only.
+		 */
+		@SuppressWarnings("unused")
+		private TileFinalizedMessage() {
+		}
+
+		@Override
+		public void writeTo(CompactWriter out) {
+			out.writeInt(this.requestId);
+			out.writeInts(this.tile.bottom());
+			out.writeInts(this.tile.right());
+			out.writeInt(this.tile.length());
+			out.writeInt(this.tile.endRow());
+			out.writeInt(this.tile.endColumn());
+		}
+
+		/**
+		 * Read a message that was written by {@link #writeTo(CompactWriter)}.
+		 */
+		public static TileFinalizedMessage readFrom(CompactReader in) {
+			TileFinalizedMessage message = new TileFinalizedMessage();
+			message.requestId = in.readInt();
+			message.tile = new TiledLcs.Tile(in.readInts(), in.readInts(), in.readInt(), in.readInt(), in.readInt());
+			return message;
+		}
 	}
 
 	/**
@@ -80,33 +201,51 @@ public class SSMaster extends AbstractLoggingActor {
 		}
 	}
 
-	public static class RemoteSystemMessage implements Serializable {
+	/**
+	 * Asks the {@link SSMaster} to compare every unordered pair of participants once.
+	 */
+	public static class AllPairsMessage implements Serializable {
 
-		private static final long serialVersionUID = 2786272840353304769L;
+		private static final long serialVersionUID = 6123503893017244863L;
 
-		private Address remoteAddress;
+		private ArrayList<Participant> participants;
 
-		public RemoteSystemMessage(final Address remoteAddress) {
-			this.remoteAddress = remoteAddress;
+		public AllPairsMessage(final ArrayList<Participant> participants) {
+			this.participants = participants;
 		}
 
 		/**
 		 * For serialization/deserialization only.
 		 */
 		@SuppressWarnings("unused")
-		private RemoteSystemMessage() {
+		private AllPairsMessage() {
 		}
 	}
 
-	// The supervisor strategy for the worker actors created by this master actor
-	private static SupervisorStrategy strategy =
-			new OneForOneStrategy(0, Duration.create(1, TimeUnit.SECONDS), DeciderBuilder
-					.match(Exception.class, e -> stop())
-					.matchAny(o -> escalate())
-					.build());
+	/**
+	 * Asks the {@link SSMaster} to find the best partner of every participant at once with a {@link GeneralizedSuffixAutomaton}
+	 * instead of comparing all pairs.
+	 */
+	public static class BestPartnersMessage implements Serializable {
+
+		private static final long serialVersionUID = -4416722393081541530L;
+
+		private ArrayList<Participant> participants;
 
-	// A reference to the listener actor that collects all cracked passwords
-	private final ActorRef listener;
+		public BestPartnersMessage(final ArrayList<Participant> participants) {
+			this.participants = participants;
+		}
+
+		/**
+		 * For serialization/deserialization only.
+		 */
+		@SuppressWarnings("unused")
+		private BestPartnersMessage() {
+		}
+	}
+
+	// The master that runs this job
+	private final Master master;
 
 	// The scheduling strategy that splits range messages into smaller tasks and distributes these to the workers
 	private final SSSchedulingStrategy schedulingStrategy;
@@ -114,84 +253,122 @@ public class SSMaster extends AbstractLoggingActor {
 	// A helper variable to assign unique IDs to each range query
 	private int nextQueryId = 0;
 
-	// A flag indicating whether this actor is still accepting new range messages
-	private boolean isAcceptingRequests = true;
+	// The number of pairs per task of an all pairs request, or 0 to send every pair with its DNA
+	private final int pairsPerBatch;
+
+	// The participants of the batched pairs by id and their DNA, which the workers are sent once
+	private final Map<Integer, Participant> id2participant = new HashMap<>();
+	private final Map<Integer, PackedDna> id2dna = new HashMap<>();
+
+	// The side length of the tiles of pairs of long sequences, or 0 to compare every pair as a whole
+	private final int tileSize;
+
+	// The side length of the tiles of pairs whose DNA does not fit into a single message, and the largest one at all
+	private final int maxTileSize;
 
 	/**
-	 * Construct a new {@link SSMaster} object.
-	 *
-	 * @param listener a reference to an {@link Listener} actor to send results to
-	 * @param schedulingStrategyFactory defines which {@link SchedulingStrategy} to use
-	 * @param numLocalWorkers number of workers that this master should start locally
+	 * A tile of a tiled pair that is being computed.
 	 */
-	public SSMaster(final ActorRef listener, SSSchedulingStrategy.Factory schedulingStrategyFactory, int numLocalWorkers) {
-		
-		// Save the reference to the Listener actor
-		this.listener = listener;
+	private static class TileTask {
+
+		private final Participant p1;
+		private final Participant p2;
+		private final TiledLcs tiles;
+		private final int row;
+		private final int column;
+
+		private TileTask(Participant p1, Participant p2, TiledLcs tiles, int row, int column) {
+			this.p1 = p1;
+			this.p2 = p2;
+			this.tiles = tiles;
+			this.row = row;
+			this.column = column;
+		}
+	}
 
-		// Create a scheduling strategy.
-		this.schedulingStrategy = schedulingStrategyFactory.create(this.getSelf());
-		
-		// Start the specified number of local workers
-		for (int i = 0; i < numLocalWorkers; i++) {
-			
-			// Create a new worker
-			ActorRef worker = this.getContext().actorOf(SSWorker.props());
-			this.schedulingStrategy.addWorker(worker);
+	// The tile that every running tile task computes by task id
+	private final Map<Integer, TileTask> id2tileTask = new HashMap<>();
+
+	/**
+	 * A cursor over the upper triangle of the pairs of participants of an {@link AllPairsMessage}, i.e., over all (i, j) with i < j.
+	 */
+	private static class PairCursor {
+
+		private final List<Participant> participants;
+		private int i = 0;
+		private int j = 1;
 
-			// Add the worker to the watch list and our router
-			this.getContext().watch(worker);
+		private PairCursor(List<Participant> participants) {
+			this.participants = participants;
 		}
-	}
 
-	@Override
-	public void preStart() throws Exception {
-		super.preStart();
-		
-		// Register at this actor system's reaper
-		Reaper.watchWithDefaultReaper(this);
+		private boolean hasNext() {
+			return this.j < this.participants.size();
+		}
+
+		private Participant first() {
+			return this.participants.get(this.i);
+		}
+
+		private Participant second() {
+			return this.participants.get(this.j);
+		}
+
+		private void advance() {
+			this.j++;
+			if (this.j == this.participants.size()) {
+				this.i++;
+				this.j = this.i + 1;
+			}
+		}
 	}
 
-	@Override
-	public void postStop() throws Exception {
-		super.postStop();
-		
-		// If the master has stopped, it can also stop the listener
-		this.listener.tell(PoisonPill.getInstance(), this.getSelf());
+	// The pairs of all pairs requests that are yet to be scheduled, which are only generated as the workers need them
+	private final Queue<PairCursor> pairCursors = new ArrayDeque<>();
+
+	/**
+	 * Construct a new {@link SSMaster} object.
+	 *
+	 * @param master the master that runs this job
+	 * @param schedulingStrategyFactory defines which {@link SSSchedulingStrategy} to use
+	 * @param pairsPerBatch the number of pairs per task of an all pairs request, or 0 to send every pair with its DNA
+	 * @param tileSize the side length of the tiles of pairs of long sequences, or 0 to compare every pair as a whole
+	 */
+	public SSMaster(final Master master, SSSchedulingStrategy.Factory schedulingStrategyFactory, int pairsPerBatch, int tileSize) {
 		
-		// Log the stop event
-		this.log().info("Stopped {}.", this.getSelf());
+		// Save the reference to the master
+		this.master = master;
+		this.pairsPerBatch = pairsPerBatch;
+		this.tileSize = tileSize;
+		this.maxTileSize = maxTileSize(master.getMaxMessageBytes());
+		if (tileSize > this.maxTileSize)
+			throw new IllegalArgumentException("Tiles of " + tileSize + " bases do not fit into messages of " + master.getMaxMessageBytes() + " bytes; the largest tile size is " + this.maxTileSize);
+
+		// Create a scheduling strategy.
+		this.schedulingStrategy = schedulingStrategyFactory.create(master.getSelf(), master.getMaxMessageBytes());
 	}
 
 	@Override
-	public SupervisorStrategy supervisorStrategy() {
-		return SSMaster.strategy;
+	public SSSchedulingStrategy schedulingStrategy() {
+		return this.schedulingStrategy;
 	}
 
 	@Override
-	public Receive createReceive() {
-		return receiveBuilder()
-				.match(RemoteSystemMessage.class, this::handle)
+	public Receive receive() {
+		return ReceiveBuilder.create()
 				.match(CompareMessage.class, this::handle)
+				.match(AllPairsMessage.class, this::handle)
+				.match(BestPartnersMessage.class, this::handle)
 				.match(FinalizedMessage.class, this::handle)
-				.match(ShutdownMessage.class, this::handle)
-				.match(Terminated.class, this::handle)
-				.matchAny(object -> this.log().info(this.getClass().getName() + " received unknown message: " + object.toString()))
+				.match(PairBatchFinalizedMessage.class, this::handle)
+				.match(TileFinalizedMessage.class, this::handle)
 				.build();
 	}
 
-	private void handle(RemoteSystemMessage message) {
-
-		// Create a new worker with the given URI
-		ActorRef worker = this.getContext().actorOf(SSWorker.props().withDeploy(new Deploy(new RemoteScope(message.remoteAddress))));
-		
-		// Add worker to the scheduler
-		this.schedulingStrategy.addWorker(worker);
-
-		// Add the worker to the watch list
-		this.getContext().watch(worker);
-
-		this.log().info("New worker: " + worker);
+	@Override
+	public boolean hasFinished() {
+		boolean hasPairsLeft = this.pairCursors.stream().anyMatch(PairCursor::hasNext);
+		return !(this.schedulingStrategy.hasTasksInProgress() || hasPairsLeft);
 	}
 	
 	private void handle(FinalizedMessage message) {
@@ -199,73 +376,212 @@ public class SSMaster extends AbstractLoggingActor {
 		if (message.participant1.getDna_match_partner_id() > -1) {
 			// Forward the participants with its ss attribute set to the listener
 			//this.log().info("told the lister that we found a ss");
-			this.listener.tell(new ExerciseListener.SSListenerMessage(message.participant1, message.participant2), this.getSelf());
+			this.master.getListener().tell(new ExerciseListener.SSListenerMessage(message.participant1, message.participant2), this.master.getSelf());
 		}
 		else {
 			//System.out.println("weird. should not happen. master got finalize message but there is no dna match set");
 		}
-		// Notify the scheduler that the worker has finished its task
-		this.schedulingStrategy.finished(message.requestId, this.getSender());
-		
-		// Check if work is complete and stop the actor hierarchy if true
-		if (this.hasFinished()) {
-			this.stopSelfAndListener();
+		// Notify the scheduler that the worker has finished its task and give the worker further tasks
+		this.schedulingStrategy.finished(message.requestId, this.master.getSender());
+		this.master.getScheduler().finished(TaskKind.SUBSTRING, this.master.getSender());
+		this.master.update();
+	}
+
+	private void handle(PairBatchFinalizedMessage message) {
+		// Tell the listener the match of every pair, which it records for both participants
+		for (int i = 0; i < message.substrings.length; i++) {
+			Participant p1 = this.id2participant.get(message.firstIds[i]);
+			Participant p2 = this.id2participant.get(message.secondIds[i]);
+			p1 = new Participant(p1.getId(), p1.getName(), p1.getPwhash(), p1.getDna());
+			p2 = new Participant(p2.getId(), p2.getName(), p2.getPwhash(), p2.getDna());
+			p1.setDna_match_partner_id(p2.getId());
+			p2.setDna_match_partner_id(p1.getId());
+			p1.setDna_match(message.substrings[i]);
+			p2.setDna_match(message.substrings[i]);
+			this.master.getListener().tell(new ExerciseListener.SSListenerMessage(p1, p2), this.master.getSelf());
+		}
+
+		// Notify the scheduler that the worker has finished its task and give the worker further tasks
+		this.schedulingStrategy.finished(message.requestId, this.master.getSender());
+		this.master.getScheduler().finished(TaskKind.SUBSTRING, this.master.getSender());
+		this.master.update();
+	}
+
+	private void handle(TileFinalizedMessage message) {
+		TileTask task = this.id2tileTask.remove(message.requestId);
+
+		// Schedule the tiles that now have both neighbours, before the scheduler considers this pair as done
+		for (int[] tile : task.tiles.complete(task.row, task.column, message.tile))
+			this.scheduleTile(task.p1, task.p2, task.tiles, tile[0], tile[1]);
+
+		// Tell the listener the match of the pair once all tiles are complete
+		if (task.tiles.isComplete()) {
+			String ss = task.tiles.longestCommonSubstring();
+			Participant p1 = new Participant(task.p1.getId(), task.p1.getName(), task.p1.getPwhash(), task.p1.getDna());
+			Participant p2 = new Participant(task.p2.getId(), task.p2.getName(), task.p2.getPwhash(), task.p2.getDna());
+			p1.setDna_match_partner_id(p2.getId());
+			p2.setDna_match_partner_id(p1.getId());
+			p1.setDna_match(ss);
+			p2.setDna_match(ss);
+			this.master.getListener().tell(new ExerciseListener.SSListenerMessage(p1, p2), this.master.getSelf());
+		}
+
+		// Notify the scheduler that the worker has finished its task and give the worker further tasks
+		this.schedulingStrategy.finished(message.requestId, this.master.getSender());
+		this.master.getScheduler().finished(TaskKind.SUBSTRING, this.master.getSender());
+		this.master.update();
+	}
+
+	/**
+	 * Schedule the comparison of a pair, as a whole or, if both sequences are longer than a tile or the pair does not fit
+	 * into a single message, tile by tile.
+	 */
+	private void schedulePair(Participant p1, Participant p2) {
+		boolean isTiled = this.isTiled(p1, p2);
+		if (isTiled || !SSWorker.SSValidationMessage.fits(p1, p2, this.master.getMaxMessageBytes())) {
+			TiledLcs tiles = new TiledLcs(PackedDna.of(p1.getDna()), PackedDna.of(p2.getDna()), isTiled ? this.tileSize : this.maxTileSize);
+			this.master.log().info("Comparing participants {} and {} in {} x {} tiles.", p1.getId(), p2.getId(), tiles.rows(), tiles.columns());
+			this.scheduleTile(p1, p2, tiles, 0, 0);
+		} else {
+			this.schedulingStrategy.schedule(this.nextQueryId, p1, p2);
+			this.nextQueryId++;
 		}
 	}
 
+	private boolean isTiled(Participant p1, Participant p2) {
+		return this.tileSize > 0 && p1.getDna().length() > this.tileSize && p2.getDna().length() > this.tileSize;
+	}
+
+	private void scheduleTile(Participant p1, Participant p2, TiledLcs tiles, int row, int column) {
+		this.id2tileTask.put(this.nextQueryId, new TileTask(p1, p2, tiles, row, column));
+		this.schedulingStrategy.schedule(this.nextQueryId, tiles.rowBases(row), tiles.columnBases(column), tiles.top(row, column), tiles.left(row, column));
+		this.nextQueryId++;
+	}
+
 	private void handle(CompareMessage message) {
 		
 		// Check if we are still accepting requests
-		if (!this.isAcceptingRequests) {
-			this.log().warning("Discarding request {}.", message);
+		if (!this.master.isAcceptingRequests()) {
+			this.master.log().warning("Discarding request {}.", message);
 			return;
 		}
 
 		// Schedule the request
 		//System.out.println(" master schedules query with id " + this.nextQueryId);
-		this.schedulingStrategy.schedule(this.nextQueryId, message.participant1, message.participant2);
-		this.nextQueryId++;
+		this.schedulePair(message.participant1, message.participant2);
+		this.master.update();
 	}
 
-	private void handle(ShutdownMessage message) {
-		
-		// Stop receiving new queries
-		this.isAcceptingRequests = false;
-		
-		// Check if work is complete and stop the actor hierarchy if true
-		if (this.hasFinished()) {
-			this.stopSelfAndListener();
+	private void handle(AllPairsMessage message) {
+
+		// Check if we are still accepting requests
+		if (!this.master.isAcceptingRequests()) {
+			this.master.log().warning("Discarding request {}.", message);
+			return;
+		}
+
+		// Remember the DNA of the participants once, so that the batches can name them by id
+		if (this.pairsPerBatch > 0) {
+			for (Participant p : message.participants) {
+				this.id2participant.put(p.getId(), p);
+				this.id2dna.put(p.getId(), PackedDna.of(p.getDna()));
+			}
 		}
+
+		// Walk over the pairs as the workers need them instead of scheduling all n² pairs at once
+		this.pairCursors.add(new PairCursor(message.participants));
+		this.master.update();
 	}
-	
-	private void handle(Terminated message) {
-		
-		// Find the sender of this message
-		final ActorRef sender = this.getSender();
-		
-		// Remove the sender from the scheduler
-		this.schedulingStrategy.removeWorker(sender);
-		
-		this.log().warning("{} has terminated.", sender);
-		
-		// Check if work is complete and stop the actor hierarchy if true
-		if (this.hasFinished()) {
-			this.stopSelfAndListener();
+
+	/**
+	 * Schedule further pairs of the pending all pairs requests until the scheduler holds enough tasks for all workers, so
+	 * that the tasks in the scheduler grow with the number of workers, not with the number of pairs.
+	 */
+	@Override
+	public void prepareTasks() {
+		while (!this.isSaturated()) {
+
+			// Find the next request with pairs left
+			while (!this.pairCursors.isEmpty() && !this.pairCursors.peek().hasNext())
+				this.pairCursors.poll();
+			if (this.pairCursors.isEmpty())
+				return;
+			PairCursor cursor = this.pairCursors.peek();
+
+			// Schedule the upper triangle only: the longest common substring is symmetric and each result updates both participants
+			if (this.pairsPerBatch < 1) {
+				this.schedulePair(cursor.first(), cursor.second());
+				cursor.advance();
+			} else {
+				this.scheduleBatch(cursor);
+			}
 		}
 	}
 
-	private boolean hasFinished() {
-		
-		// The master has finished if (1) there will be no further requests and (2) either all requests have been processed or there are no more workers to process these requests
-		return !this.isAcceptingRequests && (!this.schedulingStrategy.hasTasksInProgress() || this.schedulingStrategy.countWorkers() < 1);
+	/**
+	 * Schedule the next batch of id pairs, so that every worker needs the DNA of each participant only once; tiled pairs are scheduled on their own.
+	 */
+	private void scheduleBatch(PairCursor cursor) {
+		int[] firstIds = new int[this.pairsPerBatch];
+		int[] secondIds = new int[this.pairsPerBatch];
+		int batchSize = 0;
+		while (cursor.hasNext() && batchSize < this.pairsPerBatch) {
+			Participant p1 = cursor.first();
+			Participant p2 = cursor.second();
+			cursor.advance();
+			if (this.isTiled(p1, p2)) {
+				this.schedulePair(p1, p2);
+				if (this.isSaturated())
+					break;
+				continue;
+			}
+			firstIds[batchSize] = p1.getId();
+			secondIds[batchSize] = p2.getId();
+			batchSize++;
+		}
+		if (batchSize == this.pairsPerBatch) {
+			this.schedulingStrategy.schedule(this.nextQueryId, this.id2dna, firstIds, secondIds);
+			this.nextQueryId++;
+		} else if (batchSize > 0) {
+			this.schedulingStrategy.schedule(this.nextQueryId, this.id2dna, Arrays.copyOf(firstIds, batchSize), Arrays.copyOf(secondIds, batchSize));
+			this.nextQueryId++;
+		}
 	}
 
-	private void stopSelfAndListener() {
-		
-		// Tell the listener to stop
-		this.listener.tell(new ShutdownMessage(), this.getSelf());
-		
-		// Stop self and all child actors by sending a poison pill
-		this.getSelf().tell(PoisonPill.getInstance(), this.getSelf());
+	/**
+	 * @return whether enough pairs wait for a worker, i.e., as many as all workers hold of this kind at once, so that a worker never waits for the next pairs to be generated
+	 */
+	private boolean isSaturated() {
+		return this.schedulingStrategy.countUnassignedTasks() >= this.master.getScheduler().countSlots(TaskKind.SUBSTRING);
+	}
+
+	private void handle(BestPartnersMessage message) {
+
+		// Check if we are still accepting requests
+		if (!this.master.isAcceptingRequests()) {
+			this.master.log().warning("Discarding request {}.", message);
+			return;
+		}
+
+		// Match all participants at once; this takes time linear in the total length of their DNA, so it runs right here
+		long start = System.currentTimeMillis();
+		String[] dnas = message.participants.stream().map(Participant::getDna).toArray(String[]::new);
+		GeneralizedSuffixAutomaton.Match[] matches = GeneralizedSuffixAutomaton.bestPartners(dnas);
+		this.master.log().info("Matched the DNA of {} participants with a suffix automaton in {} ms.", dnas.length, System.currentTimeMillis() - start);
+
+		// Tell the listener the best partner of every participant
+		for (int i = 0; i < matches.length; i++) {
+			if (matches[i] == null)
+				continue;
+			Participant p1 = message.participants.get(i);
+			Participant p2 = message.participants.get(matches[i].partner());
+			p1 = new Participant(p1.getId(), p1.getName(), p1.getPwhash(), p1.getDna());
+			p2 = new Participant(p2.getId(), p2.getName(), p2.getPwhash(), p2.getDna());
+			p1.setDna_match_partner_id(p2.getId());
+			p2.setDna_match_partner_id(p1.getId());
+			p1.setDna_match(matches[i].substring());
+			p2.setDna_match(matches[i].substring());
+			this.master.getListener().tell(new ExerciseListener.SSListenerMessage(p1, p2), this.master.getSelf());
+		}
 	}
-}
\ No newline at end of file
+}
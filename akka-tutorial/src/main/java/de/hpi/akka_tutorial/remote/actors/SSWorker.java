@@ -1,14 +1,30 @@
 package de.hpi.akka_tutorial.remote.actors;
 
-import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import akka.actor.AbstractActor;
 import akka.actor.AbstractLoggingActor;
+import akka.actor.ActorRef;
 import akka.actor.Props;
+import akka.event.LoggingAdapter;
+import akka.japi.pf.ReceiveBuilder;
 import de.hpi.akka_tutorial.Participant;
+import de.hpi.akka_tutorial.ss.LcsEngine;
+import de.hpi.akka_tutorial.remote.actors.scheduling.TaskKind;
+import de.hpi.akka_tutorial.remote.messages.TaskMessage;
+import de.hpi.akka_tutorial.remote.serialization.CompactReader;
+import de.hpi.akka_tutorial.remote.serialization.CompactSerializer;
+import de.hpi.akka_tutorial.remote.serialization.CompactWriter;
+import de.hpi.akka_tutorial.ss.PackedDna;
+import de.hpi.akka_tutorial.ss.SuffixAutomaton;
+import de.hpi.akka_tutorial.ss.SuffixAutomatonCache;
+import de.hpi.akka_tutorial.ss.TiledLcs;
 
 /**
  * The worker waits tests ranges of numbers for passwords.
@@ -21,13 +37,34 @@ public class SSWorker extends AbstractLoggingActor {
 	 * @return the {@link Props}
 	 */
 	public static Props props() {
-		return Props.create(SSWorker.class);
+		return props(LcsEngine.Kind.DP);
+	}
+
+	/**
+	 * Create the {@link Props} necessary to instantiate new {@link SSWorker} actors.
+	 *
+	 * @param engine the kind of {@link LcsEngine} that the workers find longest common substrings with
+	 * @return the {@link Props}
+	 */
+	public static Props props(final LcsEngine.Kind engine) {
+		return props(engine, 0);
+	}
+
+	/**
+	 * Create the {@link Props} necessary to instantiate new {@link SSWorker} actors.
+	 *
+	 * @param engine the kind of {@link LcsEngine} that the workers find longest common substrings with
+	 * @param automatonCacheBytes the number of bytes of {@link SuffixAutomaton}s of the first participant of every pair that each worker keeps, or 0 to only use the engine
+	 * @return the {@link Props}
+	 */
+	public static Props props(final LcsEngine.Kind engine, final long automatonCacheBytes) {
+		return Props.create(SSWorker.class, engine, automatonCacheBytes);
 	}
 
 	/**
 	 * Asks the {@link SSWorker} to get the longest common substring of two participants.
 	 */
-	public static class SSValidationMessage implements Serializable {
+	public static class SSValidationMessage implements CompactSerializer.Compact, TaskMessage {
 		
 		private static final long serialVersionUID = -7467053227355130231L;
 		
@@ -36,18 +73,41 @@ public class SSWorker extends AbstractLoggingActor {
 		private Participant p1;
 		
 		private Participant p2;
+
+		// The DNA of both participants, which is not sent with the participants themselves
+		private PackedDna dna1;
+
+		private PackedDna dna2;
 		
 		/**
-		 * Construct a new {@link PWValidationMessage} object.
+		 * Construct a new {@link SSValidationMessage} object. The participants are copied without their DNA, which
+		 * travels packed with two bits per base in separate fields instead, see {@link PackedDna}.
 		 * 
-		 * @param id the id of the task that this range belongs to
-		 * @param rangeMin first number in the range to be checked as password (inclusive)
-		 * @param rangeMax last number in the range to be checked as password (inclusive)
+		 * @param id the id of the task that this pair belongs to
+		 * @param p1 the first participant of the pair
+		 * @param p2 the second participant of the pair
 		 */
 		public SSValidationMessage(int id, Participant p1, Participant p2) {
 			this.id = id;
-			this.p1 = new Participant(p1.getId(), p1.getName(), p1.getPwhash(), p1.getDna());
-			this.p2 = new Participant(p2.getId(), p2.getName(), p2.getPwhash(), p2.getDna());
+			this.p1 = new Participant(p1.getId(), p1.getName(), p1.getPwhash(), "");
+			this.p2 = new Participant(p2.getId(), p2.getName(), p2.getPwhash(), "");
+			this.dna1 = PackedDna.of(p1.getDna());
+			this.dna2 = PackedDna.of(p2.getDna());
+		}
+
+		/**
+		 * Check whether the message of a pair is serialized into at most the given number of bytes, whatever its id.
+		 *
+		 * @param p1 the first participant of the pair
+		 * @param p2 the second participant of the pair
+		 * @param maxBytes the number of bytes that a serialized message may have at most
+		 * @return {@code true} if the message fits
+		 */
+		public static boolean fits(Participant p1, Participant p2, int maxBytes) {
+			// The largest id takes the most bytes
+			CompactWriter out = new CompactWriter();
+			new SSValidationMessage(Integer.MAX_VALUE, p1, p2).writeTo(out);
+			return out.toByteArray().length <= maxBytes;
 		}
 		
 		/**
@@ -56,8 +116,387 @@ public class SSWorker extends AbstractLoggingActor {
 		@SuppressWarnings("unused")
 		private SSValidationMessage() {
 		}
+
+		@Override
+		public TaskKind kind() {
+			return TaskKind.SUBSTRING;
+		}
+
+		@Override
+		public void writeTo(CompactWriter out) {
+			out.writeInt(this.id);
+			out.writeParticipant(this.p1);
+			out.writeParticipant(this.p2);
+			out.writeDna(this.dna1);
+			out.writeDna(this.dna2);
+		}
+
+		/**
+		 * Read a message that was written by {@link #writeTo(CompactWriter)}.
+		 */
+		public static SSValidationMessage readFrom(CompactReader in) {
+			SSValidationMessage message = new SSValidationMessage();
+			message.id = in.readInt();
+			message.p1 = in.readParticipant();
+			message.p2 = in.readParticipant();
+			message.dna1 = in.readDna();
+			message.dna2 = in.readDna();
+			return message;
+		}
 	}
 	
+	/**
+	 * Tells the {@link SSWorker} the DNA of some participants, which it keeps for all following {@link PairBatchMessage}s.
+	 * The DNA of a participant that does not fit into a single message arrives in consecutive slices, see {@link #split}.
+	 */
+	public static class DnaMessage implements CompactSerializer.Compact, TaskMessage {
+
+		private static final long serialVersionUID = 3180551935472840117L;
+
+		// The bytes of the lengths of the three arrays at most
+		private static final int MAX_FIELD_BYTES = 3 * 5;
+
+		// The bytes of the id and the total length of an entry at most
+		private static final int MAX_ENTRY_BYTES = 2 * 5;
+
+		private int[] ids;
+
+		private PackedDna[] dnas;
+
+		// The number of bases of each participant's whole DNA, which is more than the bases of the entry for a slice
+		private int[] lengths;
+
+		/**
+		 * Construct a new {@link DnaMessage} object.
+		 *
+		 * @param ids the ids of the participants
+		 * @param dnas their DNA (at the same positions)
+		 */
+		public DnaMessage(int[] ids, PackedDna[] dnas) {
+			this(ids, dnas, Arrays.stream(dnas).mapToInt(PackedDna::length).toArray());
+		}
+
+		private DnaMessage(int[] ids, PackedDna[] dnas, int[] lengths) {
+			this.ids = ids;
+			this.dnas = dnas;
+			this.lengths = lengths;
+		}
+
+		/**
+		 * Split the DNA of participants into as few messages as possible that are serialized into at most the given
+		 * number of bytes each. A sequence that does not fit into a message of its own is sent in slices.
+		 *
+		 * @param ids the ids of the participants
+		 * @param dnas their DNA (at the same positions)
+		 * @param maxBytes the number of bytes that a serialized message may have at most
+		 * @return the messages, at least one
+		 */
+		public static List<DnaMessage> split(int[] ids, PackedDna[] dnas, int maxBytes) {
+			List<DnaMessage> messages = new ArrayList<>();
+			List<Integer> batchIds = new ArrayList<>();
+			List<PackedDna> batchDnas = new ArrayList<>();
+			int bytes = MAX_FIELD_BYTES;
+			for (int i = 0; i < ids.length; i++) {
+				int entryBytes = MAX_ENTRY_BYTES + CompactWriter.dnaBytes(dnas[i]);
+				if (bytes + entryBytes > maxBytes && !batchIds.isEmpty()) {
+					messages.add(new DnaMessage(batchIds.stream().mapToInt(Integer::intValue).toArray(), batchDnas.toArray(new PackedDna[0])));
+					batchIds.clear();
+					batchDnas.clear();
+					bytes = MAX_FIELD_BYTES;
+				}
+				if (bytes + entryBytes <= maxBytes) {
+					batchIds.add(ids[i]);
+					batchDnas.add(dnas[i]);
+					bytes += entryBytes;
+					continue;
+				}
+
+				// Slice a sequence that does not even fit alone, with four bases per byte if packed and up to three bytes per character otherwise
+				int basesPerSlice = (maxBytes - MAX_FIELD_BYTES - MAX_ENTRY_BYTES - 1 - 5) * (dnas[i].isPacked() ? 4 : 1) / (dnas[i].isPacked() ? 1 : 3);
+				if (basesPerSlice < 1)
+					throw new IllegalArgumentException("The DNA of participant " + ids[i] + " does not fit into messages of " + maxBytes + " bytes");
+				for (int start = 0; start < dnas[i].length(); start += basesPerSlice) {
+					PackedDna slice = dnas[i].slice(start, Math.min(start + basesPerSlice, dnas[i].length()));
+					messages.add(new DnaMessage(new int[] { ids[i] }, new PackedDna[] { slice }, new int[] { dnas[i].length() }));
+				}
+			}
+			if (!batchIds.isEmpty() || messages.isEmpty())
+				messages.add(new DnaMessage(batchIds.stream().mapToInt(Integer::intValue).toArray(), batchDnas.toArray(new PackedDna[0])));
+			return messages;
+		}
+
+		/**
+		 * For serialization/deserialization only.
+		 */
+		@SuppressWarnings("unused")
+		private DnaMessage() {
+		}
+
+		@Override
+		public TaskKind kind() {
+			return TaskKind.SUBSTRING;
+		}
+
+		@Override
+		public void writeTo(CompactWriter out) {
+			out.writeInts(this.ids);
+			out.writeInts(this.lengths);
+			out.writeInt(this.dnas.length);
+			for (PackedDna dna : this.dnas)
+				out.writeDna(dna);
+		}
+
+		/**
+		 * Read a message that was written by {@link #writeTo(CompactWriter)}.
+		 */
+		public static DnaMessage readFrom(CompactReader in) {
+			DnaMessage message = new DnaMessage();
+			message.ids = in.readInts();
+			message.lengths = in.readInts();
+			message.dnas = new PackedDna[in.readInt()];
+			for (int i = 0; i < message.dnas.length; i++)
+				message.dnas[i] = in.readDna();
+			return message;
+		}
+	}
+
+	/**
+	 * Asks the {@link SSWorker} to get the longest common substring of several pairs of participants, whose DNA it was told
+	 * before by {@link DnaMessage}s.
+	 */
+	public static class PairBatchMessage implements TaskMessage {
+
+		private static final long serialVersionUID = -2261405937728650713L;
+
+		private int id;
+
+		private int[] firstIds;
+
+		private int[] secondIds;
+
+		/**
+		 * Construct a new {@link PairBatchMessage} object.
+		 *
+		 * @param id the id of the task
+		 * @param firstIds the ids of the first participant of every pair
+		 * @param secondIds the ids of the second participant of every pair (at the same positions)
+		 */
+		public PairBatchMessage(int id, int[] firstIds, int[] secondIds) {
+			this.id = id;
+			this.firstIds = firstIds;
+			this.secondIds = secondIds;
+		}
+
+		/**
+		 * For serialization/deserialization only.
+		 */
+		@SuppressWarnings("unused")
+		private PairBatchMessage() {
+		}
+
+		@Override
+		public TaskKind kind() {
+			return TaskKind.SUBSTRING;
+		}
+	}
+
+	/**
+	 * Asks the {@link SSWorker} to compute a tile of the dynamic programming matrix of a pair of long sequences, see {@link TiledLcs}.
+	 * Its size grows with the side length of the tile, which therefore must not exceed {@link SSMaster#maxTileSize(int)}.
+	 */
+	public static class TileMessage implements CompactSerializer.Compact, TaskMessage {
+
+		private static final long serialVersionUID = 4620583129741060927L;
+
+		/**
+		 * Get the number of bytes that a message for a tile of the given side length is serialized into at most, for bases
+		 * that are ASCII letters, e.g., ACGT and N, and boundaries of any length.
+		 *
+		 * @param tileSize the number of rows and columns of the tile
+		 * @return the number of bytes
+		 */
+		public static int maxBytes(int tileSize) {
+			// The id, both bases with one byte per base plus their kind and length, and both boundaries with five bytes per cell plus their length
+			return 5 + 2 * (1 + 5 + tileSize) + 5 + 5 * tileSize + 5 + 5 * (tileSize + 1);
+		}
+
+		private int id;
+
+		private PackedDna a;
+
+		private PackedDna b;
+
+		private int[] top;
+
+		private int[] left;
+
+		/**
+		 * Construct a new {@link TileMessage} object.
+		 *
+		 * @param id the id of the task
+		 * @param a the bases of the rows of the tile
+		 * @param b the bases of the columns of the tile
+		 * @param top the last row of the tile above
+		 * @param left the right boundary of the tile to the left
+		 */
+		public TileMessage(int id, PackedDna a, PackedDna b, int[] top, int[] left) {
+			this.id = id;
+			this.a = a;
+			this.b = b;
+			this.top = top;
+			this.left = left;
+		}
+
+		/**
+		 * For serialization/deserialization only.
+		 */
+		@SuppressWarnings("unused")
+		private TileMessage() {
+		}
+
+		@Override
+		public TaskKind kind() {
+			return TaskKind.SUBSTRING;
+		}
+
+		@Override
+		public void writeTo(CompactWriter out) {
+			out.writeInt(this.id);
+			out.writeDna(this.a);
+			out.writeDna(this.b);
+			out.writeInts(this.top);
+			out.writeInts(this.left);
+		}
+
+		/**
+		 * Read a message that was written by {@link #writeTo(CompactWriter)}.
+		 */
+		public static TileMessage readFrom(CompactReader in) {
+			TileMessage message = new TileMessage();
+			message.id = in.readInt();
+			message.a = in.readDna();
+			message.b = in.readDna();
+			message.top = in.readInts();
+			message.left = in.readInts();
+			return message;
+		}
+	}
+
+	/**
+	 * The state and the message handlers of an {@link SSWorker}, so that a {@link PoolWorker} can run the same tasks.
+	 */
+	static class Matcher {
+
+		// The engine that finds the longest common substrings; it reuses its buffers across tasks
+		private final LcsEngine lcs;
+
+		// The suffix automata of the recently compared first participants, or null to only use the engine
+		private final SuffixAutomatonCache automata;
+
+		// The DNA of all participants that this worker was told about by id
+		private final Map<Integer, PackedDna> dnas = new HashMap<>();
+
+		// The slices of DNA that arrived so far for participants whose DNA did not fit into a single message
+		private final Map<Integer, StringBuilder> partialDnas = new HashMap<>();
+
+		Matcher(final LcsEngine.Kind engine, final long automatonCacheBytes) {
+			this.lcs = engine.create();
+			this.automata = automatonCacheBytes > 0 ? new SuffixAutomatonCache(automatonCacheBytes) : null;
+		}
+
+		/**
+		 * @param actor the actor that runs the tasks and answers their senders
+		 * @return the handlers of all tasks of an {@link SSWorker}
+		 */
+		Receive receive(final AbstractActor actor) {
+			return ReceiveBuilder.create()
+					.match(SSValidationMessage.class, message -> this.handle(actor, message))
+					.match(DnaMessage.class, this::handle)
+					.match(PairBatchMessage.class, message -> this.handle(actor, message))
+					.match(TileMessage.class, message -> this.handle(actor, message))
+					.build();
+		}
+
+		/**
+		 * Log that the actor that ran the tasks stopped.
+		 */
+		void logStopped(final LoggingAdapter log, final ActorRef self) {
+			if (this.automata != null)
+				log.info("Stopped {} after building {} suffix automata for {} comparisons.", self, this.automata.builds(), this.automata.lookups());
+			else
+				log.info("Stopped {}.", self);
+		}
+
+		private void handle(AbstractActor actor, SSValidationMessage message) {
+			
+			// Log that we started processing the current task
+			//this.log().info("Start searching for the longest common substring between [{},{}]", message.p1.getName(), message.p2.getName());
+
+			String ss = this.longestCommonSubstring(message.p1.getId(), message.dna1, message.dna2);
+			//this.log().info("Found longest common substring between [{},{}], its {}", message.p1.getName(), message.p2.getName(), ss);
+			Participant p1 = message.p1;
+			Participant p2 = message.p2;
+			p1.setDna_match_partner_id(p2.getId());
+			p2.setDna_match_partner_id(p1.getId());
+			p1.setDna_match(ss);
+			p2.setDna_match(ss);
+
+			actor.getSender().tell(new SSMaster.FinalizedMessage(message.id, p1, p2), actor.getSelf());
+		}
+
+		private void handle(DnaMessage message) {
+			for (int i = 0; i < message.ids.length; i++) {
+				if (message.dnas[i].length() == message.lengths[i]) {
+					this.dnas.put(message.ids[i], message.dnas[i]);
+					continue;
+				}
+
+				// Join the slices of a long sequence, which arrive in order
+				StringBuilder partial = this.partialDnas.computeIfAbsent(message.ids[i], id -> new StringBuilder());
+				partial.append(message.dnas[i].toString());
+				if (partial.length() == message.lengths[i]) {
+					this.dnas.put(message.ids[i], PackedDna.of(partial.toString()));
+					this.partialDnas.remove(message.ids[i]);
+				}
+			}
+		}
+
+		private void handle(AbstractActor actor, PairBatchMessage message) {
+
+			// Compare all pairs of the batch with the DNA that was sent before
+			String[] substrings = new String[message.firstIds.length];
+			for (int i = 0; i < substrings.length; i++) {
+				PackedDna dna1 = this.dnas.get(message.firstIds[i]);
+				PackedDna dna2 = this.dnas.get(message.secondIds[i]);
+				if (dna1 == null || dna2 == null)
+					throw new IllegalStateException("Received a pair of participants " + message.firstIds[i] + " and " + message.secondIds[i] + " before their DNA");
+				substrings[i] = this.longestCommonSubstring(message.firstIds[i], dna1, dna2);
+			}
+
+			actor.getSender().tell(new SSMaster.PairBatchFinalizedMessage(message.id, message.firstIds, message.secondIds, substrings), actor.getSelf());
+		}
+
+		/**
+		 * Find the longest common substring with the cached automaton of the first participant if there is a cache, with the engine otherwise.
+		 */
+		private String longestCommonSubstring(int id1, PackedDna dna1, PackedDna dna2) {
+			SuffixAutomaton automaton = this.automata == null ? null : this.automata.get(id1, dna1);
+			return automaton != null ? automaton.longestCommonSubstring(dna2) : this.lcs.longestCommonSubstring(dna1, dna2);
+		}
+
+		private void handle(AbstractActor actor, TileMessage message) {
+			TiledLcs.Tile tile = TiledLcs.compute(message.a.toString(), message.b.toString(), message.top, message.left);
+			actor.getSender().tell(new SSMaster.TileFinalizedMessage(message.id, tile), actor.getSelf());
+		}
+	}
+
+	// The state and the handlers of all tasks
+	private final Matcher matcher;
+
+	public SSWorker(final LcsEngine.Kind engine, final long automatonCacheBytes) {
+		this.matcher = new Matcher(engine, automatonCacheBytes);
+	}
+
 	@Override
 	public void preStart() throws Exception {
 		super.preStart();
@@ -71,68 +510,14 @@ public class SSWorker extends AbstractLoggingActor {
 		super.postStop();
 		
 		// Log the stop event
-		this.log().info("Stopped {}.", this.getSelf());
+		this.matcher.logStopped(this.log(), this.getSelf());
 	}
 
 	@Override
 	public Receive createReceive() {
-		return receiveBuilder()
-				.match(SSValidationMessage.class, this::handle)
-				.matchAny(object -> this.log().info(this.getClass().getName() + " received unknown message: " + object.toString()))
-				.build();
-	}
-
-	private void handle(SSValidationMessage message) {
-		
-		// Log that we started processing the current task
-		//this.log().info("Start searching for the longest common substring between [{},{}]", message.p1.getName(), message.p2.getName());
-
-		String ss = getLongestCommonSubstring(message.p1.getDna(), message.p2.getDna());
-		//this.log().info("Found longest common substring between [{},{}], its {}", message.p1.getName(), message.p2.getName(), ss);
-		Participant p1 = message.p1;
-		Participant p2 = message.p2;
-		p1.setDna_match_partner_id(p2.getId());
-		p2.setDna_match_partner_id(p1.getId());
-		p1.setDna_match(ss);
-		p2.setDna_match(ss);
-
-		this.getSender().tell(new SSMaster.FinalizedMessage(message.id, p1, p2), this.getSelf());
-	}
-	
-	/**
-	 * This function implements the dynamic programming approach 
-	 * to solve the longest common substring problem for two strings
-	 * @return A String containing the longest common substring
-	 */
-	private String getLongestCommonSubstring(String a, String b) {
-		int[][] D =  new int[a.length()+1][b.length()+1]; //+1 to have extra coloumn and row with 0s
-		int max = 0;
-		int[] max_pos = new int[2];
-		for (int i=1; i < D.length;i++) {
-			for (int k=1; k<D[0].length;k++) {
-				if (a.charAt(i-1) == (b.charAt(k-1))){
-					D[i][k] = D[i-1][k-1] + 1;
-				}
-				else {
-					D[i][k] = 0;
-				}
-				if (D[i][k] > max) { //keep track of maximum and its position
-					max_pos[0] = i;
-					max_pos[1] = k;
-					max = D[i][k];
-				}
-			}
-		}
-		//retrieve substring using max_help
-		int start_idx = max_pos[0]- max;
-		String lcsb = a.substring(start_idx, max_pos[0]);
-		String lcsa = b.substring(max_pos[1]-max, max_pos[1]);
-		// sanity check
-		if (!lcsb.equals(lcsa)) {
-			//log a problem
-			this.log().info("Something ain't right. This worker seems to produce a wrong result");
-
-		}
-		return lcsa;
+		return this.matcher.receive(this)
+				.orElse(receiveBuilder()
+						.matchAny(object -> this.log().info(this.getClass().getName() + " received unknown message: " + object.toString()))
+						.build());
 	}
-}
\ No newline at end of file
+}
@@ -10,6 +10,7 @@ import akka.actor.Address;
 import akka.actor.PoisonPill;
 import akka.actor.Props;
 import akka.actor.Terminated;
+import de.hpi.akka_tutorial.remote.messages.RemoteSystemMessage;
 import de.hpi.akka_tutorial.remote.messages.ShutdownMessage;
 
 /**
@@ -22,6 +23,7 @@ public class Shepherd extends AbstractLoggingActor {
 	/**
 	 * Create the {@link Props} necessary to instantiate new {@link Shepherd} actors.
 	 *
+	 * @param master the {@link Master} that deploys workers to the subscribed actor systems
 	 * @return the {@link Props}
 	 */
 	public static Props props(final ActorRef master) {
@@ -34,6 +36,23 @@ public class Shepherd extends AbstractLoggingActor {
 	public static class SubscriptionMessage implements Serializable {
 		
 		private static final long serialVersionUID = 6122957437037004535L;
+
+		// The number of cores and the maximum heap in bytes of the slave's actor system
+		private int cores;
+
+		private long maxHeap;
+
+		public SubscriptionMessage(final int cores, final long maxHeap) {
+			this.cores = cores;
+			this.maxHeap = maxHeap;
+		}
+
+		/**
+		 * For serialization/deserialization only.
+		 */
+		@SuppressWarnings("unused")
+		private SubscriptionMessage() {
+		}
 	}
 	
 	// A reference to the master actor that spawns new workers upon the connection of new actor systems
@@ -89,7 +108,7 @@ public class Shepherd extends AbstractLoggingActor {
 		// Keep track of all subscribed slaves but avoid double subscription.
 		if (!this.slaves.add(slave)) 
 			return;
-		this.log().info("New subscription: " + slave);
+		this.log().info("New subscription: {} with {} cores and {} MB heap", slave, message.cores, message.maxHeap >> 20);
 
 		// Acknowledge the subscription.
 		slave.tell(new Slave.AcknowledgementMessage(), this.getSelf());
@@ -100,8 +119,8 @@ public class Shepherd extends AbstractLoggingActor {
 		// Extract the remote system's address from the sender.
 		Address remoteAddress = this.getSender().path().address();
 
-		// Inform the master about the new remote system.
-		this.master.tell(new PWMaster.RemoteSystemMessage(remoteAddress), this.getSelf());
+		// Inform the master about the new remote system and its capacity.
+		this.master.tell(new RemoteSystemMessage(remoteAddress, message.cores, message.maxHeap), this.getSelf());
 	}
 	
 	private void handle(ShutdownMessage message) {
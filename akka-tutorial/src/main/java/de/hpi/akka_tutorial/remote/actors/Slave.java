@@ -120,7 +120,7 @@ public class Slave extends AbstractLoggingActor {
 		this.connectSchedule = scheduler.schedule(
 				Duration.Zero(),
 				Duration.create(5, TimeUnit.SECONDS),
-				() -> selection.tell(new Shepherd.SubscriptionMessage(), this.getSelf()),
+				() -> selection.tell(new Shepherd.SubscriptionMessage(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory()), this.getSelf()),
 				dispatcher
 		);
 	}
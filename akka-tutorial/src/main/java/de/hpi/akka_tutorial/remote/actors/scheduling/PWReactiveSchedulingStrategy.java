@@ -1,24 +1,158 @@
 package de.hpi.akka_tutorial.remote.actors.scheduling;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import akka.actor.ActorRef;
+import akka.event.LoggingAdapter;
+import de.hpi.akka_tutorial.pw.Keyspace;
+import de.hpi.akka_tutorial.pw.LikelyCandidates;
 import de.hpi.akka_tutorial.remote.actors.PWCrackWorker;
 
 public class PWReactiveSchedulingStrategy implements PWSchedulingStrategy {
 
 	public static class PWFactory implements PWSchedulingStrategy.PWFactory {
 
+		// Whether likely candidates are checked before the exhaustive sweep
+		private final boolean likelyFirst;
+
+		public PWFactory() {
+			this(false);
+		}
+
+		/**
+		 * @param likelyFirst whether to check the {@link LikelyCandidates} before sweeping the rest of the keyspace
+		 */
+		public PWFactory(final boolean likelyFirst) {
+			this.likelyFirst = likelyFirst;
+		}
+
+		@Override
+		public PWSchedulingStrategy create(ActorRef master, LoggingAdapter log, Keyspace keyspace, int maxMessageBytes) {
+			return new PWReactiveSchedulingStrategy(master, log, keyspace, this.likelyFirst, maxMessageBytes);
+		}
+	}
+
+	// Size each subquery so that its worker needs about this long for it
+	private static final long TARGET_SUBQUERY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	// Give a worker whose throughput is not yet known this many candidates at once
+	private static final long INITIAL_SUBQUERY_RANGE_SIZE = 100_000;
+
+	// Never give a worker fewer or more candidates than this at once
+	private static final long MIN_SUBQUERY_RANGE_SIZE = 10_000;
+	private static final long MAX_SUBQUERY_RANGE_SIZE = 10_000_000;
+
+	// The weight of the latest measurement in a worker's throughput estimate
+	private static final double THROUGHPUT_SMOOTHING = 0.5;
+
+	/**
+	 * A range or list of candidates that was, or is to be, sent to a worker.
+	 */
+	private static class Subquery {
+
+		// The id of this subquery within its query
+		private final int id;
+
+		// The range of candidates, with the candidates to skip within it, or the list of candidates if this is no range
+		private final long rangeMin, rangeMax;
+		private final long[] skip;
+		private final long[] candidates;
+
+		// When the subquery was sent to its current worker
+		private long sentAt;
+
+		Subquery(int id, long rangeMin, long rangeMax, long[] skip) {
+			this.id = id;
+			this.rangeMin = rangeMin;
+			this.rangeMax = rangeMax;
+			this.skip = skip;
+			this.candidates = null;
+		}
+
+		Subquery(int id, long[] candidates) {
+			this.id = id;
+			this.rangeMin = 0;
+			this.rangeMax = -1;
+			this.skip = null;
+			this.candidates = candidates;
+		}
+
+		long size() {
+			return this.candidates != null ? this.candidates.length : this.rangeMax - this.rangeMin + 1 - this.skip.length;
+		}
+
+		PWCrackWorker.PWValidationMessage toMessage(int queryId) {
+			return this.candidates != null
+					? new PWCrackWorker.PWValidationMessage(queryId, this.id, this.candidates)
+					: new PWCrackWorker.PWValidationMessage(queryId, this.id, this.rangeMin, this.rangeMax, this.skip);
+		}
+
 		@Override
-		public PWSchedulingStrategy create(ActorRef master) {
-			return new PWReactiveSchedulingStrategy(master);
+		public String toString() {
+			return this.candidates != null
+					? String.format("%,d likely candidates", this.candidates.length)
+					: String.format("range [%d,%d]", this.rangeMin, this.rangeMax);
+		}
+	}
+
+	/**
+	 * This class measures the throughput of a worker from the completion times of its subqueries.
+	 */
+	private static class WorkerStats {
+
+		// The smoothed throughput in candidates per nanosecond, or 0 if not yet measured
+		private double candidatesPerNano = 0;
+
+		// When the worker completed its last subquery
+		private long lastCompletion = 0;
+
+		// The preferred range size that was last reported, or 0 if none was reported yet
+		private long reportedRangeSize = 0;
+
+		void completed(Subquery subquery, boolean measure) {
+			long now = System.nanoTime();
+
+			// Subqueries queue up in the worker's mailbox, so a subquery starts when it was sent or when its predecessor completed
+			long start = Math.max(subquery.sentAt, this.lastCompletion);
+			this.lastCompletion = now;
+			if (!measure)
+				return;
+
+			double measured = (double) subquery.size() / Math.max(1, now - start);
+			this.candidatesPerNano = this.candidatesPerNano == 0 ? measured
+					: THROUGHPUT_SMOOTHING * measured + (1 - THROUGHPUT_SMOOTHING) * this.candidatesPerNano;
+		}
+
+		long preferredRangeSize() {
+			if (this.candidatesPerNano == 0)
+				return INITIAL_SUBQUERY_RANGE_SIZE;
+			long size = (long) (this.candidatesPerNano * TARGET_SUBQUERY_NANOS);
+			return Math.max(MIN_SUBQUERY_RANGE_SIZE, Math.min(MAX_SUBQUERY_RANGE_SIZE, size));
+		}
+
+		long candidatesPerSecond() {
+			return (long) (this.candidatesPerNano * TimeUnit.SECONDS.toNanos(1));
+		}
+
+		// Whether the measured preferred range size at least doubled or halved since it was last reported, which then counts as reported
+		boolean reportRangeSizeChange() {
+			long size = this.preferredRangeSize();
+			if (this.candidatesPerNano == 0 || this.reportedRangeSize != 0 && size < 2 * this.reportedRangeSize && 2 * size > this.reportedRangeSize)
+				return false;
+			this.reportedRangeSize = size;
+			return true;
 		}
 	}
 
@@ -27,68 +161,110 @@ public class PWReactiveSchedulingStrategy implements PWSchedulingStrategy {
 	 */
 	private class QueryTracker {
 
-		// Give each worker at most this many numbers at once to check.
-		private final int MAX_SUBQUERY_RANGE_SIZE = 100_000;
+		// The range of candidate indexes that was not yet scheduled to workers.
+		private long remainingRangeStartNumber, remainingRangeEndNumber;
 
-		// The range of values that was not yet scheduled to workers.
-		private int remainingRangeStartNumber, remainingRangeEndNumber;
+		// The position of the first likely candidate that was not yet scheduled to workers.
+		private int nextLikelyCandidate = 0;
+
+		// The id of the next subquery.
+		private int nextSubqueryId = 0;
 
 		// This is the ID of the query that is being tracked.
 		private final int id;
 
-		// Keeps track of the currently posed subqueries and which actor is processing it.
-		private final Map<ActorRef, PWCrackWorker.PWValidationMessage> runningSubqueries = new HashMap<>();
+		// Keeps track of the currently posed subqueries and which actor is processing them.
+		private final Map<ActorRef, List<Subquery>> runningSubqueries = new HashMap<>();
 
 		// Keeps track of failed subqueries, so as to reschedule them to some worker.
-		private final Queue<PWCrackWorker.PWValidationMessage> failedSubqueries = new LinkedList<>();
+		private final Queue<Subquery> failedSubqueries = new LinkedList<>();
+
+		// The workers that were sent the targets of this query.
+		private final Set<ActorRef> workersWithTargets = new HashSet<>();
 
-		private final Integer userid;
+		// The users whose passwords were not found yet and their raw hashes (at the same positions).
+		private int[] userids;
 
-		private final String pwhash;
+		private byte[][] digests;
 
-		QueryTracker(final int id, final Integer userid, final String pwhash) {
+		QueryTracker(final int id, final Map<Integer, String> userid2pwhash) {
 			this.id = id;
 			this.remainingRangeStartNumber = 0;
-			this.remainingRangeEndNumber = 9_999_999; // 7 digit password 
-			this.userid = userid;
-			this.pwhash = pwhash;
+			this.remainingRangeEndNumber = keyspace.size() - 1;
+			this.userids = new int[userid2pwhash.size()];
+			String[] pwhashes = new String[userid2pwhash.size()];
+			int i = 0;
+			for (Map.Entry<Integer, String> entry : userid2pwhash.entrySet()) {
+				this.userids[i] = entry.getKey();
+				pwhashes[i] = entry.getValue();
+				i++;
+			}
+			this.digests = PWCrackWorker.TargetsMessage.decode(pwhashes);
 		}
 
-		boolean assignWork(ActorRef worker, ActorRef master) {
+		/**
+		 * Assign a failed or new subquery to the worker.
+		 *
+		 * @param worker the worker with a free slot in its window
+		 * @param master the actor in whose name the subquery is sent
+		 * @param preferredRangeSize the size of a new subquery that suits the worker's throughput
+		 * @return the assigned subquery or {@code null} if there was no work to assign
+		 */
+		Subquery assignWork(ActorRef worker, ActorRef master, long preferredRangeSize) {
 
 			// Select a failed subquery if any
-			PWCrackWorker.PWValidationMessage subquery = this.failedSubqueries.poll();
-			
-			// Create a new subquery if no failed subquery was selected
+			Subquery subquery = this.failedSubqueries.poll();
+
+			// Create a new subquery of likely candidates if no failed subquery was selected and there are any left
+			if (subquery == null && this.nextLikelyCandidate < likelyCandidates.length) {
+				int remaining = likelyCandidates.length - this.nextLikelyCandidate;
+				int count = (int) Math.min(remaining, Math.min(preferredRangeSize, Math.max(MIN_SUBQUERY_RANGE_SIZE, remaining / (2 * countWorkers()))));
+				subquery = new Subquery(this.nextSubqueryId++, Arrays.copyOfRange(likelyCandidates, this.nextLikelyCandidate, this.nextLikelyCandidate + count));
+				this.nextLikelyCandidate += count;
+			}
+
+			// Create a new subquery of the remaining range otherwise, skipping the likely candidates that were checked already
 			if (subquery == null) {
-				int subqueryRangeSize = Math.min(this.remainingRangeEndNumber - this.remainingRangeStartNumber + 1, MAX_SUBQUERY_RANGE_SIZE);
+				// Shrink subqueries near the end of the range, so that all workers finish at about the same time
+				long remainingRangeSize = this.remainingRangeEndNumber - this.remainingRangeStartNumber + 1;
+				long tailRangeSize = Math.max(MIN_SUBQUERY_RANGE_SIZE, remainingRangeSize / (2 * countWorkers()));
+				long subqueryRangeSize = Math.min(remainingRangeSize, Math.min(preferredRangeSize, tailRangeSize));
 				if (subqueryRangeSize > 0) {
-					subquery = new PWCrackWorker.PWValidationMessage(this.id, this.remainingRangeStartNumber, this.remainingRangeStartNumber + subqueryRangeSize - 1, this.userid, this.pwhash);
+					long rangeMax = this.remainingRangeStartNumber + subqueryRangeSize - 1;
+					subquery = new Subquery(this.nextSubqueryId++, this.remainingRangeStartNumber, rangeMax, likelyCandidatesWithin(this.remainingRangeStartNumber, rangeMax));
 					this.remainingRangeStartNumber += subqueryRangeSize;
 				}
 			}
-			
-			// Return false if no work was assigned
+
+			// Return null if no work was assigned
 			if (subquery == null) {
-				return false;
+				return null;
 			}
-			
-			// Assign and send the subquery to the worker
-			worker.tell(subquery, master);
-			this.runningSubqueries.put(worker, subquery);
-			
-			return true;
+
+			// Send the users that are still open to the worker, unless it knows them already, and assign the subquery
+			if (this.workersWithTargets.add(worker)) {
+				for (PWCrackWorker.TargetsMessage message : PWCrackWorker.TargetsMessage.split(this.id, keyspace, this.userids, this.digests, maxMessageBytes))
+					worker.tell(message, master);
+			}
+			worker.tell(subquery.toMessage(this.id), master);
+			subquery.sentAt = System.nanoTime();
+			this.runningSubqueries.computeIfAbsent(worker, w -> new ArrayList<>()).add(subquery);
+
+			return subquery;
 		}
-		
+
 		/**
-		 * Handle the failure of a subquery. That is, prepare to re-schedule the failed subquery.
+		 * Handle the failure of a worker. That is, prepare to re-schedule all of its subqueries.
 		 *
 		 * @param worker the actor that just failed
 		 */
 		void workFailed(ActorRef worker) {
-			PWCrackWorker.PWValidationMessage failedTask = this.runningSubqueries.remove(worker);
-			if (failedTask != null) {
-				this.failedSubqueries.add(failedTask);
+			this.workersWithTargets.remove(worker);
+			List<Subquery> failedTasks = this.runningSubqueries.remove(worker);
+
+			// Once all passwords were found, the other workers have dropped the targets and there is nothing to re-schedule
+			if (failedTasks != null && !this.isAllFound()) {
+				this.failedSubqueries.addAll(failedTasks);
 			}
 		}
 
@@ -96,10 +272,77 @@ public class PWReactiveSchedulingStrategy implements PWSchedulingStrategy {
 		 * Handle the completion of a subquery.
 		 *
 		 * @param worker the actor that just completed
+		 * @param subqueryId the id of the completed subquery
+		 * @return the completed subquery
 		 */
-		void workCompleted(ActorRef worker) {
-			PWCrackWorker.PWValidationMessage completedTask = this.runningSubqueries.remove(worker);
-			assert completedTask != null;
+		Subquery workCompleted(ActorRef worker, int subqueryId) {
+			List<Subquery> running = this.runningSubqueries.get(worker);
+			assert running != null;
+			Iterator<Subquery> iterator = running.iterator();
+			while (iterator.hasNext()) {
+				Subquery subquery = iterator.next();
+				if (subquery.id == subqueryId) {
+					iterator.remove();
+					if (running.isEmpty())
+						this.runningSubqueries.remove(worker);
+					return subquery;
+				}
+			}
+			throw new IllegalStateException(worker + " completed the unknown subquery " + subqueryId + " of query " + this.id);
+		}
+
+		/**
+		 * Handle found passwords. Their users are not searched for in any further subqueries and, once all
+		 * passwords were found, no further subqueries are issued and the running ones are cancelled.
+		 *
+		 * @param foundUserids the users whose passwords were found
+		 * @param master the actor in whose name cancellations are sent
+		 */
+		void passwordsFound(int[] foundUserids, ActorRef master) {
+			List<Integer> openPositions = new ArrayList<>();
+			for (int i = 0; i < this.userids.length; i++) {
+				final int userid = this.userids[i];
+				if (Arrays.stream(foundUserids).noneMatch(found -> found == userid)) {
+					openPositions.add(i);
+				}
+			}
+			if (openPositions.size() == this.userids.length) {
+				return;
+			}
+
+			this.digests = openPositions.stream().map(i -> this.digests[i]).toArray(byte[][]::new);
+			this.userids = openPositions.stream().mapToInt(i -> this.userids[i]).toArray();
+
+			if (this.userids.length == 0) {
+				// Nothing left to find: drop all open ranges and cancel the running ones
+				this.remainingRangeStartNumber = this.remainingRangeEndNumber + 1;
+				this.nextLikelyCandidate = likelyCandidates.length;
+				this.failedSubqueries.clear();
+				for (ActorRef worker : this.runningSubqueries.keySet()) {
+					worker.tell(new PWCrackWorker.CancelMessage(this.id), master);
+				}
+			}
+		}
+
+		/**
+		 * Let all workers forget the targets of this query once it is complete.
+		 *
+		 * @param master the actor in whose name the messages are sent
+		 */
+		void release(ActorRef master) {
+			for (ActorRef worker : this.workersWithTargets) {
+				worker.tell(new PWCrackWorker.CancelMessage(this.id), master);
+			}
+			this.workersWithTargets.clear();
+		}
+
+		/**
+		 * Check whether all passwords of this query were found, so that running subqueries might end early.
+		 *
+		 * @return whether all passwords were found
+		 */
+		boolean isAllFound() {
+			return this.userids.length == 0;
 		}
 
 		/**
@@ -110,6 +353,7 @@ public class PWReactiveSchedulingStrategy implements PWSchedulingStrategy {
 		boolean isComplete() {
 			return this.runningSubqueries.isEmpty()
 					&& this.failedSubqueries.isEmpty()
+					&& this.nextLikelyCandidate >= likelyCandidates.length
 					&& this.remainingRangeStartNumber > this.remainingRangeEndNumber;
 		}
 	}
@@ -118,25 +362,68 @@ public class PWReactiveSchedulingStrategy implements PWSchedulingStrategy {
 	// A mapping of pending range queries to the query tracker that watches the progress of each range query; the queries are kept in their insertion order
 	private final LinkedHashMap<Integer, QueryTracker> queryId2tracker = new LinkedHashMap<>();
 
-	// A mapping of known works to their current task
-	private final Map<ActorRef, QueryTracker> worker2tracker = new HashMap<>();
+	// A mapping of known works to the trackers of their in-flight subqueries (one entry per subquery)
+	private final Map<ActorRef, List<QueryTracker>> worker2trackers = new HashMap<>();
+
+	// The measured throughput of each known worker
+	private final Map<ActorRef, WorkerStats> worker2stats = new HashMap<>();
 
 	// A reference to the actor in whose name we send messages
 	private final ActorRef master;
 
-	public PWReactiveSchedulingStrategy(ActorRef master) {
+	// The log of that actor
+	private final LoggingAdapter log;
+
+	// The keyspace to split into ranges
+	private final Keyspace keyspace;
+
+	// The number of bytes that a serialized message to a worker may have at most
+	private final int maxMessageBytes;
+
+	// The likely candidates that every query checks first, most likely first, and the same candidates in ascending order
+	private final long[] likelyCandidates;
+	private final long[] sortedLikelyCandidates;
+
+	public PWReactiveSchedulingStrategy(ActorRef master, LoggingAdapter log, Keyspace keyspace, boolean likelyFirst, int maxMessageBytes) {
 		this.master = master;
+		this.log = log;
+		this.keyspace = keyspace;
+		this.maxMessageBytes = maxMessageBytes;
+		this.likelyCandidates = likelyFirst ? LikelyCandidates.of(keyspace) : new long[0];
+		this.sortedLikelyCandidates = LikelyCandidates.sorted(this.likelyCandidates);
+		if (likelyFirst) {
+			this.log.info("Checking {} likely candidates before sweeping keyspace {}.", this.likelyCandidates.length, keyspace);
+		}
+	}
+
+	/**
+	 * @return the likely candidates within the range in ascending order
+	 */
+	private long[] likelyCandidatesWithin(long rangeMin, long rangeMax) {
+		int from = Arrays.binarySearch(this.sortedLikelyCandidates, rangeMin);
+		int to = Arrays.binarySearch(this.sortedLikelyCandidates, rangeMax + 1);
+		return Arrays.copyOfRange(this.sortedLikelyCandidates, from < 0 ? -from - 1 : from, to < 0 ? -to - 1 : to);
 	}
 
 	@Override
 	public void schedule(final int taskId, final Integer userid, final String pwhash) {
+		this.schedule(taskId, Collections.singletonMap(userid, pwhash));
+	}
+
+	@Override
+	public void schedule(final int taskId, final Map<Integer, String> userid2pwhash) {
 
 		// Create a new tracker for the query
-		QueryTracker tracker = new QueryTracker(taskId, userid, pwhash);
+		QueryTracker tracker = new QueryTracker(taskId, userid2pwhash);
 		this.queryId2tracker.put(tracker.id, tracker);
+	}
 
-		// Assign existing, possible free, workers to the new query
-		this.assignSubqueries();
+	@Override
+	public void passwordsFound(final int taskId, final int[] userids) {
+		QueryTracker queryTracker = this.queryId2tracker.get(taskId);
+		if (queryTracker != null) {
+			queryTracker.passwordsFound(userids, this.master);
+		}
 	}
 
 	@Override
@@ -145,22 +432,29 @@ public class PWReactiveSchedulingStrategy implements PWSchedulingStrategy {
 	}
 
 	@Override
-	public void finished(final int taskId, final ActorRef worker) {
-		
+	public void finished(final int taskId, final int subqueryId, final ActorRef worker) {
+
 		// Find the query being processed
 		QueryTracker queryTracker = this.queryId2tracker.get(taskId);
 
-		// Mark the worker as free
-		queryTracker.workCompleted(worker);
-		this.worker2tracker.put(worker, null);
+		// Return the worker's credit for this subquery
+		Subquery subquery = queryTracker.workCompleted(worker, subqueryId);
+		List<QueryTracker> trackers = this.worker2trackers.get(worker);
+		if (trackers != null) {
+			trackers.remove(queryTracker);
+		}
+
+		// Measure the worker's throughput, unless it stopped early because all passwords were found
+		WorkerStats stats = this.worker2stats.get(worker);
+		if (stats != null) {
+			stats.completed(subquery, !queryTracker.isAllFound());
+		}
 
 		// Check if the query is complete
 		if (queryTracker.isComplete()) {
-			// Remove the query tracker
+			// Remove the query tracker and let the workers forget its targets
 			this.queryId2tracker.remove(queryTracker.id);
-		} else {
-			// Re-assign the now free worker
-			this.assignSubqueries();
+			queryTracker.release(this.master);
 		}
 	}
 
@@ -168,58 +462,53 @@ public class PWReactiveSchedulingStrategy implements PWSchedulingStrategy {
 	public void addWorker(final ActorRef worker) {
 
 		// Add the new worker
-		this.worker2tracker.put(worker, null);
-
-		// Assign possibly open subqueries to the new worker
-		this.assignSubqueries();
+		this.worker2trackers.put(worker, new ArrayList<>());
+		this.worker2stats.put(worker, new WorkerStats());
 	}
 
 	@Override
 	public void removeWorker(final ActorRef worker) {
 
 		// Remove the worker from the list of workers
-		QueryTracker processedTracker = this.worker2tracker.remove(worker);
-
-		// If the worker was processing some subquery, then we need to re-schedule this subquery
-		if (processedTracker != null) {
-			processedTracker.workFailed(worker);
-
-			// We might have some free workers that could process the re-scheduled subquery
-			this.assignSubqueries();
-		}
-	}
-
-	private void assignSubqueries() {
-
-		// Collect all currently idle workers
-		Collection<ActorRef> idleWorkers = this.worker2tracker.entrySet().stream()
-				.filter(e -> e.getValue() == null)
-				.map(Map.Entry::getKey)
-				.collect(Collectors.toList());
-		
-		// Assign idle workers to subqueries as long as there is work to do
-		Iterator<QueryTracker> queryTrackerIterator = this.queryId2tracker.values().iterator();
-		for (ActorRef idleWorker : idleWorkers) {
-			QueryTracker queryTracker;
-			
-			// Find a query tracker that can assign a subquery to this idle worker
-			do {
-				// Check if there is any (further) on-going query
-				if (!queryTrackerIterator.hasNext()) 
-					return;
-				
-				// Select the (next) query tracker
-				queryTracker = queryTrackerIterator.next();
-			}
-			while (!queryTracker.assignWork(idleWorker, this.master));
+		List<QueryTracker> processedTrackers = this.worker2trackers.remove(worker);
+		this.worker2stats.remove(worker);
 
-			// Assign the subquery to the worker and keep track of the assignment
-			this.worker2tracker.put(idleWorker, queryTracker);
+		// If the worker was processing some subqueries, then we need to re-schedule these subqueries
+		if (processedTrackers != null && !processedTrackers.isEmpty()) {
+			for (QueryTracker processedTracker : new HashSet<>(processedTrackers)) {
+				processedTracker.workFailed(worker);
+			}
 		}
 	}
 
 	@Override
-	public int countWorkers() {
-		return this.worker2tracker.keySet().size();
+	public TaskKind kind() {
+		return TaskKind.PASSWORD;
+	}
+
+	@Override
+	public boolean assignTask(final ActorRef worker) {
+		WorkerStats stats = this.worker2stats.get(worker);
+
+		// Find a query tracker that can assign a subquery to this worker, the oldest query first
+		for (QueryTracker queryTracker : this.queryId2tracker.values()) {
+			Subquery subquery = queryTracker.assignWork(worker, this.master, stats.preferredRangeSize());
+			if (subquery != null) {
+
+				// Keep track of the assignment
+				this.worker2trackers.get(worker).add(queryTracker);
+				this.log.debug("Assigned {} to {}.", subquery, worker);
+
+				// Report the throughput only when it changes the size of the worker's subqueries substantially
+				if (stats.reportRangeSizeChange())
+					this.log.info("Worker {} measured {} candidates/s and gets ranges of {} candidates.", worker, stats.candidatesPerSecond(), stats.preferredRangeSize());
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int countWorkers() {
+		return this.worker2trackers.keySet().size();
 	}
 }
@@ -1,9 +1,16 @@
 package de.hpi.akka_tutorial.remote.actors.scheduling;
 
+import java.util.Map;
+
 import akka.actor.ActorRef;
+import akka.event.LoggingAdapter;
+import de.hpi.akka_tutorial.pw.Keyspace;
 import de.hpi.akka_tutorial.remote.actors.PWCrackWorker;
 
-public interface PWSchedulingStrategy {
+/**
+ * A {@link SchedulingStrategy} for password cracking tasks.
+ */
+public interface PWSchedulingStrategy extends SchedulingStrategy {
 
 	/**
 	 * A factory for a {@link PWSchedulingStrategy}.
@@ -14,9 +21,12 @@ public interface PWSchedulingStrategy {
 		 * Create a new {@link PWSchedulingStrategy}.
 		 *
 		 * @param master that will employ the new instance
+		 * @param log the log of the master
+		 * @param keyspace the keyspace to split into ranges
+		 * @param maxMessageBytes the number of bytes that a serialized message to a worker may have at most
 		 * @return the new {@link PWSchedulingStrategy}
 		 */
-		PWSchedulingStrategy create(ActorRef master);
+		PWSchedulingStrategy create(ActorRef master, LoggingAdapter log, Keyspace keyspace, int maxMessageBytes);
 
 	}
 
@@ -30,36 +40,27 @@ public interface PWSchedulingStrategy {
 	void schedule(final int taskId, final Integer username, final String pwhash);
 
 	/**
-	 * Notify the completion of a worker's task.
-	 *
-	 * @param taskId the id of the task this worker was working on
-	 * @param worker the reference to the worker who finished the task
-	 */
-	void finished(final int taskId, final ActorRef worker);
-
-	/**
-	 * Check if there are still any pending tasks.
+	 * Schedule a single sweep over the password range that checks all given password hashes at once.
 	 *
-	 * @return {@code true} if tasks are still pending
+	 * @param taskId the id of the task that is to be split and scheduled
+	 * @param userid2pwhash the password hashes to crack, keyed by the id of the user they belong to
 	 */
-	boolean hasTasksInProgress();
+	void schedule(final int taskId, final Map<Integer, String> userid2pwhash);
 
 	/**
-	 * Add a new {@link Worker} actor.
+	 * Notify that passwords of a task were found, so that they are not searched for any longer.
 	 *
-	 * @param worker the worker actor to add
+	 * @param taskId the id of the task whose passwords were found
+	 * @param userids the users whose passwords were found
 	 */
-	void addWorker(final ActorRef worker);
+	void passwordsFound(final int taskId, final int[] userids);
 
 	/**
-	 * Remove a {@link Worker} actor.
+	 * Notify the completion of a worker's task.
 	 *
-	 * @param worker the worker actor to remove
-	 */
-	void removeWorker(final ActorRef worker);
-
-	/**
-	 * Count the number of active {@link Worker} actors.
+	 * @param taskId the id of the task this worker was working on
+	 * @param subqueryId the id of the part of the task that the worker finished, as a worker might have several parts in flight
+	 * @param worker the reference to the worker who finished the task
 	 */
-	int countWorkers();
+	void finished(final int taskId, final int subqueryId, final ActorRef worker);
 }
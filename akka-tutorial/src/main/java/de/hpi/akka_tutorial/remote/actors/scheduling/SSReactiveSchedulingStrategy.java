@@ -5,9 +5,9 @@ import de.hpi.akka_tutorial.remote.actors.scheduling.SSSchedulingStrategy;
 import de.hpi.akka_tutorial.remote.actors.SSWorker;
 import de.hpi.akka_tutorial.remote.actors.SSWorker.SSValidationMessage;
 import de.hpi.akka_tutorial.Participant;
+import de.hpi.akka_tutorial.ss.PackedDna;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class SSReactiveSchedulingStrategy implements SSSchedulingStrategy {
 
@@ -16,9 +16,24 @@ public class SSReactiveSchedulingStrategy implements SSSchedulingStrategy {
 	 */
 	public static class SSFactory implements SSSchedulingStrategy.Factory {
 
+		// Whether pairs with the same first participant go to the same worker
+		private final boolean affinity;
+
+		public SSFactory() {
+			this(false);
+		}
+
+		/**
+		 * @param affinity whether to send pairs with the same first participant to the same worker, which can then reuse
+		 *                 the suffix automaton of that participant's DNA
+		 */
+		public SSFactory(final boolean affinity) {
+			this.affinity = affinity;
+		}
+
 		@Override
-		public SSSchedulingStrategy create(ActorRef master) {
-			return new SSReactiveSchedulingStrategy(master);
+		public SSSchedulingStrategy create(ActorRef master, int maxMessageBytes) {
+			return new SSReactiveSchedulingStrategy(master, this.affinity, maxMessageBytes);
 		}
 	}
 
@@ -49,6 +64,14 @@ public class SSReactiveSchedulingStrategy implements SSSchedulingStrategy {
 		private Participant p1;
 		private Participant p2;
 
+		// The pairs of participants by id and their DNA, if this query is a batch
+		private Map<Integer, PackedDna> id2dna;
+		private int[] firstIds;
+		private int[] secondIds;
+
+		// The tile of the matrix of a long pair, if this query is a tile
+		private SSWorker.TileMessage tile;
+
 		QueryTracker(final int id, Participant p1, Participant p2) {
 			this.id = id;
 			this.p1 = p1;
@@ -58,6 +81,44 @@ public class SSReactiveSchedulingStrategy implements SSSchedulingStrategy {
 			this.myworker = null;
 		}
 
+		QueryTracker(final int id, Map<Integer, PackedDna> id2dna, int[] firstIds, int[] secondIds) {
+			this(id, null, null);
+			this.id2dna = id2dna;
+			this.firstIds = firstIds;
+			this.secondIds = secondIds;
+		}
+
+		QueryTracker(final int id, SSWorker.TileMessage tile) {
+			this(id, null, null);
+			this.tile = tile;
+		}
+
+		/**
+		 * @return the id of the first participant of the (first) pair of this query, or -1 for a tile
+		 */
+		int affinityId() {
+			if (this.firstIds != null)
+				return this.firstIds[0];
+			return this.p1 != null ? this.p1.getId() : -1;
+		}
+
+		/**
+		 * Send the worker the DNA of all participants of this batch that it does not know yet.
+		 */
+		private void sendMissingDna(ActorRef worker, ActorRef master) {
+			Set<Integer> knownIds = worker2knownIds.computeIfAbsent(worker, w -> new HashSet<>());
+			List<Integer> missingIds = new ArrayList<>();
+			for (int[] ids : new int[][] { this.firstIds, this.secondIds })
+				for (int participantId : ids)
+					if (knownIds.add(participantId))
+						missingIds.add(participantId);
+			if (!missingIds.isEmpty()) {
+				for (SSWorker.DnaMessage message : SSWorker.DnaMessage.split(missingIds.stream().mapToInt(Integer::intValue).toArray(),
+						missingIds.stream().map(this.id2dna::get).toArray(PackedDna[]::new), maxMessageBytes))
+					worker.tell(message, master);
+			}
+		}
+
 		/**
 		 * Assign a query of the tracked query to the worker. If a subquery was available, a {@link SSWorker.SSValidationMessage} is send to the worker with master as sender.
 		 *
@@ -72,10 +133,18 @@ public class SSReactiveSchedulingStrategy implements SSSchedulingStrategy {
 			}
 			else {
 				//System.out.println("  did it");
-				SSValidationMessage query = new SSWorker.SSValidationMessage(this.id, this.p1, this.p2);
-				worker.tell(query, master);
+				if (this.tile != null) {
+					worker.tell(this.tile, master);
+				} else if (this.firstIds != null) {
+					this.sendMissingDna(worker, master);
+					worker.tell(new SSWorker.PairBatchMessage(this.id, this.firstIds, this.secondIds), master);
+				} else {
+					SSValidationMessage query = new SSWorker.SSValidationMessage(this.id, this.p1, this.p2);
+					worker.tell(query, master);
+				}
 				this.myworker = worker;
 				this.failed = false;
+				numUnassigned--;
 				return true;
 			}			
 			/**
@@ -107,6 +176,7 @@ public class SSReactiveSchedulingStrategy implements SSSchedulingStrategy {
 		void workFailed(ActorRef worker) {
 			this.failed = true;
 			this.myworker = null;
+			numUnassigned++;
 		}
 
 		/**
@@ -127,14 +197,32 @@ public class SSReactiveSchedulingStrategy implements SSSchedulingStrategy {
 	// A mapping of pending range queries to the query tracker that watches the progress of each range query; the queries are kept in their insertion order
 	private final LinkedHashMap<Integer, QueryTracker> queryId2tracker = new LinkedHashMap<>();
 
-	// A mapping of known works to their current task
-	private final Map<ActorRef, QueryTracker> worker2tracker = new HashMap<>();
+	// The number of queries that wait for a worker
+	private int numUnassigned = 0;
+
+	// A mapping of known works to the trackers of their in-flight queries
+	private final Map<ActorRef, List<QueryTracker>> worker2trackers = new HashMap<>();
+
+	// The ids of the participants whose DNA each worker was sent already
+	private final Map<ActorRef, Set<Integer>> worker2knownIds = new HashMap<>();
 
 	// A reference to the actor in whose name we send messages
 	private final ActorRef master;
 
-	public SSReactiveSchedulingStrategy(ActorRef master) {
+	// Whether pairs with the same first participant go to the same worker
+	private final boolean affinity;
+
+	// The number of bytes that a serialized message to a worker may have at most
+	private final int maxMessageBytes;
+
+	// With affinity, the unassigned queries by the first participant of their (first) pair, and the first participant that each worker compared last
+	private final Map<Integer, Set<QueryTracker>> affinityId2trackers = new LinkedHashMap<>();
+	private final Map<ActorRef, Integer> worker2affinityId = new HashMap<>();
+
+	public SSReactiveSchedulingStrategy(ActorRef master, boolean affinity, int maxMessageBytes) {
 		this.master = master;
+		this.affinity = affinity;
+		this.maxMessageBytes = maxMessageBytes;
 	}
 
 	@Override
@@ -143,9 +231,27 @@ public class SSReactiveSchedulingStrategy implements SSSchedulingStrategy {
 		// Create a new tracker for the query
 		QueryTracker tracker = new QueryTracker(taskId, p1, p2);
 		this.queryId2tracker.put(tracker.id, tracker);
-		//System.out.println("schedule job with trackerid " + taskId);
-		// Assign existing, possible free, workers to the new query
-		this.assignQueries();
+		this.numUnassigned++;
+		this.addAffinity(tracker);
+	}
+
+	@Override
+	public void schedule(final int taskId, final Map<Integer, PackedDna> id2dna, final int[] firstIds, final int[] secondIds) {
+
+		// Create a new tracker for the batch
+		QueryTracker tracker = new QueryTracker(taskId, id2dna, firstIds, secondIds);
+		this.queryId2tracker.put(tracker.id, tracker);
+		this.numUnassigned++;
+		this.addAffinity(tracker);
+	}
+
+	@Override
+	public void schedule(final int taskId, final PackedDna a, final PackedDna b, final int[] top, final int[] left) {
+
+		// Create a new tracker for the tile
+		QueryTracker tracker = new QueryTracker(taskId, new SSWorker.TileMessage(taskId, a, b, top, left));
+		this.queryId2tracker.put(tracker.id, tracker);
+		this.numUnassigned++;
 	}
 
 	@Override
@@ -153,6 +259,11 @@ public class SSReactiveSchedulingStrategy implements SSSchedulingStrategy {
 		return !this.queryId2tracker.isEmpty();
 	}
 
+	@Override
+	public int countUnassignedTasks() {
+		return this.numUnassigned;
+	}
+
 	@Override
 	public void finished(final int taskId, final ActorRef worker) {
 
@@ -162,79 +273,114 @@ public class SSReactiveSchedulingStrategy implements SSSchedulingStrategy {
 		
 		// mark query as free
 		queryTracker.workCompleted(worker);
-		// Mark the worker as free
-		this.worker2tracker.put(worker, null);
+		// Return the worker's credit for this query
+		List<QueryTracker> trackers = this.worker2trackers.get(worker);
+		if (trackers != null) {
+			trackers.remove(queryTracker);
+		}
 
 		// Check if the query is complete
 		if (queryTracker.isComplete()) {
 			// Remove the query tracker
 			this.queryId2tracker.remove(queryTracker.id);
 			//System.out.println("REMOVE TASK FROM TRACKER");
-		} else {
-			// Re-assign the now free worker
-			//System.out.println("Work aint done " + queryTracker.id + " ");
-			this.assignQueries();
 		}
-		this.assignQueries();
-
 	}
 
 	@Override
 	public void addWorker(final ActorRef worker) {
 
 		// Add the new worker
-		this.worker2tracker.put(worker, null);
-
-		// Assign possibly open subqueries to the new worker
-		this.assignQueries();
+		this.worker2trackers.put(worker, new ArrayList<>());
 	}
 
 	@Override
 	public void removeWorker(final ActorRef worker) {
 
 		// Remove the worker from the list of workers
-		QueryTracker processedTracker = this.worker2tracker.remove(worker);
-
-		// If the worker was processing some query, then we need to re-schedule this query
-		if (processedTracker != null) {
-			processedTracker.workFailed(worker);
-
-			// We might have some free workers that could process the re-scheduled subquery
-			this.assignQueries();
+		List<QueryTracker> processedTrackers = this.worker2trackers.remove(worker);
+		this.worker2knownIds.remove(worker);
+		this.worker2affinityId.remove(worker);
+
+		// If the worker was processing some queries, then we need to re-schedule these queries
+		if (processedTrackers != null && !processedTrackers.isEmpty()) {
+			for (QueryTracker processedTracker : processedTrackers) {
+				processedTracker.workFailed(worker);
+				this.addAffinity(processedTracker);
+			}
 		}
 	}
 
-	private void assignQueries() {
+	@Override
+	public TaskKind kind() {
+		return TaskKind.SUBSTRING;
+	}
 
-		// Collect all currently idle workers
-		Collection<ActorRef> idleWorkers = this.worker2tracker.entrySet().stream()
-				.filter(e -> e.getValue() == null)
-				.map(Map.Entry::getKey)
-				.collect(Collectors.toList());
-		
-		// Assign idle workers to queries as long as there is work to do
-		Iterator<QueryTracker> queryTrackerIterator = this.queryId2tracker.values().iterator();
-		for (ActorRef idleWorker : idleWorkers) {
-			QueryTracker queryTracker;
-			
-			// Find a query tracker that can assign a query to this idle worker
+	@Override
+	public boolean assignTask(final ActorRef worker) {
+
+		// Spare the search if all queries are assigned
+		if (this.numUnassigned == 0)
+			return false;
+
+		// Prefer a query whose first participant the worker compared last
+		QueryTracker queryTracker = this.pollAffinity(worker);
+		if (queryTracker != null) {
+			queryTracker.assignWork(worker, this.master);
+		} else {
+			// Find a query tracker that can assign a query to this worker
+			Iterator<QueryTracker> queryTrackerIterator = this.queryId2tracker.values().iterator();
 			do {
 				// Check if there is any (further) on-going query
-				if (!queryTrackerIterator.hasNext()) 
-					return;
-				
+				if (!queryTrackerIterator.hasNext())
+					return false;
+
 				// Select the (next) query tracker
 				queryTracker = queryTrackerIterator.next();
 			}
-			while (!queryTracker.assignWork(idleWorker, this.master));
-
-			// Assign the query to the worker and keep track of the assignment
-			this.worker2tracker.put(idleWorker, queryTracker);
+			while (!queryTracker.assignWork(worker, this.master));
 		}
+
+		// Keep track of the assignment
+		this.worker2trackers.get(worker).add(queryTracker);
+		return true;
 	}
 
-	@Override
-	public int countWorkers() {
-		return this.worker2tracker.keySet().size();
+	/**
+	 * With affinity, make an unassigned query available to the workers that compared its first participant last.
+	 */
+	private void addAffinity(QueryTracker tracker) {
+		if (this.affinity && tracker.affinityId() >= 0)
+			this.affinityId2trackers.computeIfAbsent(tracker.affinityId(), id -> new LinkedHashSet<>()).add(tracker);
+	}
+
+	/**
+	 * With affinity, take an unassigned query for the worker: one with the participant that it compared last, else one with
+	 * a participant that no other worker compares, else any.
+	 *
+	 * @return the query or {@code null} if there is none with a first participant
+	 */
+	private QueryTracker pollAffinity(ActorRef worker) {
+		if (this.affinityId2trackers.isEmpty())
+			return null;
+		Integer id = this.worker2affinityId.get(worker);
+		if (id == null || !this.affinityId2trackers.containsKey(id)) {
+			id = this.affinityId2trackers.keySet().iterator().next();
+			for (Integer candidate : this.affinityId2trackers.keySet()) {
+				if (!this.worker2affinityId.containsValue(candidate)) {
+					id = candidate;
+					break;
+				}
+			}
+			this.worker2affinityId.put(worker, id);
+		}
+
+		Set<QueryTracker> trackers = this.affinityId2trackers.get(id);
+		Iterator<QueryTracker> iterator = trackers.iterator();
+		QueryTracker tracker = iterator.next();
+		iterator.remove();
+		if (trackers.isEmpty())
+			this.affinityId2trackers.remove(id);
+		return tracker;
 	}
 }
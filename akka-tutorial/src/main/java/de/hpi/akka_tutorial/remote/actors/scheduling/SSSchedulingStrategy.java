@@ -1,9 +1,16 @@
 package de.hpi.akka_tutorial.remote.actors.scheduling;
 
+import java.util.Map;
+
 import akka.actor.ActorRef;
 import de.hpi.akka_tutorial.Participant;
+import de.hpi.akka_tutorial.ss.PackedDna;
+import de.hpi.akka_tutorial.ss.TiledLcs;
 
-public interface SSSchedulingStrategy {
+/**
+ * A {@link SchedulingStrategy} for longest common substring tasks.
+ */
+public interface SSSchedulingStrategy extends SchedulingStrategy {
 
 	/**
 	 * A factory for a {@link SSSchedulingStrategy}.
@@ -14,9 +21,10 @@ public interface SSSchedulingStrategy {
 		 * Create a new {@link SSSchedulingStrategy}.
 		 *
 		 * @param master that will employ the new instance
+		 * @param maxMessageBytes the number of bytes that a serialized message to a worker may have at most
 		 * @return the new {@link SSSchedulingStrategy}
 		 */
-		SSSchedulingStrategy create(ActorRef master);
+		SSSchedulingStrategy create(ActorRef master, int maxMessageBytes);
 
 	}
 
@@ -29,36 +37,38 @@ public interface SSSchedulingStrategy {
 	void schedule(final int taskId, final Participant p1, final Participant p2);
 
 	/**
-	 * Notify the completion of a worker's task.
+	 * Schedule a batch of pairs of participants. Every worker is sent the DNA of a participant only once, before the first batch that needs it.
 	 *
-	 * @param taskId the id of the task this worker was working on
-	 * @param worker the reference to the worker who finished the task
+	 * @param taskId the id of the task
+	 * @param id2dna the DNA of (at least) all participants of the batch by id
+	 * @param firstIds the ids of the first participant of every pair
+	 * @param secondIds the ids of the second participant of every pair (at the same positions)
 	 */
-	void finished(final int taskId, final ActorRef worker);
+	void schedule(final int taskId, final Map<Integer, PackedDna> id2dna, final int[] firstIds, final int[] secondIds);
 
 	/**
-	 * Check if there are still any pending tasks.
+	 * Schedule a tile of the dynamic programming matrix of a pair of long sequences, see {@link TiledLcs}.
 	 *
-	 * @return {@code true} if tasks are still pending
+	 * @param taskId the id of the task
+	 * @param a the bases of the rows of the tile
+	 * @param b the bases of the columns of the tile
+	 * @param top the last row of the tile above
+	 * @param left the right boundary of the tile to the left
 	 */
-	boolean hasTasksInProgress();
+	void schedule(final int taskId, final PackedDna a, final PackedDna b, final int[] top, final int[] left);
 
 	/**
-	 * Add a new {@link Worker} actor.
+	 * Notify the completion of a worker's task.
 	 *
-	 * @param worker the worker actor to add
+	 * @param taskId the id of the task this worker was working on
+	 * @param worker the reference to the worker who finished the task
 	 */
-	void addWorker(final ActorRef worker);
+	void finished(final int taskId, final ActorRef worker);
 
 	/**
-	 * Remove a {@link Worker} actor.
+	 * Count the tasks that wait for a worker, so that a master that generates its tasks lazily can hold back further ones.
 	 *
-	 * @param worker the worker actor to remove
-	 */
-	void removeWorker(final ActorRef worker);
-
-	/**
-	 * Count the number of active {@link Worker} actors.
+	 * @return the number of scheduled tasks that were not assigned to any worker yet
 	 */
-	int countWorkers();
+	int countUnassignedTasks();
 }
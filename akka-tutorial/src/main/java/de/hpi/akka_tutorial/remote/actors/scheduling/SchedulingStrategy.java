@@ -0,0 +1,44 @@
+package de.hpi.akka_tutorial.remote.actors.scheduling;
+
+import akka.actor.ActorRef;
+
+/**
+ * Splits the requests of one {@link TaskKind} into tasks and decides which of them a worker runs next. How many tasks a
+ * worker holds at once, and of which kind, is up to the {@link TaskScheduler} that asks all strategies for tasks.
+ */
+public interface SchedulingStrategy {
+
+	/**
+	 * @return the kind of the tasks that this strategy schedules
+	 */
+	TaskKind kind();
+
+	/**
+	 * Send the worker one further task, if there is any.
+	 *
+	 * @param worker the worker with a free slot
+	 * @return {@code true} if a task was sent
+	 */
+	boolean assignTask(final ActorRef worker);
+
+	/**
+	 * Check if there are still any pending tasks.
+	 *
+	 * @return {@code true} if tasks are still pending
+	 */
+	boolean hasTasksInProgress();
+
+	/**
+	 * Add a new worker actor.
+	 *
+	 * @param worker the worker actor to add
+	 */
+	void addWorker(final ActorRef worker);
+
+	/**
+	 * Remove a worker actor and re-schedule its tasks.
+	 *
+	 * @param worker the worker actor to remove
+	 */
+	void removeWorker(final ActorRef worker);
+}
@@ -0,0 +1,13 @@
+package de.hpi.akka_tutorial.remote.actors.scheduling;
+
+/**
+ * The kinds of tasks that the workers run, each of which is scheduled by a {@link SchedulingStrategy} of its own.
+ */
+public enum TaskKind {
+
+	// Checking ranges of candidates against password hashes
+	PASSWORD,
+
+	// Finding the longest common substrings of pairs of participants' DNA
+	SUBSTRING
+}
@@ -0,0 +1,157 @@
+package de.hpi.akka_tutorial.remote.actors.scheduling;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import akka.actor.ActorRef;
+
+/**
+ * Distributes the tasks of several {@link SchedulingStrategy}s, one per {@link TaskKind}, over one pool of workers that
+ * run all kinds of tasks. Every worker holds as many tasks at once as the weights of all kinds add up to, so that it has
+ * its next task queued while it works on the current one. A free slot goes to the kind with a priority, if it has tasks,
+ * and otherwise to the kind that holds the fewest tasks of the worker relative to its weight. A kind without tasks leaves
+ * its share to the others, so that no worker idles while any kind has tasks left.
+ */
+public class TaskScheduler {
+
+	// The number of tasks of each kind that a worker holds at once by default
+	public static final int DEFAULT_WEIGHT = 2;
+
+	// The strategy of every kind of tasks and the share of the workers' slots that it gets
+	private final Map<TaskKind, SchedulingStrategy> kind2strategy = new EnumMap<>(TaskKind.class);
+	private final Map<TaskKind, Integer> kind2weight = new EnumMap<>(TaskKind.class);
+
+	// The kind whose tasks get the free slots first, or null
+	private final TaskKind priority;
+
+	// The number of tasks that a worker holds at once, i.e., the sum of the weights of all kinds
+	private int windowSize = 0;
+
+	// The number of in-flight tasks of every known worker by kind, in the order of the kinds
+	private final Map<ActorRef, int[]> worker2tasks = new LinkedHashMap<>();
+
+	/**
+	 * Construct a new {@link TaskScheduler} object.
+	 *
+	 * @param priority the kind whose tasks get the free slots of a worker first, or {@code null} to weigh all kinds
+	 */
+	public TaskScheduler(final TaskKind priority) {
+		this.priority = priority;
+	}
+
+	/**
+	 * Schedule the tasks of a strategy's kind to the workers.
+	 *
+	 * @param strategy the strategy that splits the requests of its kind into tasks
+	 * @param weight the number of tasks of the kind that a worker holds at once while all kinds have tasks
+	 */
+	public void addStrategy(final SchedulingStrategy strategy, final int weight) {
+		if (weight < 1)
+			throw new IllegalArgumentException("The weight of " + strategy.kind() + " tasks must be positive, but is " + weight);
+		if (this.kind2strategy.put(strategy.kind(), strategy) != null)
+			throw new IllegalArgumentException("There is a strategy for " + strategy.kind() + " tasks already");
+		this.kind2weight.put(strategy.kind(), weight);
+		this.windowSize += weight;
+		for (ActorRef worker : this.worker2tasks.keySet())
+			strategy.addWorker(worker);
+	}
+
+	/**
+	 * Add a new worker actor, which runs tasks of all kinds.
+	 *
+	 * @param worker the worker actor to add
+	 */
+	public void addWorker(final ActorRef worker) {
+		this.worker2tasks.put(worker, new int[TaskKind.values().length]);
+		for (SchedulingStrategy strategy : this.kind2strategy.values())
+			strategy.addWorker(worker);
+	}
+
+	/**
+	 * Remove a worker actor and let all strategies re-schedule its tasks.
+	 *
+	 * @param worker the worker actor to remove
+	 */
+	public void removeWorker(final ActorRef worker) {
+		this.worker2tasks.remove(worker);
+		for (SchedulingStrategy strategy : this.kind2strategy.values())
+			strategy.removeWorker(worker);
+	}
+
+	/**
+	 * Notify the completion of a worker's task, which frees a slot of the worker.
+	 *
+	 * @param kind the kind of the completed task
+	 * @param worker the reference to the worker who finished the task
+	 */
+	public void finished(final TaskKind kind, final ActorRef worker) {
+		int[] tasks = this.worker2tasks.get(worker);
+		if (tasks != null && tasks[kind.ordinal()] > 0)
+			tasks[kind.ordinal()]--;
+	}
+
+	/**
+	 * Fill the free slots of all workers with the tasks of the strategies, one task per worker and round, so that the
+	 * tasks spread evenly over the workers.
+	 */
+	public void assignTasks() {
+		boolean assigned = true;
+		while (assigned) {
+			assigned = false;
+			for (Map.Entry<ActorRef, int[]> entry : this.worker2tasks.entrySet())
+				assigned |= this.assignTask(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * @return {@code true} if a task was sent to the worker
+	 */
+	private boolean assignTask(ActorRef worker, int[] tasks) {
+		int inFlight = 0;
+		for (int count : tasks)
+			inFlight += count;
+		if (inFlight >= this.windowSize)
+			return false;
+
+		// Ask the strategies for a task in the order of their claim on the free slot
+		for (TaskKind kind : this.claims(tasks)) {
+			if (this.kind2strategy.get(kind).assignTask(worker)) {
+				tasks[kind.ordinal()]++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return all kinds with a strategy, the kind with the priority first and then by their share of the worker's tasks relative to their weight
+	 */
+	private List<TaskKind> claims(int[] tasks) {
+		List<TaskKind> kinds = new ArrayList<>(this.kind2strategy.keySet());
+		kinds.sort(Comparator.comparing((TaskKind kind) -> kind != this.priority)
+				.thenComparingDouble(kind -> (double) tasks[kind.ordinal()] / this.kind2weight.get(kind)));
+		return kinds;
+	}
+
+	/**
+	 * Count the tasks of a kind that all workers hold at once while all kinds have tasks, so that a job that generates
+	 * its tasks lazily knows how many to keep in reserve.
+	 *
+	 * @param kind the kind of the tasks
+	 * @return the number of slots of that kind, at least those of a single worker
+	 */
+	public int countSlots(final TaskKind kind) {
+		return this.kind2weight.getOrDefault(kind, 0) * Math.max(1, this.countWorkers());
+	}
+
+	/**
+	 * Count the number of active worker actors.
+	 */
+	public int countWorkers() {
+		return this.worker2tasks.size();
+	}
+}
@@ -0,0 +1,53 @@
+package de.hpi.akka_tutorial.remote.messages;
+
+import java.io.Serializable;
+
+import akka.actor.Address;
+
+/**
+ * Asks a master to deploy workers to a new remote actor system, as many as its capacity allows.
+ */
+public class RemoteSystemMessage implements Serializable {
+
+	private static final long serialVersionUID = 2786272840353304769L;
+
+	private Address remoteAddress;
+
+	// The number of cores and the maximum heap in bytes of the remote system
+	private int cores;
+
+	private long maxHeap;
+
+	public RemoteSystemMessage(final Address remoteAddress, final int cores, final long maxHeap) {
+		this.remoteAddress = remoteAddress;
+		this.cores = cores;
+		this.maxHeap = maxHeap;
+	}
+
+	/**
+	 * For serialization/deserialization only.
+	 */
+	@SuppressWarnings("unused")
+	private RemoteSystemMessage() {
+	}
+
+	public Address getRemoteAddress() {
+		return this.remoteAddress;
+	}
+
+	public int getCores() {
+		return this.cores;
+	}
+
+	public long getMaxHeap() {
+		return this.maxHeap;
+	}
+
+	/**
+	 * @param heapPerWorker the number of bytes of heap that a worker needs
+	 * @return the number of workers for the remote system: one per core, but no more than fit into its heap, and at least one
+	 */
+	public int workers(long heapPerWorker) {
+		return (int) Math.max(1, Math.min(this.cores, this.maxHeap / heapPerWorker));
+	}
+}
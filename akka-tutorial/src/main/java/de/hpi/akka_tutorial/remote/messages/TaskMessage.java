@@ -0,0 +1,16 @@
+package de.hpi.akka_tutorial.remote.messages;
+
+import java.io.Serializable;
+
+import de.hpi.akka_tutorial.remote.actors.scheduling.TaskKind;
+
+/**
+ * A message that belongs to a task of some {@link TaskKind}, so that a worker that runs all kinds of tasks can tell them apart, e.g., to run one kind first.
+ */
+public interface TaskMessage extends Serializable {
+
+	/**
+	 * @return the kind of the task that this message belongs to
+	 */
+	TaskKind kind();
+}
@@ -0,0 +1,155 @@
+package de.hpi.akka_tutorial.remote.serialization;
+
+import java.nio.charset.StandardCharsets;
+
+import de.hpi.akka_tutorial.Participant;
+import de.hpi.akka_tutorial.pw.Digests;
+import de.hpi.akka_tutorial.ss.PackedDna;
+
+/**
+ * Reads the fields of a {@link CompactSerializer.Compact} message in the order that the {@link CompactWriter} wrote them.
+ */
+public class CompactReader {
+
+	private final byte[] bytes;
+
+	private int position = 0;
+
+	public CompactReader(byte[] bytes) {
+		this.bytes = bytes;
+	}
+
+	/**
+	 * @return whether all bytes were read
+	 */
+	public boolean isAtEnd() {
+		return this.position == this.bytes.length;
+	}
+
+	private int readByte() {
+		if (this.position >= this.bytes.length)
+			throw new IllegalArgumentException("Truncated message of " + this.bytes.length + " bytes");
+		return this.bytes[this.position++] & 0xFF;
+	}
+
+	private byte[] readBytes(int length) {
+		if (length < 0 || this.position + length > this.bytes.length)
+			throw new IllegalArgumentException("Truncated message of " + this.bytes.length + " bytes");
+		byte[] result = new byte[length];
+		System.arraycopy(this.bytes, this.position, result, 0, length);
+		this.position += length;
+		return result;
+	}
+
+	private long readUnsignedVarLong() {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = this.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+
+	public int readInt() {
+		int value = (int) this.readUnsignedVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	public long readLong() {
+		long value = this.readUnsignedVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	public int[] readInts() {
+		int length = this.readInt();
+		if (length < 0)
+			return null;
+		int[] values = new int[length];
+		int previous = 0;
+		for (int i = 0; i < length; i++)
+			previous = values[i] = previous + this.readInt();
+		return values;
+	}
+
+	public long[] readLongs() {
+		int length = this.readInt();
+		if (length < 0)
+			return null;
+		long[] values = new long[length];
+		long previous = 0;
+		for (int i = 0; i < length; i++)
+			previous = values[i] = previous + this.readLong();
+		return values;
+	}
+
+	public byte[][] readByteArrays() {
+		int length = this.readInt();
+		if (length < 0)
+			return null;
+		byte[][] values = new byte[length][];
+		for (int i = 0; i < length; i++)
+			values[i] = this.readBytes(this.readInt());
+		return values;
+	}
+
+	public String readString() {
+		int length = this.readInt();
+		if (length < 0)
+			return null;
+		return new String(this.readBytes(length), StandardCharsets.UTF_8);
+	}
+
+	public String[] readStrings() {
+		int length = this.readInt();
+		if (length < 0)
+			return null;
+		String[] values = new String[length];
+		for (int i = 0; i < length; i++)
+			values[i] = this.readString();
+		return values;
+	}
+
+	public String readDigest() {
+		switch (this.readByte()) {
+			case CompactWriter.NULL:
+				return null;
+			case CompactWriter.COMPACT:
+				return Digests.toHex(this.readBytes(Digests.LENGTH));
+			default:
+				return this.readString();
+		}
+	}
+
+	public PackedDna readDna() {
+		switch (this.readByte()) {
+			case CompactWriter.NULL:
+				return null;
+			case CompactWriter.COMPACT:
+				int length = this.readInt();
+				if (length < 0)
+					throw new IllegalArgumentException("Negative DNA length " + length);
+				byte[] packed = this.readBytes((length + 3) / 4);
+				long[] words = new long[(length + 31) / 32];
+				for (int i = 0; i < packed.length; i++)
+					words[i >>> 3] |= (long) (packed[i] & 0xFF) << ((i & 7) << 3);
+				return PackedDna.of(words, length);
+			default:
+				return PackedDna.of(this.readString());
+		}
+	}
+
+	public Participant readParticipant() {
+		int id = this.readInt();
+		String name = this.readString();
+		String pwhash = this.readDigest();
+		PackedDna dna = this.readDna();
+		Participant participant = new Participant(id, name, pwhash, dna == null ? null : dna.toString());
+		participant.setPw_clear(this.readString());
+		participant.setDna_match_partner_id(this.readInt());
+		PackedDna match = this.readDna();
+		participant.setDna_match(match == null ? null : match.toString());
+		return participant;
+	}
+}
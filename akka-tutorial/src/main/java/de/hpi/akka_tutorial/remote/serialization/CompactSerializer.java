@@ -0,0 +1,85 @@
+package de.hpi.akka_tutorial.remote.serialization;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import akka.serialization.SerializerWithStringManifest;
+import de.hpi.akka_tutorial.remote.actors.PWCrackWorker;
+import de.hpi.akka_tutorial.remote.actors.PWMaster;
+import de.hpi.akka_tutorial.remote.actors.SSMaster;
+import de.hpi.akka_tutorial.remote.actors.SSWorker;
+
+/**
+ * Serializes the messages that travel between masters and workers for every task, which Kryo would write with their
+ * class names and boxed fields, with a {@link CompactWriter} instead. Every message class has a stable manifest id of one
+ * character, so that the ids, unlike class names, survive refactorings; they must never be reused for another class.
+ * The serializer is bound to {@link Compact} in remote.conf, all other messages are still serialized with Kryo.
+ */
+public class CompactSerializer extends SerializerWithStringManifest {
+
+	/**
+	 * A message that writes its fields with a {@link CompactWriter}. Every class must also have a static method that reads
+	 * its fields with a {@link CompactReader} and must be registered with it in the {@link CompactSerializer}.
+	 */
+	public interface Compact extends Serializable {
+
+		void writeTo(CompactWriter out);
+	}
+
+	// The id of this serializer among all serializers of an actor system, where 0 to 40 are reserved for Akka
+	private static final int IDENTIFIER = 7877;
+
+	private static final Map<Class<?>, String> class2manifest = new HashMap<>();
+
+	private static final Map<String, Function<CompactReader, Object>> manifest2reader = new HashMap<>();
+
+	static {
+		register("V", PWCrackWorker.PWValidationMessage.class, PWCrackWorker.PWValidationMessage::readFrom);
+		register("T", PWCrackWorker.TargetsMessage.class, PWCrackWorker.TargetsMessage::readFrom);
+		register("P", PWMaster.PWMessage.class, PWMaster.PWMessage::readFrom);
+		register("S", SSWorker.SSValidationMessage.class, SSWorker.SSValidationMessage::readFrom);
+		register("D", SSWorker.DnaMessage.class, SSWorker.DnaMessage::readFrom);
+		register("F", SSMaster.FinalizedMessage.class, SSMaster.FinalizedMessage::readFrom);
+		register("L", SSWorker.TileMessage.class, SSWorker.TileMessage::readFrom);
+		register("M", SSMaster.TileFinalizedMessage.class, SSMaster.TileFinalizedMessage::readFrom);
+	}
+
+	private static void register(String manifest, Class<? extends Compact> messageClass, Function<CompactReader, Object> reader) {
+		class2manifest.put(messageClass, manifest);
+		manifest2reader.put(manifest, reader);
+	}
+
+	@Override
+	public int identifier() {
+		return IDENTIFIER;
+	}
+
+	@Override
+	public String manifest(Object message) {
+		String manifest = class2manifest.get(message.getClass());
+		if (manifest == null)
+			throw new IllegalArgumentException("No manifest id for " + message.getClass().getName());
+		return manifest;
+	}
+
+	@Override
+	public byte[] toBinary(Object message) {
+		CompactWriter out = new CompactWriter();
+		((Compact) message).writeTo(out);
+		return out.toByteArray();
+	}
+
+	@Override
+	public Object fromBinary(byte[] bytes, String manifest) {
+		Function<CompactReader, Object> reader = manifest2reader.get(manifest);
+		if (reader == null)
+			throw new IllegalArgumentException("Unknown manifest id " + manifest);
+		CompactReader in = new CompactReader(bytes);
+		Object message = reader.apply(in);
+		if (!in.isAtEnd())
+			throw new IllegalArgumentException("Trailing bytes after a message with manifest id " + manifest);
+		return message;
+	}
+}
@@ -0,0 +1,233 @@
+package de.hpi.akka_tutorial.remote.serialization;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import de.hpi.akka_tutorial.Participant;
+import de.hpi.akka_tutorial.pw.Digests;
+import de.hpi.akka_tutorial.ss.PackedDna;
+
+/**
+ * Writes the fields of a {@link CompactSerializer.Compact} message without any class names or field tags: numbers as
+ * zig-zag varints, arrays of numbers as varint deltas, hex digests as raw bytes and DNA with two bits per base. The
+ * {@link CompactReader} must read the fields in the same order.
+ */
+public class CompactWriter {
+
+	// The length of a hex encoded SHA-256 digest
+	private static final int HEX_DIGEST_LENGTH = 2 * Digests.LENGTH;
+
+	// Tags of values that may be null or that are only compressed if possible
+	static final int NULL = 0;
+	static final int PLAIN = 1;
+	static final int COMPACT = 2;
+
+	private byte[] buffer = new byte[64];
+
+	private int size = 0;
+
+	/**
+	 * @return the bytes written so far
+	 */
+	public byte[] toByteArray() {
+		return Arrays.copyOf(this.buffer, this.size);
+	}
+
+	private void ensure(int bytes) {
+		if (this.size + bytes > this.buffer.length)
+			this.buffer = Arrays.copyOf(this.buffer, Math.max(2 * this.buffer.length, this.size + bytes));
+	}
+
+	private void writeByte(int value) {
+		this.ensure(1);
+		this.buffer[this.size++] = (byte) value;
+	}
+
+	private void writeBytes(byte[] bytes) {
+		this.ensure(bytes.length);
+		System.arraycopy(bytes, 0, this.buffer, this.size, bytes.length);
+		this.size += bytes.length;
+	}
+
+	// Write seven bits per byte, least significant first, with the high bit set on all but the last byte
+	private void writeUnsignedVarLong(long value) {
+		this.ensure(10);
+		while ((value & ~0x7FL) != 0) {
+			this.buffer[this.size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		this.buffer[this.size++] = (byte) value;
+	}
+
+	/**
+	 * Write an int in one byte if it is between -64 and 63, in up to five bytes otherwise.
+	 */
+	public void writeInt(int value) {
+		this.writeUnsignedVarLong(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Write a long in one byte if it is between -64 and 63, in up to ten bytes otherwise.
+	 */
+	public void writeLong(long value) {
+		this.writeUnsignedVarLong((value << 1) ^ (value >> 63));
+	}
+
+	/**
+	 * Write an array of ints, possibly {@code null}, as the differences between neighbours, which are small for ascending ids.
+	 */
+	public void writeInts(int[] values) {
+		if (values == null) {
+			this.writeInt(-1);
+			return;
+		}
+		this.writeInt(values.length);
+		int previous = 0;
+		for (int value : values) {
+			this.writeInt(value - previous);
+			previous = value;
+		}
+	}
+
+	/**
+	 * Write an array of longs, possibly {@code null}, as the differences between neighbours, which are small for ascending indexes.
+	 */
+	public void writeLongs(long[] values) {
+		if (values == null) {
+			this.writeInt(-1);
+			return;
+		}
+		this.writeInt(values.length);
+		long previous = 0;
+		for (long value : values) {
+			this.writeLong(value - previous);
+			previous = value;
+		}
+	}
+
+	/**
+	 * Write an array of byte arrays, possibly {@code null}, e.g., raw digests, each with its length.
+	 */
+	public void writeByteArrays(byte[][] values) {
+		if (values == null) {
+			this.writeInt(-1);
+			return;
+		}
+		this.writeInt(values.length);
+		for (byte[] value : values) {
+			this.writeInt(value.length);
+			this.writeBytes(value);
+		}
+	}
+
+	/**
+	 * @return the number of bytes that {@link #writeInt(int)} writes for the value
+	 */
+	public static int intBytes(int value) {
+		long zigZag = ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+		int bytes = 1;
+		while ((zigZag & ~0x7FL) != 0) {
+			zigZag >>>= 7;
+			bytes++;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Write a string, possibly {@code null}, as UTF-8.
+	 */
+	public void writeString(String value) {
+		if (value == null) {
+			this.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		this.writeInt(bytes.length);
+		this.writeBytes(bytes);
+	}
+
+	/**
+	 * Write an array of strings, possibly {@code null}, whose elements may be {@code null}.
+	 */
+	public void writeStrings(String[] values) {
+		if (values == null) {
+			this.writeInt(-1);
+			return;
+		}
+		this.writeInt(values.length);
+		for (String value : values)
+			this.writeString(value);
+	}
+
+	/**
+	 * Write a hex encoded SHA-256 digest as its 32 raw bytes; other strings, e.g., upper case digests, are written as they are.
+	 */
+	public void writeDigest(String hex) {
+		if (hex == null) {
+			this.writeByte(NULL);
+			return;
+		}
+		byte[] digest = hex.length() == HEX_DIGEST_LENGTH && isHex(hex) ? Digests.fromHex(hex) : null;
+		if (digest != null && Digests.toHex(digest).equals(hex)) {
+			this.writeByte(COMPACT);
+			this.writeBytes(digest);
+		} else {
+			this.writeByte(PLAIN);
+			this.writeString(hex);
+		}
+	}
+
+	private static boolean isHex(String value) {
+		for (int i = 0; i < value.length(); i++)
+			if (Character.digit(value.charAt(i), 16) < 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Write a DNA sequence, possibly {@code null}, with two bits per base if it consists of ACGT only.
+	 */
+	public void writeDna(PackedDna dna) {
+		if (dna == null) {
+			this.writeByte(NULL);
+		} else if (dna.isPacked()) {
+			this.writeByte(COMPACT);
+			this.writeInt(dna.length());
+
+			// Four bases per byte, without the unused bytes of the last word
+			long[] words = dna.words();
+			int bytes = (dna.length() + 3) / 4;
+			this.ensure(bytes);
+			for (int i = 0; i < bytes; i++)
+				this.buffer[this.size++] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+		} else {
+			this.writeByte(PLAIN);
+			this.writeString(dna.toString());
+		}
+	}
+
+	/**
+	 * @return the number of bytes that {@link #writeDna(PackedDna)} writes for the sequence
+	 */
+	public static int dnaBytes(PackedDna dna) {
+		if (dna == null)
+			return 1;
+		if (dna.isPacked())
+			return 1 + intBytes(dna.length()) + (dna.length() + 3) / 4;
+		int bytes = dna.toString().getBytes(StandardCharsets.UTF_8).length;
+		return 1 + intBytes(bytes) + bytes;
+	}
+
+	/**
+	 * Write a participant with its digest as raw bytes and its DNA and match with two bits per base, see {@link #writeDna(PackedDna)}.
+	 */
+	public void writeParticipant(Participant participant) {
+		this.writeInt(participant.getId());
+		this.writeString(participant.getName());
+		this.writeDigest(participant.getPwhash());
+		this.writeDna(participant.getDna() == null ? null : PackedDna.of(participant.getDna()));
+		this.writeString(participant.getPw_clear());
+		this.writeInt(participant.getDna_match_partner_id());
+		this.writeDna(participant.getDna_match() == null ? null : PackedDna.of(participant.getDna_match()));
+	}
+}
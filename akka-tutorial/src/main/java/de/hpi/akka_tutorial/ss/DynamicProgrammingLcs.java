@@ -0,0 +1,71 @@
+package de.hpi.akka_tutorial.ss;
+
+/**
+ * Finds the longest common substring of two strings with the classic dynamic programming approach, but keeps only two
+ * rows of the matrix, sized to the shorter string, and reuses them and the character buffers across calls. Memory is
+ * therefore O(min(n, m)) instead of O(n * m), but time is still O(n * m).
+ */
+public class DynamicProgrammingLcs implements LcsEngine {
+
+	// The characters of the longer and the shorter string of the current call
+	private char[] outer = new char[0];
+	private char[] inner = new char[0];
+
+	// The previous and the current row of the matrix, one column per character of the shorter string plus a column of 0s
+	private int[] previous = new int[1];
+	private int[] current = new int[1];
+
+	@Override
+	public String longestCommonSubstring(String a, String b) {
+
+		// Iterate over the longer string in the outer loop, so that the rows are as short as possible
+		final boolean swapped = a.length() < b.length();
+		final String outerString = swapped ? b : a;
+		final String innerString = swapped ? a : b;
+		final int n = outerString.length();
+		final int m = innerString.length();
+		this.ensureCapacity(n, m);
+		final char[] outer = this.outer;
+		final char[] inner = this.inner;
+		outerString.getChars(0, n, outer, 0);
+		innerString.getChars(0, m, inner, 0);
+
+		int[] previous = this.previous;
+		int[] current = this.current;
+		for (int k = 0; k <= m; k++)
+			previous[k] = 0;
+
+		// The length of the longest common substring so far and where it ends in the outer and inner string
+		int max = 0;
+		int maxOuterEnd = 0;
+		int maxInnerEnd = 0;
+		for (int i = 1; i <= n; i++) {
+			final char c = outer[i - 1];
+			for (int k = 1; k <= m; k++) {
+				final int length = c == inner[k - 1] ? previous[k - 1] + 1 : 0;
+				current[k] = length;
+				if (length > max || (swapped && length == max && length > 0 && k < maxInnerEnd)) {
+					// Keep the tie-breaking of the full matrix, which is scanned along a, if the loops are swapped
+					max = length;
+					maxOuterEnd = i;
+					maxInnerEnd = k;
+				}
+			}
+			int[] row = previous;
+			previous = current;
+			current = row;
+		}
+
+		return new String(outer, maxOuterEnd - max, max);
+	}
+
+	private void ensureCapacity(int n, int m) {
+		if (this.outer.length < n)
+			this.outer = new char[n];
+		if (this.inner.length < m) {
+			this.inner = new char[m];
+			this.previous = new int[m + 1];
+			this.current = new int[m + 1];
+		}
+	}
+}
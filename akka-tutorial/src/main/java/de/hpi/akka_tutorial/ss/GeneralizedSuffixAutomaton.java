@@ -0,0 +1,236 @@
+package de.hpi.akka_tutorial.ss;
+
+import java.util.Arrays;
+
+/**
+ * Finds the best partner of every string in a set, i.e., the other string with which it has the longest common
+ * substring, in time linear in the total length of all strings (times the alphabet size) instead of running the
+ * quadratic dynamic programming approach for every pair.
+ * <p>
+ * A generalized suffix automaton of all strings recognizes every substring of any of them; each of its states stands for
+ * a set of substrings that occur at the same end positions and therefore in the same strings. For every state we keep up
+ * to two of these strings, which tells us whether a substring occurs in any string other than a given one. Walking a
+ * string through the automaton like when computing matching statistics then yields, for every position, the longest
+ * substring ending there that also occurs in another string.
+ */
+public class GeneralizedSuffixAutomaton {
+
+	/**
+	 * The best partner of a string and their longest common substring.
+	 */
+	public static class Match {
+
+		private final int partner;
+
+		private final String substring;
+
+		private Match(int partner, String substring) {
+			this.partner = partner;
+			this.substring = substring;
+		}
+
+		/**
+		 * @return the index of the partner string
+		 */
+		public int partner() {
+			return this.partner;
+		}
+
+		/**
+		 * @return the longest common substring with the partner
+		 */
+		public String substring() {
+			return this.substring;
+		}
+	}
+
+	/**
+	 * Find the best partner of every string.
+	 *
+	 * @param strings the strings to match with each other
+	 * @return for every string (at the same position) its best partner or {@code null} if it has no character in common with any other string
+	 */
+	public static Match[] bestPartners(String[] strings) {
+		GeneralizedSuffixAutomaton automaton = new GeneralizedSuffixAutomaton(strings);
+		Match[] matches = new Match[strings.length];
+		for (int i = 0; i < strings.length; i++)
+			matches[i] = automaton.bestPartner(strings, i);
+		return matches;
+	}
+
+	// The dense code of every character that occurs in the strings, or -1, and the number of such characters
+	private final int[] codes = new int[Character.MAX_VALUE + 1];
+
+	private final int alphabetSize;
+
+	// For every state the length of its longest substring, its suffix link and its transitions (alphabetSize entries per state, -1 for none)
+	private final int[] length;
+
+	private final int[] link;
+
+	private final int[] next;
+
+	// For every state up to two distinct strings that its substrings occur in, or -1
+	private final int[] owner1;
+
+	private final int[] owner2;
+
+	// The number of states; state 0 is the initial state, which stands for the empty substring
+	private int states = 0;
+
+	private GeneralizedSuffixAutomaton(String[] strings) {
+		Arrays.fill(this.codes, -1);
+		int alphabetSize = 0, totalLength = 0;
+		for (String s : strings) {
+			totalLength += s.length();
+			for (int pos = 0; pos < s.length(); pos++)
+				if (this.codes[s.charAt(pos)] < 0)
+					this.codes[s.charAt(pos)] = alphabetSize++;
+		}
+		this.alphabetSize = Math.max(1, alphabetSize);
+
+		// A generalized suffix automaton has fewer than two states per character
+		int capacity = 2 * totalLength + 2;
+		this.length = new int[capacity];
+		this.link = new int[capacity];
+		this.next = new int[capacity * this.alphabetSize];
+		this.owner1 = new int[capacity];
+		this.owner2 = new int[capacity];
+		Arrays.fill(this.next, -1);
+		this.newState(0, -1);
+
+		// Add all strings, marking the state of each of their prefixes with the string
+		for (int i = 0; i < strings.length; i++) {
+			int last = 0;
+			for (int pos = 0; pos < strings[i].length(); pos++) {
+				last = this.extend(last, this.codes[strings[i].charAt(pos)]);
+				this.addOwner(last, i);
+			}
+		}
+
+		// A substring occurs in all strings that any longer substring with the same suffix occurs in, so propagate the owners along the suffix links, longest states first
+		int[] order = this.statesByDecreasingLength();
+		for (int state : order) {
+			if (this.link[state] >= 0) {
+				this.addOwner(this.link[state], this.owner1[state]);
+				this.addOwner(this.link[state], this.owner2[state]);
+			}
+		}
+	}
+
+	private int newState(int length, int link) {
+		int state = this.states++;
+		this.length[state] = length;
+		this.link[state] = link;
+		this.owner1[state] = -1;
+		this.owner2[state] = -1;
+		return state;
+	}
+
+	private int cloneState(int original, int length) {
+		int clone = this.newState(length, this.link[original]);
+		System.arraycopy(this.next, original * this.alphabetSize, this.next, clone * this.alphabetSize, this.alphabetSize);
+		this.link[original] = clone;
+		return clone;
+	}
+
+	/**
+	 * Append a character to the substring of the given state, creating or splitting states as necessary.
+	 *
+	 * @return the state of the extended substring
+	 */
+	private int extend(int last, int c) {
+		int q = this.next[last * this.alphabetSize + c];
+
+		// The extended substring occurred in a previous string already; split its state if it also stands for longer substrings
+		if (q >= 0) {
+			if (this.length[q] == this.length[last] + 1)
+				return q;
+			int clone = this.cloneState(q, this.length[last] + 1);
+			for (int p = last; p >= 0 && this.next[p * this.alphabetSize + c] == q; p = this.link[p])
+				this.next[p * this.alphabetSize + c] = clone;
+			return clone;
+		}
+
+		int current = this.newState(this.length[last] + 1, 0);
+		int p = last;
+		while (p >= 0 && this.next[p * this.alphabetSize + c] < 0) {
+			this.next[p * this.alphabetSize + c] = current;
+			p = this.link[p];
+		}
+		if (p >= 0) {
+			q = this.next[p * this.alphabetSize + c];
+			if (this.length[q] == this.length[p] + 1) {
+				this.link[current] = q;
+			} else {
+				int clone = this.cloneState(q, this.length[p] + 1);
+				for (; p >= 0 && this.next[p * this.alphabetSize + c] == q; p = this.link[p])
+					this.next[p * this.alphabetSize + c] = clone;
+				this.link[current] = clone;
+			}
+		}
+		return current;
+	}
+
+	private void addOwner(int state, int owner) {
+		if (owner < 0 || this.owner1[state] == owner || this.owner2[state] >= 0)
+			return;
+		if (this.owner1[state] < 0)
+			this.owner1[state] = owner;
+		else
+			this.owner2[state] = owner;
+	}
+
+	private int[] statesByDecreasingLength() {
+		int maxLength = 0;
+		for (int state = 0; state < this.states; state++)
+			maxLength = Math.max(maxLength, this.length[state]);
+		int[] starts = new int[maxLength + 2];
+		for (int state = 0; state < this.states; state++)
+			starts[maxLength - this.length[state] + 1]++;
+		for (int l = 1; l < starts.length; l++)
+			starts[l] += starts[l - 1];
+		int[] order = new int[this.states];
+		for (int state = 0; state < this.states; state++)
+			order[starts[maxLength - this.length[state]]++] = state;
+		return order;
+	}
+
+	/**
+	 * @return another string than the given one that the substrings of the state occur in, or -1 if there is none
+	 */
+	private int otherOwner(int state, int owner) {
+		return this.owner1[state] != owner ? this.owner1[state] : this.owner2[state];
+	}
+
+	private Match bestPartner(String[] strings, int i) {
+		final String s = strings[i];
+
+		// The state and length of the longest suffix of the current prefix of s that also occurs in another string
+		int state = 0, matched = 0;
+		int best = 0, bestEnd = 0, bestPartner = -1;
+		for (int pos = 0; pos < s.length(); pos++) {
+			final int c = this.codes[s.charAt(pos)];
+			while (true) {
+				int target = this.next[state * this.alphabetSize + c];
+				if (target >= 0 && this.otherOwner(target, i) >= 0) {
+					state = target;
+					matched++;
+					break;
+				}
+				if (state == 0) {
+					matched = 0;
+					break;
+				}
+				state = this.link[state];
+				matched = this.length[state];
+			}
+			if (matched > best) {
+				best = matched;
+				bestEnd = pos + 1;
+				bestPartner = this.otherOwner(state, i);
+			}
+		}
+		return best == 0 ? null : new Match(bestPartner, s.substring(bestEnd - best, bestEnd));
+	}
+}
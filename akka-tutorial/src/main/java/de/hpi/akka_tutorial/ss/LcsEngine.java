@@ -0,0 +1,59 @@
+package de.hpi.akka_tutorial.ss;
+
+/**
+ * Finds the longest common substring of two strings. Engines reuse their buffers across calls, so an instance must only
+ * be used by one thread at a time.
+ */
+public interface LcsEngine {
+
+	/**
+	 * The available engine implementations.
+	 */
+	enum Kind {
+
+		/** Fills the dynamic programming matrix row by row, see {@link DynamicProgrammingLcs}. */
+		DP,
+
+		/** Binary searches the length with rolling hashes, see {@link RollingHashLcs}. */
+		HASH,
+
+		/** Compares 32 bases at a time along the diagonals of packed DNA, see {@link PackedLcs}. */
+		PACKED;
+
+		/**
+		 * @return a new engine of this kind
+		 */
+		public LcsEngine create() {
+			switch (this) {
+				case HASH:
+					return new RollingHashLcs();
+				case PACKED:
+					return new PackedLcs();
+				default:
+					return new DynamicProgrammingLcs();
+			}
+		}
+	}
+
+	/**
+	 * Find the longest common substring. Of several equally long ones, the one that ends first in {@code a} is returned
+	 * (and of these, the one that ends first in {@code b}).
+	 *
+	 * @param a the first string
+	 * @param b the second string
+	 * @return the longest common substring, possibly empty
+	 */
+	String longestCommonSubstring(String a, String b);
+
+	/**
+	 * Find the longest common substring of two DNA sequences, see {@link #longestCommonSubstring(String, String)}.
+	 * Engines that do not work on packed DNA unpack it first.
+	 *
+	 * @param a the first sequence
+	 * @param b the second sequence
+	 * @return the longest common substring, possibly empty
+	 */
+	default String longestCommonSubstring(PackedDna a, PackedDna b) {
+		return this.longestCommonSubstring(a.toString(), b.toString());
+	}
+}
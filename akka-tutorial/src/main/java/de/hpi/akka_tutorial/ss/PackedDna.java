@@ -0,0 +1,139 @@
+package de.hpi.akka_tutorial.ss;
+
+import java.io.Serializable;
+
+/**
+ * A DNA sequence with two bits per base, 32 bases per long, instead of one char per base. Base {@code i} is stored in the
+ * bits {@code 2 * (i % 32)} and {@code 2 * (i % 32) + 1} of word {@code i / 32}. Sequences with other characters than
+ * {@code A}, {@code C}, {@code G} and {@code T} cannot be packed; they keep their string instead.
+ */
+public class PackedDna implements Serializable {
+
+	private static final long serialVersionUID = 6633012871093826374L;
+
+	private static final char[] BASES = { 'A', 'C', 'G', 'T' };
+
+	/**
+	 * Pack a DNA sequence.
+	 *
+	 * @param dna the sequence
+	 * @return the packed sequence, which keeps the string if it contains other characters than ACGT
+	 */
+	public static PackedDna of(String dna) {
+		long[] words = new long[(dna.length() + 31) / 32];
+		for (int i = 0; i < dna.length(); i++) {
+			int code = code(dna.charAt(i));
+			if (code < 0)
+				return new PackedDna(null, dna.length(), dna);
+			words[i >>> 5] |= (long) code << ((i & 31) << 1);
+		}
+		return new PackedDna(words, dna.length(), null);
+	}
+
+	/**
+	 * Wrap packed bases, e.g., after deserializing them.
+	 *
+	 * @param words the packed bases, see {@link #words()}
+	 * @param length the number of bases
+	 * @return the packed sequence
+	 */
+	public static PackedDna of(long[] words, int length) {
+		if (words.length != (length + 31) / 32)
+			throw new IllegalArgumentException(length + " bases do not fit into " + words.length + " words");
+		return new PackedDna(words, length, null);
+	}
+
+	private static int code(char base) {
+		switch (base) {
+			case 'A':
+				return 0;
+			case 'C':
+				return 1;
+			case 'G':
+				return 2;
+			case 'T':
+				return 3;
+			default:
+				return -1;
+		}
+	}
+
+	// The packed bases, or null if the sequence could not be packed
+	private long[] words;
+
+	private int length;
+
+	// The sequence if it could not be packed, null otherwise
+	private String unpacked;
+
+	private PackedDna(long[] words, int length, String unpacked) {
+		this.words = words;
+		this.length = length;
+		this.unpacked = unpacked;
+	}
+
+	/**
+	 * For serialization/deserialization only.
+	 */
+	@SuppressWarnings("unused")
+	private PackedDna() {
+	}
+
+	/**
+	 * @return whether the sequence is packed, i.e., consists of ACGT only
+	 */
+	public boolean isPacked() {
+		return this.words != null;
+	}
+
+	/**
+	 * @return the packed bases, which must not be modified; only valid if {@link #isPacked()}
+	 */
+	public long[] words() {
+		return this.words;
+	}
+
+	/**
+	 * @return the code of the base at the given position, from 0 for A to 3 for T, or -1 for other characters
+	 */
+	int codeAt(int index) {
+		if (this.unpacked != null)
+			return code(this.unpacked.charAt(index));
+		return (int) (this.words[index >>> 5] >>> ((index & 31) << 1)) & 3;
+	}
+
+	/**
+	 * @return the number of bases
+	 */
+	public int length() {
+		return this.length;
+	}
+
+	/**
+	 * @param start the first base (inclusive)
+	 * @param end the last base (exclusive)
+	 * @return the bases as string
+	 */
+	public String substring(int start, int end) {
+		if (this.unpacked != null)
+			return this.unpacked.substring(start, end);
+		char[] chars = new char[end - start];
+		for (int i = start; i < end; i++)
+			chars[i - start] = BASES[(int) (this.words[i >>> 5] >>> ((i & 31) << 1)) & 3];
+		return new String(chars);
+	}
+
+	/**
+	 * @param start the first base (inclusive)
+	 * @param end the last base (exclusive)
+	 * @return the bases as (packed, if possible) sequence
+	 */
+	public PackedDna slice(int start, int end) {
+		return of(this.substring(start, end));
+	}
+
+	@Override
+	public String toString() {
+		return this.substring(0, this.length);
+	}
+}
@@ -0,0 +1,126 @@
+package de.hpi.akka_tutorial.ss;
+
+/**
+ * Finds the longest common substring of two {@link PackedDna} sequences diagonal by diagonal, 32 bases at a time: one XOR
+ * of two words of packed bases marks all mismatches, runs of matches that reach into or out of a word are measured with
+ * {@link Long#numberOfTrailingZeros(long)} and {@link Long#numberOfLeadingZeros(long)}, and runs within a word are only
+ * looked at if shift-and of the matches shows that one of them is at least as long as the longest run so far. Sequences
+ * that cannot be packed fall back to the {@link DynamicProgrammingLcs}.
+ */
+public class PackedLcs implements LcsEngine {
+
+	// One bit per base, the lower one of its two bits
+	private static final long LOW_BITS = 0x5555555555555555L;
+
+	private final DynamicProgrammingLcs fallback = new DynamicProgrammingLcs();
+
+	// The longest run of matches so far and where it ends (exclusive) in a and b
+	private int best;
+	private int bestEndA;
+	private int bestEndB;
+
+	@Override
+	public String longestCommonSubstring(String a, String b) {
+		return this.longestCommonSubstring(PackedDna.of(a), PackedDna.of(b));
+	}
+
+	@Override
+	public String longestCommonSubstring(PackedDna a, PackedDna b) {
+		if (!a.isPacked() || !b.isPacked())
+			return this.fallback.longestCommonSubstring(a.toString(), b.toString());
+
+		final int n = a.length();
+		final int m = b.length();
+		final long[] wordsA = a.words();
+		final long[] wordsB = b.words();
+		this.best = 0;
+		this.bestEndA = 0;
+		this.bestEndB = 0;
+
+		// Walk along every diagonal, i.e., compare a[i] with b[i + offset], unless it is too short to contain a longer run
+		for (int offset = -(n - 1); offset < m; offset++) {
+			final int startA = Math.max(0, -offset);
+			final int startB = startA + offset;
+			final int length = Math.min(n - startA, m - startB);
+			if (length < this.best)
+				continue;
+
+			// The length of the run of matches that reaches the start of the current word
+			int run = 0;
+			for (int k = 0; k < length; k += 32) {
+				long x = bases(wordsA, startA + k) ^ bases(wordsB, startB + k);
+				long mismatches = (x | (x >>> 1)) & LOW_BITS;
+				if (length - k < 32)
+					mismatches |= LOW_BITS & (-1L << ((length - k) << 1)); // The bases behind the diagonal never match
+				if (mismatches == 0) {
+					run += 32;
+					continue;
+				}
+
+				// The run that reaches into this word ends at its first mismatch
+				int first = Long.numberOfTrailingZeros(mismatches);
+				this.record(run + (first >>> 1), startA + k + (first >>> 1), startB + k + (first >>> 1));
+
+				// Runs between two mismatches of this word
+				int last = 63 - Long.numberOfLeadingZeros(mismatches);
+				if (last > first)
+					this.recordInnerRuns(mismatches, first, last, startA + k, startB + k);
+
+				// The run after the last mismatch continues into the next word
+				run = 31 - (last >>> 1);
+			}
+			this.record(run, startA + length, startB + length);
+		}
+
+		return a.substring(this.bestEndA - this.best, this.bestEndA);
+	}
+
+	/**
+	 * Record all runs between the first and the last mismatch of a word that are at least as long as the longest one so far.
+	 */
+	private void recordInnerRuns(long mismatches, int first, int last, int baseA, int baseB) {
+		final int minLength = Math.max(1, this.best);
+		if (minLength > 30)
+			return;
+
+		// Mark the bases that start minLength matches in a row, by shift-and of the matches with doubling shifts
+		long starts = ~mismatches & LOW_BITS & (-1L << first) & ((1L << last) - 1);
+		for (int covered = 1; covered < minLength && starts != 0; ) {
+			int step = Math.min(covered, minLength - covered);
+			starts &= starts >>> (step << 1);
+			covered += step;
+		}
+
+		// Measure each of these runs from the mismatch before to the mismatch after it
+		while (starts != 0) {
+			int start = Long.numberOfTrailingZeros(starts);
+			int end = Long.numberOfTrailingZeros(mismatches & (-1L << start));
+			int before = 63 - Long.numberOfLeadingZeros(mismatches & ((1L << start) - 1));
+			this.record((end - before - 2) >>> 1, baseA + (end >>> 1), baseB + (end >>> 1));
+			starts &= -1L << end;
+		}
+	}
+
+	private void record(int length, int endA, int endB) {
+		// Keep the tie-breaking of the dynamic programming approach: the match that ends first in a, then in b
+		if (length > this.best || (length == this.best && length > 0 && (endA < this.bestEndA || (endA == this.bestEndA && endB < this.bestEndB)))) {
+			this.best = length;
+			this.bestEndA = endA;
+			this.bestEndB = endB;
+		}
+	}
+
+	/**
+	 * @return the 32 bases from the given position on in the lowest bits, followed by 0s if the sequence ends before
+	 */
+	private static long bases(long[] words, int position) {
+		int word = position >>> 5;
+		int shift = (position & 31) << 1;
+		if (shift == 0)
+			return words[word];
+		long bases = words[word] >>> shift;
+		if (word + 1 < words.length)
+			bases |= words[word + 1] << (64 - shift);
+		return bases;
+	}
+}
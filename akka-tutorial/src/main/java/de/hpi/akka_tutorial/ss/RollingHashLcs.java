@@ -0,0 +1,154 @@
+package de.hpi.akka_tutorial.ss;
+
+import java.util.Arrays;
+
+/**
+ * Finds the longest common substring of two strings by binary searching its length: two strings have a common substring
+ * of length {@code L} if they have one of any shorter length, and whether they have one of length {@code L} is checked
+ * in linear time by hashing all substrings of that length of the second string into a table and probing it with those of
+ * the first string. The substrings are hashed with Karp-Rabin rolling hashes modulo two primes, so the hash of every
+ * window is computed from prefix hashes in constant time; every hash match is verified character by character, so
+ * collisions never produce wrong results. Time is O((n + m) log min(n, m)) and memory O(n + m).
+ */
+public class RollingHashLcs implements LcsEngine {
+
+	// The moduli and bases of the two hash functions; their product is below 2^60, so the arithmetic fits into longs
+	private static final long MODULUS1 = 1_000_000_007L, MODULUS2 = 998_244_353L;
+
+	private static final long BASE1 = 131, BASE2 = 137;
+
+	// The characters of the strings of the current call
+	private char[] a = new char[0];
+	private char[] b = new char[0];
+
+	// The hashes of all prefixes of both strings under both hash functions and the powers of the bases
+	private long[] prefixesA1 = new long[1], prefixesA2 = new long[1];
+	private long[] prefixesB1 = new long[1], prefixesB2 = new long[1];
+	private long[] powers1 = { 1 }, powers2 = { 1 };
+
+	// The open-addressed table of the hashes of the windows of b, with the start of the first window plus one (0 for empty entries) ...
+	private long[] tableHashes = new long[0];
+	private int[] tableHeads = new int[0];
+
+	// ... and for every window the start of the next one with the same hash plus one, in ascending order
+	private int[] chains = new int[0];
+
+	// Where the common substring that the last successful check found starts in a
+	private int foundStart;
+
+	@Override
+	public String longestCommonSubstring(String a, String b) {
+		final int n = a.length();
+		final int m = b.length();
+		this.ensureCapacity(n, m);
+		a.getChars(0, n, this.a, 0);
+		b.getChars(0, m, this.b, 0);
+		prefixes(this.a, n, this.prefixesA1, MODULUS1, BASE1);
+		prefixes(this.a, n, this.prefixesA2, MODULUS2, BASE2);
+		prefixes(this.b, m, this.prefixesB1, MODULUS1, BASE1);
+		prefixes(this.b, m, this.prefixesB2, MODULUS2, BASE2);
+
+		// Binary search the largest length with a common substring; the empty substring is always common
+		int shortest = 0, longest = Math.min(n, m), start = 0;
+		while (shortest < longest) {
+			int length = (shortest + longest + 1) >>> 1;
+			if (this.hasCommonSubstring(n, m, length)) {
+				shortest = length;
+				start = this.foundStart;
+			} else {
+				longest = length - 1;
+			}
+		}
+		return new String(this.a, start, shortest);
+	}
+
+	/**
+	 * Check whether a and b have a common substring of the given length and, if so, remember the first one in a.
+	 */
+	private boolean hasCommonSubstring(int n, int m, int length) {
+
+		// Hash all windows of b, last first, so that the chains are in ascending order
+		final int windows = m - length + 1;
+		final int tableSize = Integer.highestOneBit(Math.max(2, 2 * windows) - 1) << 1;
+		final int shift = 64 - Integer.numberOfTrailingZeros(tableSize);
+		Arrays.fill(this.tableHeads, 0, tableSize, 0);
+		for (int k = windows - 1; k >= 0; k--) {
+			long hash = hash(this.prefixesB1, this.prefixesB2, k, length);
+			int entry = this.entry(hash, tableSize, shift);
+			if (this.tableHeads[entry] == 0)
+				this.tableHashes[entry] = hash;
+			this.chains[k] = this.tableHeads[entry];
+			this.tableHeads[entry] = k + 1;
+		}
+
+		// Probe the windows of a in order and verify every hash match
+		for (int i = 0; i + length <= n; i++) {
+			long hash = hash(this.prefixesA1, this.prefixesA2, i, length);
+			for (int k = this.tableHeads[this.entry(hash, tableSize, shift)]; k != 0; k = this.chains[k - 1]) {
+				if (this.regionMatches(i, k - 1, length)) {
+					this.foundStart = i;
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the entry of the table that holds the given hash or the empty entry where it would be
+	 */
+	private int entry(long hash, int tableSize, int shift) {
+		int entry = (int) ((hash * 0x9E3779B97F4A7C15L) >>> shift);
+		while (this.tableHeads[entry] != 0 && this.tableHashes[entry] != hash)
+			entry = (entry + 1) & (tableSize - 1);
+		return entry;
+	}
+
+	private boolean regionMatches(int startA, int startB, int length) {
+		for (int offset = 0; offset < length; offset++)
+			if (this.a[startA + offset] != this.b[startB + offset])
+				return false;
+		return true;
+	}
+
+	private static void prefixes(char[] s, int length, long[] prefixes, long modulus, long base) {
+		prefixes[0] = 0;
+		for (int i = 0; i < length; i++)
+			prefixes[i + 1] = (prefixes[i] * base + s[i]) % modulus;
+	}
+
+	// Combine the hashes of the window under both hash functions into one long
+	private long hash(long[] prefixes1, long[] prefixes2, int start, int length) {
+		long hash1 = Math.floorMod(prefixes1[start + length] - prefixes1[start] * this.powers1[length] % MODULUS1, MODULUS1);
+		long hash2 = Math.floorMod(prefixes2[start + length] - prefixes2[start] * this.powers2[length] % MODULUS2, MODULUS2);
+		return hash1 << 32 | hash2;
+	}
+
+	private void ensureCapacity(int n, int m) {
+		if (this.a.length < n) {
+			this.a = new char[n];
+			this.prefixesA1 = new long[n + 1];
+			this.prefixesA2 = new long[n + 1];
+		}
+		if (this.b.length < m) {
+			this.b = new char[m];
+			this.prefixesB1 = new long[m + 1];
+			this.prefixesB2 = new long[m + 1];
+			this.chains = new int[m];
+			int tableSize = Integer.highestOneBit(Math.max(2, 2 * m) - 1) << 1;
+			this.tableHashes = new long[tableSize];
+			this.tableHeads = new int[tableSize];
+		}
+		int maxLength = Math.max(n, m);
+		if (this.powers1.length <= maxLength) {
+			this.powers1 = new long[maxLength + 1];
+			this.powers2 = new long[maxLength + 1];
+			this.powers1[0] = 1;
+			this.powers2[0] = 1;
+			for (int i = 1; i <= maxLength; i++) {
+				this.powers1[i] = this.powers1[i - 1] * BASE1 % MODULUS1;
+				this.powers2[i] = this.powers2[i - 1] * BASE2 % MODULUS2;
+			}
+		}
+	}
+}
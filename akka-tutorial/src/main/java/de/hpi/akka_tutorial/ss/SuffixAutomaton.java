@@ -0,0 +1,134 @@
+package de.hpi.akka_tutorial.ss;
+
+import java.util.Arrays;
+
+/**
+ * The suffix automaton of a single DNA sequence, which finds its longest common substring with any other sequence by
+ * streaming that sequence through it in O(m), like when computing matching statistics. Building it takes O(n), so it
+ * pays off as soon as a sequence is compared with several others, see {@link SuffixAutomatonCache}.
+ * <p>
+ * Every state stands for a set of substrings with the same end positions; the first of these end positions tells where
+ * a match first occurs in the sequence, so that the same substring as by the dynamic programming approach is returned.
+ */
+public class SuffixAutomaton {
+
+	// The number of bases A, C, G and T, i.e., of transitions per state
+	private static final int ALPHABET_SIZE = 4;
+
+	private final PackedDna dna;
+
+	// For every state the length of its longest substring, its suffix link, the first end (exclusive) of its substrings and its transitions (-1 for none)
+	private final int[] length;
+
+	private final int[] link;
+
+	private final int[] firstEnd;
+
+	private final int[] next;
+
+	// The number of states; state 0 is the initial state, which stands for the empty substring
+	private int states = 0;
+
+	/**
+	 * @param dna the sequence, which must be packed, i.e., consist of ACGT only
+	 */
+	public SuffixAutomaton(PackedDna dna) {
+		if (!dna.isPacked())
+			throw new IllegalArgumentException("Only packed DNA can be put into a suffix automaton");
+		this.dna = dna;
+
+		// A suffix automaton has fewer than two states per base
+		int capacity = 2 * dna.length() + 2;
+		this.length = new int[capacity];
+		this.link = new int[capacity];
+		this.firstEnd = new int[capacity];
+		this.next = new int[capacity * ALPHABET_SIZE];
+		Arrays.fill(this.next, -1);
+		this.newState(0, -1, 0);
+
+		int last = 0;
+		for (int pos = 0; pos < dna.length(); pos++)
+			last = this.extend(last, dna.codeAt(pos), pos + 1);
+	}
+
+	private int newState(int length, int link, int firstEnd) {
+		int state = this.states++;
+		this.length[state] = length;
+		this.link[state] = link;
+		this.firstEnd[state] = firstEnd;
+		return state;
+	}
+
+	/**
+	 * Append a base, creating or splitting states as necessary.
+	 *
+	 * @return the state of the whole sequence so far
+	 */
+	private int extend(int last, int c, int end) {
+		int current = this.newState(this.length[last] + 1, 0, end);
+		int p = last;
+		while (p >= 0 && this.next[p * ALPHABET_SIZE + c] < 0) {
+			this.next[p * ALPHABET_SIZE + c] = current;
+			p = this.link[p];
+		}
+		if (p >= 0) {
+			int q = this.next[p * ALPHABET_SIZE + c];
+			if (this.length[q] == this.length[p] + 1) {
+				this.link[current] = q;
+			} else {
+				// The clone stands for the shorter substrings of q, which occur at the same positions as q's plus the new end
+				int clone = this.newState(this.length[p] + 1, this.link[q], this.firstEnd[q]);
+				System.arraycopy(this.next, q * ALPHABET_SIZE, this.next, clone * ALPHABET_SIZE, ALPHABET_SIZE);
+				this.link[q] = clone;
+				for (; p >= 0 && this.next[p * ALPHABET_SIZE + c] == q; p = this.link[p])
+					this.next[p * ALPHABET_SIZE + c] = clone;
+				this.link[current] = clone;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Find the longest common substring with another sequence. Of several equally long ones, the one that ends first in
+	 * the sequence of this automaton is returned (and of these, the one that ends first in {@code other}).
+	 *
+	 * @param other the other sequence, which may contain other characters than ACGT
+	 * @return the longest common substring, possibly empty
+	 */
+	public String longestCommonSubstring(PackedDna other) {
+		int best = 0, bestEnd = 0;
+		int state = 0, matched = 0;
+		for (int pos = 0; pos < other.length(); pos++) {
+			int c = other.codeAt(pos);
+			if (c < 0) {
+				state = 0;
+				matched = 0;
+				continue;
+			}
+
+			// Drop characters from the start of the match until it can be extended
+			while (state > 0 && this.next[state * ALPHABET_SIZE + c] < 0) {
+				state = this.link[state];
+				matched = this.length[state];
+			}
+			if (this.next[state * ALPHABET_SIZE + c] < 0)
+				continue;
+			state = this.next[state * ALPHABET_SIZE + c];
+			matched++;
+
+			// The positions in other increase, so only a match that ends earlier in the sequence of this automaton breaks a tie
+			if (matched > best || (matched == best && this.firstEnd[state] < bestEnd)) {
+				best = matched;
+				bestEnd = this.firstEnd[state];
+			}
+		}
+		return this.dna.substring(bestEnd - best, bestEnd);
+	}
+
+	/**
+	 * @return the approximate number of bytes that the automaton occupies, excluding its sequence
+	 */
+	public long bytes() {
+		return 4L * (this.length.length + this.link.length + this.firstEnd.length + this.next.length);
+	}
+}
@@ -0,0 +1,74 @@
+package de.hpi.akka_tutorial.ss;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the {@link SuffixAutomaton}s of the participants whose DNA was compared most recently, up to a number of bytes,
+ * so that comparing a participant with all others builds its automaton only once. The least recently used automata are
+ * dropped first; the one that was just built is always kept, even if it exceeds the budget on its own.
+ */
+public class SuffixAutomatonCache {
+
+	private final long maxBytes;
+
+	// The automata by participant id in the order of their last use
+	private final LinkedHashMap<Integer, SuffixAutomaton> automata = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long bytes = 0;
+
+	// Statistics of the cache
+	private long lookups = 0;
+	private long builds = 0;
+
+	/**
+	 * @param maxBytes the number of bytes that the automata may occupy
+	 */
+	public SuffixAutomatonCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Get the automaton of a participant's DNA, building it if it is not cached.
+	 *
+	 * @param id the id of the participant
+	 * @param dna the participant's DNA
+	 * @return the automaton or {@code null} if the DNA could not be packed
+	 */
+	public SuffixAutomaton get(int id, PackedDna dna) {
+		if (!dna.isPacked())
+			return null;
+		this.lookups++;
+		SuffixAutomaton automaton = this.automata.get(id);
+		if (automaton != null)
+			return automaton;
+
+		automaton = new SuffixAutomaton(dna);
+		this.builds++;
+		this.bytes += automaton.bytes();
+
+		// Drop the least recently used automata (the new one is the most recently used) until the others fit
+		Iterator<Map.Entry<Integer, SuffixAutomaton>> iterator = this.automata.entrySet().iterator();
+		while (this.bytes > this.maxBytes && iterator.hasNext()) {
+			this.bytes -= iterator.next().getValue().bytes();
+			iterator.remove();
+		}
+		this.automata.put(id, automaton);
+		return automaton;
+	}
+
+	/**
+	 * @return the number of calls of {@link #get(int, PackedDna)} with packed DNA
+	 */
+	public long lookups() {
+		return this.lookups;
+	}
+
+	/**
+	 * @return the number of automata that were built
+	 */
+	public long builds() {
+		return this.builds;
+	}
+}
@@ -0,0 +1,266 @@
+package de.hpi.akka_tutorial.ss;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the dynamic programming matrix of the longest common substring of two long sequences into tiles, so that the
+ * tiles of one anti-diagonal can be computed in parallel. A tile only needs the last row of the tile above it and the last
+ * column of the tile to its left (plus the cell diagonally above), so only these boundaries and the longest match of
+ * every tile travel between the tiles; a tile becomes ready as soon as both neighbours are complete. The matrix has one
+ * row per base of {@code a} and one column per base of {@code b}. Memory is O(n + m) for all boundaries that are still
+ * needed.
+ */
+public class TiledLcs {
+
+	/**
+	 * The boundaries and the longest match of a computed tile.
+	 */
+	public static class Tile {
+
+		// The last row of the tile
+		private final int[] bottom;
+
+		// The cell above the last column of the tile, followed by the last column
+		private final int[] right;
+
+		// The longest match within the tile and where it ends (exclusive), relative to the tile
+		private final int length;
+		private final int endRow;
+		private final int endColumn;
+
+		/**
+		 * Construct a new {@link Tile} object, e.g., from a message that carries a computed tile.
+		 *
+		 * @param bottom the last row of the tile
+		 * @param right the cell above the last column of the tile, followed by the last column
+		 * @param length the length of the longest match within the tile
+		 * @param endRow the row where the longest match ends (exclusive), relative to the tile
+		 * @param endColumn the column where the longest match ends (exclusive), relative to the tile
+		 */
+		public Tile(int[] bottom, int[] right, int length, int endRow, int endColumn) {
+			this.bottom = bottom;
+			this.right = right;
+			this.length = length;
+			this.endRow = endRow;
+			this.endColumn = endColumn;
+		}
+
+		/**
+		 * @return the last row of the tile
+		 */
+		public int[] bottom() {
+			return this.bottom;
+		}
+
+		/**
+		 * @return the cell above the last column of the tile, followed by the last column
+		 */
+		public int[] right() {
+			return this.right;
+		}
+
+		/**
+		 * @return the length of the longest match within the tile
+		 */
+		public int length() {
+			return this.length;
+		}
+
+		/**
+		 * @return the row where the longest match ends (exclusive), relative to the tile
+		 */
+		public int endRow() {
+			return this.endRow;
+		}
+
+		/**
+		 * @return the column where the longest match ends (exclusive), relative to the tile
+		 */
+		public int endColumn() {
+			return this.endColumn;
+		}
+	}
+
+	/**
+	 * Compute a tile of the matrix.
+	 *
+	 * @param a the bases of the rows of the tile
+	 * @param b the bases of the columns of the tile
+	 * @param top the last row of the tile above, or 0s
+	 * @param left the cell above the last column of the tile to the left, followed by that column, or 0s
+	 * @return the boundaries and the longest match of the tile
+	 */
+	public static Tile compute(String a, String b, int[] top, int[] left) {
+		final int h = a.length();
+		final int w = b.length();
+		int[] previous = new int[w + 1];
+		int[] current = new int[w + 1];
+		int[] right = new int[h + 1];
+		previous[0] = left[0];
+		System.arraycopy(top, 0, previous, 1, w);
+		right[0] = previous[w];
+
+		// Scan along a and then b, so that the first of equally long matches is the one that ends first in a, then in b
+		int max = 0, maxRow = 0, maxColumn = 0;
+		for (int i = 1; i <= h; i++) {
+			final char c = a.charAt(i - 1);
+			current[0] = left[i];
+			for (int k = 1; k <= w; k++) {
+				final int length = c == b.charAt(k - 1) ? previous[k - 1] + 1 : 0;
+				current[k] = length;
+				if (length > max) {
+					max = length;
+					maxRow = i;
+					maxColumn = k;
+				}
+			}
+			right[i] = current[w];
+			int[] row = previous;
+			previous = current;
+			current = row;
+		}
+
+		int[] bottom = new int[w];
+		System.arraycopy(previous, 1, bottom, 0, w);
+		return new Tile(bottom, right, max, maxRow, maxColumn);
+	}
+
+	private final PackedDna a;
+	private final PackedDna b;
+	private final int tileSize;
+	private final int rows;
+	private final int columns;
+
+	// The number of complete tiles of every column, which are always the topmost ones
+	private final int[] completeRows;
+
+	// The last row of the lowest complete tile of every column and the right boundary of the rightmost complete tile of every row
+	private final int[][] bottoms;
+	private final int[][] rights;
+
+	private int completeTiles = 0;
+
+	// The longest match so far and where it ends (exclusive) in a and b
+	private int best = 0;
+	private int bestEndA = 0;
+	private int bestEndB = 0;
+
+	/**
+	 * @param a the sequence along the rows
+	 * @param b the sequence along the columns
+	 * @param tileSize the number of rows and columns of a tile
+	 */
+	public TiledLcs(PackedDna a, PackedDna b, int tileSize) {
+		if (tileSize < 1)
+			throw new IllegalArgumentException("The tile size must be positive, but is " + tileSize);
+		this.a = a;
+		this.b = b;
+		this.tileSize = tileSize;
+		this.rows = Math.max(1, (a.length() + tileSize - 1) / tileSize);
+		this.columns = Math.max(1, (b.length() + tileSize - 1) / tileSize);
+		this.completeRows = new int[this.columns];
+		this.bottoms = new int[this.columns][];
+		this.rights = new int[this.rows][];
+	}
+
+	/**
+	 * @return the number of tile rows
+	 */
+	public int rows() {
+		return this.rows;
+	}
+
+	/**
+	 * @return the number of tile columns
+	 */
+	public int columns() {
+		return this.columns;
+	}
+
+	/**
+	 * @return the bases of {@code a} that the rows of the tile in the given tile row belong to
+	 */
+	public PackedDna rowBases(int row) {
+		return this.a.slice(this.start(row, this.a), this.start(row + 1, this.a));
+	}
+
+	/**
+	 * @return the bases of {@code b} that the columns of the tile in the given tile column belong to
+	 */
+	public PackedDna columnBases(int column) {
+		return this.b.slice(this.start(column, this.b), this.start(column + 1, this.b));
+	}
+
+	/**
+	 * @return the last row of the tile above the given (ready) tile, or 0s in the first tile row
+	 */
+	public int[] top(int row, int column) {
+		return row == 0 ? new int[this.start(column + 1, this.b) - this.start(column, this.b)] : this.bottoms[column];
+	}
+
+	/**
+	 * @return the right boundary of the tile to the left of the given (ready) tile, or 0s in the first tile column
+	 */
+	public int[] left(int row, int column) {
+		return column == 0 ? new int[this.start(row + 1, this.a) - this.start(row, this.a) + 1] : this.rights[row];
+	}
+
+	/**
+	 * Record a computed tile.
+	 *
+	 * @param row the tile row of the tile
+	 * @param column the tile column of the tile
+	 * @param tile the computed tile
+	 * @return the tiles that became ready, as pairs of tile row and tile column
+	 */
+	public List<int[]> complete(int row, int column, Tile tile) {
+		if (this.completeRows[column] != row || (column > 0 && this.completeRows[column - 1] <= row))
+			throw new IllegalStateException("Tile " + row + "/" + column + " was not ready or is complete already");
+		this.completeRows[column]++;
+		this.completeTiles++;
+		this.bottoms[column] = tile.bottom;
+		this.rights[row] = tile.right;
+		this.record(tile.length, this.start(row, this.a) + tile.endRow, this.start(column, this.b) + tile.endColumn);
+
+		// The tile below needs the tile to its left, the tile to the right needs the tile above it
+		List<int[]> ready = new ArrayList<>(2);
+		if (row + 1 < this.rows && (column == 0 || this.completeRows[column - 1] > row + 1))
+			ready.add(new int[] { row + 1, column });
+		if (column + 1 < this.columns && this.completeRows[column + 1] == row)
+			ready.add(new int[] { row, column + 1 });
+
+		// Free the right boundary of the last tile column, which no other tile needs
+		if (column + 1 == this.columns)
+			this.rights[row] = null;
+		return ready;
+	}
+
+	/**
+	 * @return whether all tiles are complete
+	 */
+	public boolean isComplete() {
+		return this.completeTiles == this.rows * this.columns;
+	}
+
+	/**
+	 * @return the longest common substring of all complete tiles, i.e., of {@code a} and {@code b} once all are complete
+	 */
+	public String longestCommonSubstring() {
+		return this.a.substring(this.bestEndA - this.best, this.bestEndA);
+	}
+
+	private void record(int length, int endA, int endB) {
+		// Keep the tie-breaking of the whole matrix: the match that ends first in a, then in b
+		if (length > this.best || (length == this.best && length > 0 && (endA < this.bestEndA || (endA == this.bestEndA && endB < this.bestEndB)))) {
+			this.best = length;
+			this.bestEndA = endA;
+			this.bestEndB = endB;
+		}
+	}
+
+	// The first base of the given tile row or column
+	private int start(int index, PackedDna sequence) {
+		return Math.min(index * this.tileSize, sequence.length());
+	}
+}
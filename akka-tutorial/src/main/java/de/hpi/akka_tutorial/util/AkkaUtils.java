@@ -18,6 +18,32 @@ import com.typesafe.config.ConfigFactory;
  */
 public class AkkaUtils {
 
+	/**
+	 * The transports that remote actor systems communicate with; all actor systems of an exercise must use the same one.
+	 */
+	public enum Transport {
+
+		// Classic remoting with one TCP connection per pair of actor systems, see remote.conf
+		NETTY("akka.tcp"),
+
+		// Artery over Aeron with a separate stream for all tasks of the workers on slaves, see artery.conf; the Aeron
+		// version of this Akka version needs Java 8 to 13
+		ARTERY("akka");
+
+		private final String protocol;
+
+		Transport(String protocol) {
+			this.protocol = protocol;
+		}
+
+		/**
+		 * @return the protocol of the addresses of actor systems with this transport
+		 */
+		public String protocol() {
+			return this.protocol;
+		}
+	}
+
 	/**
 	 * Binding to replace variables in our pimped {@code .conf} files.
 	 */
@@ -58,13 +84,32 @@ public class AkkaUtils {
 	}
 
 
+	// The bytes of a frame that the serialized message cannot use: the actor paths of sender and recipient and the serializer manifest
+	private static final int FRAME_OVERHEAD = 4096;
+
+	/**
+	 * Get the number of bytes that a serialized message may have at most, so that the transport does not drop it.
+	 *
+	 * @param config the {@link Config} of the actor system that sends the message, with or without Akka's defaults
+	 * @return the number of bytes
+	 */
+	public static int maximumMessageBytes(Config config) {
+		long frameSize = config.hasPath("akka.remote.artery.enabled") && config.getBoolean("akka.remote.artery.enabled")
+				? config.getBytes("akka.remote.artery.advanced.maximum-frame-size")
+				: config.getBytes("akka.remote.netty.tcp.maximum-frame-size");
+		return (int) Math.min(Integer.MAX_VALUE, frameSize) - FRAME_OVERHEAD;
+	}
+
 	public static Config createRemoteAkkaConfig(String host, int port) {
+		return createRemoteAkkaConfig(host, port, Transport.NETTY);
+	}
+
+	public static Config createRemoteAkkaConfig(String host, int port, Transport transport) {
 		Config baseConfig = loadConfig("akka-tutorial/base.conf");
-		Config remoteConfig = loadConfig(
-				"akka-tutorial/remote.conf",
-				new VariableBinding("host", host),
-				new VariableBinding("port", port)
-		);
+		VariableBinding[] bindings = { new VariableBinding("host", host), new VariableBinding("port", port) };
+		Config remoteConfig = loadConfig("akka-tutorial/remote.conf", bindings);
+		if (transport == Transport.ARTERY)
+			remoteConfig = loadConfig("akka-tutorial/artery.conf", bindings).withFallback(remoteConfig);
 		return remoteConfig.withFallback(baseConfig);
 	}
 
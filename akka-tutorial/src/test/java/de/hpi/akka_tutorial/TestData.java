@@ -0,0 +1,63 @@
+package de.hpi.akka_tutorial;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import de.hpi.akka_tutorial.pw.Digests;
+
+/**
+ * Random inputs and reference implementations that the tests share.
+ */
+public class TestData {
+
+	/**
+	 * @return a string of the given length over the characters of the alphabet
+	 */
+	public static String randomString(Random random, String alphabet, int length) {
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		return builder.toString();
+	}
+
+	/**
+	 * @return random raw SHA-256 digests
+	 */
+	public static byte[][] randomDigests(Random random, int count) {
+		byte[][] digests = new byte[count][Digests.LENGTH];
+		for (byte[] digest : digests)
+			random.nextBytes(digest);
+		return digests;
+	}
+
+	/**
+	 * @return random ascending indexes below a bound
+	 */
+	public static long[] randomIndexes(Random random, int count, long bound) {
+		long[] indexes = new long[count];
+		for (int i = 0; i < count; i++)
+			indexes[i] = (random.nextLong() & Long.MAX_VALUE) % bound;
+		Arrays.sort(indexes);
+		return indexes;
+	}
+
+	/**
+	 * The original full matrix approach of the SSWorker, as reference for all other approaches.
+	 *
+	 * @return the first longest common substring of both strings in the order of the first string
+	 */
+	public static String fullMatrixLcs(String a, String b) {
+		int[][] D = new int[a.length() + 1][b.length() + 1];
+		int max = 0, maxI = 0;
+		for (int i = 1; i < D.length; i++) {
+			for (int k = 1; k < D[0].length; k++) {
+				D[i][k] = a.charAt(i - 1) == b.charAt(k - 1) ? D[i - 1][k - 1] + 1 : 0;
+				if (D[i][k] > max) {
+					maxI = i;
+					max = D[i][k];
+				}
+			}
+		}
+		return a.substring(maxI - max, maxI);
+	}
+}
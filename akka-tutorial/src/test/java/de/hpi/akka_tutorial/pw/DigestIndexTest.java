@@ -0,0 +1,73 @@
+package de.hpi.akka_tutorial.pw;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Checks a {@link DigestIndex} of a small keyspace, which still puts a few entries into most buckets, so that the
+ * buckets must be sorted, against digests of the JDK.
+ */
+public class DigestIndexTest {
+
+	private static final Keyspace KEYSPACE = Keyspace.parse("mask:?l?l?l?d,?d?d?d");
+
+	private static Path file;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		file = Files.createTempFile("DigestIndexTest", ".idx");
+		DigestIndex.build(file, KEYSPACE);
+	}
+
+	@AfterClass
+	public static void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void findsEveryCandidate() throws IOException, NoSuchAlgorithmException {
+		final MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+		final DigestIndex index = DigestIndex.open(file, KEYSPACE);
+		for (long i = 0; i < KEYSPACE.size(); i++) {
+			String candidate = KEYSPACE.candidate(i);
+			assertEquals(candidate, i, index.lookup(sha256.digest(candidate.getBytes(StandardCharsets.US_ASCII))));
+		}
+	}
+
+	@Test
+	public void missesRandomDigests() throws IOException {
+		final DigestIndex index = DigestIndex.open(file, KEYSPACE);
+
+		// Random digests are not contained, apart from an astronomically unlikely collision
+		final Random random = new Random(42);
+		byte[] digest = new byte[Digests.LENGTH];
+		for (int round = 0; round < 1 << 16; round++) {
+			random.nextBytes(digest);
+			assertEquals(Digests.toHex(digest), -1, index.lookup(digest));
+		}
+	}
+
+	@Test
+	public void rejectsAnotherKeyspace() {
+		for (String spec : new String[] { "mask:?l?l?l?d", "mask:?l?l?l?d,?d?d?d?d", "digits:7" }) {
+			try {
+				DigestIndex.open(file, Keyspace.parse(spec));
+				fail("Opened the index for " + spec);
+			} catch (IOException e) {
+				// Expected
+			}
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package de.hpi.akka_tutorial.pw;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class KeyspaceTest {
+
+	@Test
+	public void defaultContainsTheZeroPaddedSevenDigitNumbers() {
+		assertEquals(10_000_000, Keyspace.DEFAULT.size());
+		for (long index : new long[] { 0, 123, 9_999_999 })
+			assertEquals(String.format("%07d", index), Keyspace.DEFAULT.candidate(index));
+	}
+
+	@Test
+	public void cursorsEnumerateTheCandidatesOfRandomAccess() {
+		final Random random = new Random(42);
+		for (String spec : new String[] { "digits:7", "lower:1-4", "alnum:2-3", "mask:?u?l?d,x??y?d?d" }) {
+			Keyspace keyspace = Keyspace.parse(spec);
+			for (int round = 0; round < 100; round++) {
+
+				// From a random start index across lengths and masks up to the end of the keyspace
+				long index = (long) (random.nextDouble() * keyspace.size());
+				Keyspace.Cursor cursor = keyspace.cursor(index);
+				for (int step = 0; step < 1000 && index < keyspace.size(); step++, index++) {
+					String expected = keyspace.candidate(index);
+					assertEquals(spec + " at " + index, expected, new String(cursor.candidate(), StandardCharsets.US_ASCII));
+					assertEquals(spec + " ends at " + index, index + 1 < keyspace.size(), cursor.next());
+					assertEquals(spec + " index of " + expected, index, keyspace.indexOf(expected));
+				}
+			}
+		}
+	}
+}
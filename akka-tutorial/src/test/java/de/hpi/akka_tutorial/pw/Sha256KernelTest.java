@@ -0,0 +1,34 @@
+package de.hpi.akka_tutorial.pw;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class Sha256KernelTest {
+
+	@Test
+	public void matchesTheJdkOnRandomInputsOfAllSupportedLengths() {
+		final Random random = new Random(42);
+		final Sha256Engine reference = Sha256Engine.Kind.JDK.create(0);
+		for (int length = 0; length <= Sha256Kernel.MAX_LENGTH; length++) {
+			Sha256Engine kernel = Sha256Engine.Kind.KERNEL.create(length);
+			byte[][] candidates = new byte[kernel.lanes()][length];
+			byte[][] expected = new byte[kernel.lanes()][Digests.LENGTH];
+			byte[][] actual = new byte[kernel.lanes()][Digests.LENGTH];
+			for (int round = 0; round < 1000; round++) {
+
+				// Fill only some of the lanes, like the last batch of a range
+				int count = 1 + random.nextInt(kernel.lanes());
+				for (int lane = 0; lane < count; lane++) {
+					random.nextBytes(candidates[lane]);
+					reference.hash(new byte[][] { candidates[lane] }, new byte[][] { expected[lane] }, 1);
+				}
+				kernel.hash(candidates, actual, count);
+				for (int lane = 0; lane < count; lane++)
+					assertArrayEquals("Length " + length + ", input " + Digests.toHex(candidates[lane]), expected[lane], actual[lane]);
+			}
+		}
+	}
+}
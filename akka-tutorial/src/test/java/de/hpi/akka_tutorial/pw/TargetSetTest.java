@@ -0,0 +1,38 @@
+package de.hpi.akka_tutorial.pw;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.hpi.akka_tutorial.TestData;
+
+public class TargetSetTest {
+
+	@Test
+	public void findsExactlyItsDigests() {
+		final Random random = new Random(42);
+		final byte[][] probes = TestData.randomDigests(random, 1 << 16);
+		for (int size : new int[] { 1, 2, 100, 100_000 }) {
+
+			// The last digest duplicates the first one, so both positions belong to one slot
+			byte[][] digests = TestData.randomDigests(random, size);
+			if (size > 1)
+				digests[size - 1] = digests[0];
+			TargetSet targets = new TargetSet(digests);
+			assertEquals(size > 1 ? size - 1 : size, targets.size());
+			for (int i = 0; i < size; i++) {
+				final int position = i;
+				int slot = targets.find(digests[position].clone());
+				assertTrue("Size " + size + " misses position " + position, slot >= 0 && Arrays.stream(targets.positions(slot)).anyMatch(p -> p == position));
+			}
+
+			// Random digests are not contained, apart from an astronomically unlikely collision
+			for (byte[] probe : probes)
+				assertEquals(-1, targets.find(probe));
+		}
+	}
+}
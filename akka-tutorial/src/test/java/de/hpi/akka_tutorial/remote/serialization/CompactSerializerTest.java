@@ -0,0 +1,300 @@
+package de.hpi.akka_tutorial.remote.serialization;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.typesafe.config.ConfigFactory;
+
+import akka.actor.ActorSystem;
+import akka.serialization.Serialization;
+import akka.serialization.SerializationExtension;
+import akka.serialization.Serializer;
+import de.hpi.akka_tutorial.Participant;
+import de.hpi.akka_tutorial.TestData;
+import de.hpi.akka_tutorial.pw.Digests;
+import de.hpi.akka_tutorial.pw.Keyspace;
+import de.hpi.akka_tutorial.remote.actors.PWCrackWorker;
+import de.hpi.akka_tutorial.remote.actors.PWMaster;
+import de.hpi.akka_tutorial.remote.actors.SSMaster;
+import de.hpi.akka_tutorial.remote.actors.SSWorker;
+import de.hpi.akka_tutorial.ss.PackedDna;
+import de.hpi.akka_tutorial.ss.TiledLcs;
+import de.hpi.akka_tutorial.util.AkkaUtils;
+
+/**
+ * Checks that the {@link CompactSerializer} is bound to all compact messages as configured for remoting, restores them
+ * exactly and that messages split to the frame size fit into it.
+ */
+public class CompactSerializerTest {
+
+	private static ActorSystem system;
+
+	private static Serialization serialization;
+
+	@BeforeClass
+	public static void setUp() {
+		system = ActorSystem.create("CompactSerializerTest",
+				ConfigFactory.parseString("akka.loglevel = WARNING").withFallback(AkkaUtils.createRemoteAkkaConfig("localhost", 0)));
+		serialization = SerializationExtension.get(system);
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		system.terminate();
+	}
+
+	@Test
+	public void restoresRandomMessagesExactly() {
+
+		// Random messages with all kinds of fields, including nulls, other characters than ACGT and odd hashes
+		final Random random = new Random(42);
+		for (int round = 0; round < 10_000; round++) {
+			Object message = randomMessage(random);
+			assertSame(message.getClass().getName(), roundTrip(message).getClass(), message.getClass());
+		}
+	}
+
+	@Test
+	public void splitTargetsFitAFrameAndJoinToAllTargets() {
+		final Random random = new Random(42);
+		final int maxBytes = AkkaUtils.maximumMessageBytes(system.settings().config());
+		for (int size : new int[] { 0, 1, 100, 10_000 }) {
+			int[] userids = new int[size];
+			for (int i = 0; i < size; i++)
+				userids[i] = i + 1;
+			byte[][] digests = TestData.randomDigests(random, size);
+
+			// The messages cover all targets in order, each with its offset and the total
+			List<Integer> joinedUserids = new ArrayList<>();
+			List<byte[]> joinedDigests = new ArrayList<>();
+			for (PWCrackWorker.TargetsMessage message : PWCrackWorker.TargetsMessage.split(7, Keyspace.DEFAULT, userids, digests, maxBytes)) {
+				message = (PWCrackWorker.TargetsMessage) roundTrip(message);
+				assertTrue(serialization.findSerializerFor(message).toBinary(message).length <= maxBytes);
+				assertEquals(joinedUserids.size(), (int) field(message, "offset"));
+				assertEquals(size, (int) field(message, "total"));
+				for (int userid : (int[]) field(message, "userids"))
+					joinedUserids.add(userid);
+				for (byte[] digest : (byte[][]) field(message, "digests"))
+					joinedDigests.add(digest);
+			}
+			assertArrayEquals(userids, joinedUserids.stream().mapToInt(Integer::intValue).toArray());
+			assertArrayEquals(digests, joinedDigests.toArray(new byte[0][]));
+		}
+	}
+
+	@Test
+	public void splitDnaFitsAFrameAndJoinsToAllSequences() {
+		final Random random = new Random(42);
+		final int maxBytes = AkkaUtils.maximumMessageBytes(system.settings().config());
+
+		// Short sequences that share messages and long ones, packed and not, that need slices
+		for (int length : new int[] { 0, 300, 100_000, 1_000_000 }) {
+			int[] ids = new int[5];
+			PackedDna[] dnas = new PackedDna[ids.length];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = 10 * i;
+				dnas[i] = PackedDna.of(TestData.randomString(random, i == 2 ? "ACGTN" : "ACGT", length));
+			}
+
+			// The slices of a sequence follow each other, so joining consecutive entries of the same id restores it
+			List<Integer> joinedIds = new ArrayList<>();
+			List<StringBuilder> joinedDnas = new ArrayList<>();
+			for (SSWorker.DnaMessage message : SSWorker.DnaMessage.split(ids, dnas, maxBytes)) {
+				message = (SSWorker.DnaMessage) roundTrip(message);
+				assertTrue(serialization.findSerializerFor(message).toBinary(message).length <= maxBytes);
+				int[] messageIds = (int[]) field(message, "ids");
+				PackedDna[] messageDnas = (PackedDna[]) field(message, "dnas");
+				int[] lengths = (int[]) field(message, "lengths");
+				for (int i = 0; i < messageIds.length; i++) {
+					assertEquals(length, lengths[i]);
+					if (joinedIds.isEmpty() || joinedIds.get(joinedIds.size() - 1) != messageIds[i] || joinedDnas.get(joinedDnas.size() - 1).length() == length) {
+						joinedIds.add(messageIds[i]);
+						joinedDnas.add(new StringBuilder());
+					}
+					joinedDnas.get(joinedDnas.size() - 1).append(messageDnas[i].toString());
+				}
+			}
+			assertArrayEquals(ids, joinedIds.stream().mapToInt(Integer::intValue).toArray());
+			for (int i = 0; i < ids.length; i++)
+				assertEquals(dnas[i].toString(), joinedDnas.get(i).toString());
+		}
+	}
+
+	@Test
+	public void tilesOfTheLargestSizeFitAFrame() {
+		final Random random = new Random(42);
+		final int maxBytes = AkkaUtils.maximumMessageBytes(system.settings().config());
+		final int tileSize = SSMaster.maxTileSize(maxBytes);
+		assertTrue(tileSize > 0);
+
+		// Bases that cannot be packed and boundaries whose neighbours differ as much as possible take the most bytes
+		PackedDna a = PackedDna.of(TestData.randomString(random, "ACGTN", tileSize - 1) + "N");
+		PackedDna b = PackedDna.of(TestData.randomString(random, "ACGTN", tileSize - 1) + "N");
+		int[] top = new int[tileSize];
+		int[] left = new int[tileSize + 1];
+		for (int i = 0; i < left.length; i++) {
+			left[i] = i % 2 == 0 ? 0 : Integer.MAX_VALUE;
+			if (i < top.length)
+				top[i] = left[i];
+		}
+		Object tileMessage = roundTrip(new SSWorker.TileMessage(Integer.MIN_VALUE, a, b, top, left));
+		assertTrue(serialization.findSerializerFor(tileMessage).toBinary(tileMessage).length <= SSWorker.TileMessage.maxBytes(tileSize));
+		Object finalizedMessage = roundTrip(new SSMaster.TileFinalizedMessage(Integer.MIN_VALUE, new TiledLcs.Tile(top, left, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE)));
+		assertTrue(serialization.findSerializerFor(finalizedMessage).toBinary(finalizedMessage).length <= SSMaster.TileFinalizedMessage.maxBytes(tileSize));
+		assertTrue(SSWorker.TileMessage.maxBytes(tileSize) <= maxBytes && SSMaster.TileFinalizedMessage.maxBytes(tileSize) <= maxBytes);
+		assertTrue(SSWorker.TileMessage.maxBytes(tileSize + 1) > maxBytes || SSMaster.TileFinalizedMessage.maxBytes(tileSize + 1) > maxBytes);
+
+		// Pairs that do not fit into a single message must be tiled
+		Participant p1 = new Participant(1, "a", null, TestData.randomString(random, "ACGT", 300_000));
+		Participant p2 = new Participant(2, "b", null, TestData.randomString(random, "ACGT", 300_000));
+		assertFalse(SSWorker.SSValidationMessage.fits(p1, p2, maxBytes));
+		assertTrue(SSWorker.SSValidationMessage.fits(p1, new Participant(3, "c", null, "ACGT"), maxBytes));
+	}
+
+	// Serialize and deserialize a message as remoting does and check that all fields and the bytes are the same
+	private static Object roundTrip(Object message) {
+		Serializer serializer = serialization.findSerializerFor(message);
+		assertTrue("Not bound to the compact serializer: " + message.getClass().getName(), serializer instanceof CompactSerializer);
+		CompactSerializer compact = (CompactSerializer) serializer;
+		byte[] bytes = compact.toBinary(message);
+		Object restored = serialization.deserialize(bytes, compact.identifier(), compact.manifest(message)).get();
+		assertEquals(describe(message), describe(restored));
+		assertArrayEquals(bytes, compact.toBinary(restored));
+		return restored;
+	}
+
+	private static Object randomMessage(Random random) {
+		switch (random.nextInt(7)) {
+			case 0:
+				long rangeMin = random.nextInt(4) == 0 ? random.nextLong() & Long.MAX_VALUE >> 2 : random.nextInt(10_000_000);
+				if (random.nextBoolean())
+					return new PWCrackWorker.PWValidationMessage(random.nextInt(), random.nextInt(), TestData.randomIndexes(random, 1 + random.nextInt(100), Long.MAX_VALUE >> 2));
+				return new PWCrackWorker.PWValidationMessage(random.nextInt(), random.nextInt(), rangeMin, rangeMin + random.nextInt(1_000_000),
+						random.nextBoolean() ? null : TestData.randomIndexes(random, random.nextInt(20), 1_000_000));
+			case 1:
+				int targets = random.nextInt(20);
+				int[] userids = new int[targets];
+				for (int i = 0; i < targets; i++)
+					userids[i] = random.nextInt() >> random.nextInt(32);
+				return new PWCrackWorker.TargetsMessage(random.nextInt(), random.nextBoolean() ? Keyspace.DEFAULT : Keyspace.parse("mask:?u?l?d,x??y?d?d"),
+						random.nextInt(1000), random.nextInt(), userids, TestData.randomDigests(random, targets));
+			case 2:
+				int found = random.nextInt(4);
+				String[] passwords = new String[found];
+				int[] passwordUserids = new int[found];
+				for (int i = 0; i < found; i++) {
+					passwords[i] = random.nextInt(8) == 0 ? null : TestData.randomString(random, "0123456789abcdefäöü€", random.nextInt(12));
+					passwordUserids[i] = random.nextInt() >> random.nextInt(32);
+				}
+				return new PWMaster.PWMessage(random.nextInt(), random.nextInt(), random.nextInt(8) == 0 ? null : passwords, random.nextInt(8) == 0 ? null : passwordUserids);
+			case 3:
+				return new SSWorker.SSValidationMessage(random.nextInt(), randomParticipant(random, false), randomParticipant(random, false));
+			case 4:
+				int participants = random.nextInt(5);
+				int[] ids = new int[participants];
+				PackedDna[] dnas = new PackedDna[participants];
+				for (int i = 0; i < participants; i++) {
+					ids[i] = random.nextInt();
+					dnas[i] = PackedDna.of(TestData.randomString(random, random.nextInt(4) == 0 ? "ACGTN" : "ACGT", random.nextInt(200)));
+				}
+				return new SSWorker.DnaMessage(ids, dnas);
+			case 5:
+				int rows = random.nextInt(50);
+				int columns = random.nextInt(50);
+				return new SSWorker.TileMessage(random.nextInt(), PackedDna.of(TestData.randomString(random, random.nextInt(4) == 0 ? "ACGTN" : "ACGT", rows)),
+						PackedDna.of(TestData.randomString(random, random.nextInt(4) == 0 ? "ACGTN" : "ACGT", columns)),
+						randomBoundary(random, columns), randomBoundary(random, rows + 1));
+			case 6:
+				int[] bottom = randomBoundary(random, random.nextInt(50));
+				int[] right = randomBoundary(random, 1 + random.nextInt(50));
+				return new SSMaster.TileFinalizedMessage(random.nextInt(), new TiledLcs.Tile(bottom, right, random.nextInt(50), random.nextInt(50), random.nextInt(50)));
+			default:
+				return new SSMaster.FinalizedMessage(random.nextInt(), randomParticipant(random, true), randomParticipant(random, true));
+		}
+	}
+
+	private static Participant randomParticipant(Random random, boolean mayLackDna) {
+		String pwhash;
+		switch (random.nextInt(4)) {
+			case 0:
+				pwhash = null;
+				break;
+			case 1:
+				pwhash = Digests.toHex(TestData.randomDigests(random, 1)[0]).toUpperCase();
+				break;
+			case 2:
+				pwhash = TestData.randomString(random, "0123456789abcdefxyz", random.nextInt(70));
+				break;
+			default:
+				pwhash = Digests.toHex(TestData.randomDigests(random, 1)[0]);
+		}
+		String alphabet = random.nextInt(4) == 0 ? "ACGTN" : "ACGT";
+		Participant participant = new Participant(random.nextInt(), TestData.randomString(random, "abcxyzäß", random.nextInt(10)), pwhash,
+				mayLackDna && random.nextInt(8) == 0 ? null : TestData.randomString(random, alphabet, random.nextInt(200)));
+		if (random.nextBoolean())
+			participant.setPw_clear(TestData.randomString(random, "0123456789", 7));
+		participant.setDna_match_partner_id(random.nextInt(100) - 1);
+		participant.setDna_match(random.nextInt(8) == 0 ? null : TestData.randomString(random, alphabet, random.nextInt(40)));
+		return participant;
+	}
+
+	// Lengths of matches that end in the cells of a boundary, up to the longest sequences
+	private static int[] randomBoundary(Random random, int length) {
+		int[] boundary = new int[length];
+		for (int i = 0; i < length; i++)
+			boundary[i] = random.nextInt(Integer.MAX_VALUE) >> random.nextInt(31);
+		return boundary;
+	}
+
+	// Read a private field of a message, which has no getters for the fields that only the worker reads
+	private static Object field(Object object, String name) {
+		try {
+			Field field = object.getClass().getDeclaredField(name);
+			field.setAccessible(true);
+			return field.get(object);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// Render all fields of an object recursively, so that messages can be compared without equals methods
+	private static String describe(Object value) {
+		if (value == null || value instanceof Number || value instanceof Boolean)
+			return String.valueOf(value);
+		if (value instanceof String)
+			return '"' + (String) value + '"';
+		StringBuilder builder = new StringBuilder("[");
+		if (value.getClass().isArray()) {
+			for (int i = 0; i < Array.getLength(value); i++)
+				builder.append(describe(Array.get(value, i))).append(',');
+			return builder.append(']').toString();
+		}
+		for (Class<?> type = value.getClass(); type != Object.class; type = type.getSuperclass()) {
+			for (Field field : type.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()))
+					continue;
+				field.setAccessible(true);
+				try {
+					builder.append(field.getName()).append('=').append(describe(field.get(value))).append(',');
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+		return builder.append(']').toString();
+	}
+}
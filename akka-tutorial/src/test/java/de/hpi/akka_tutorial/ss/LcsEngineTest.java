@@ -0,0 +1,88 @@
+package de.hpi.akka_tutorial.ss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.hpi.akka_tutorial.TestData;
+
+/**
+ * Checks all {@link LcsEngine}s and the {@link SuffixAutomaton} against the full matrix approach and the
+ * {@link GeneralizedSuffixAutomaton} against all pairs. The random strings use small alphabets, so that there are many
+ * equally long matches, span several words of packed DNA and sometimes contain an N, which cannot be packed.
+ */
+public class LcsEngineTest {
+
+	@Test
+	public void enginesMatchTheFullMatrix() {
+		final Random random = new Random(42);
+		for (LcsEngine.Kind kind : LcsEngine.Kind.values()) {
+			LcsEngine engine = kind.create();
+			for (int round = 0; round < 2000; round++) {
+				String a = TestData.randomString(random, "ACGTN".substring(0, 1 + random.nextInt(5)), random.nextInt(150));
+				String b = TestData.randomString(random, "ACGTN".substring(0, 1 + random.nextInt(5)), random.nextInt(150));
+				assertEquals(kind + " for " + a + " and " + b, TestData.fullMatrixLcs(a, b), engine.longestCommonSubstring(a, b));
+				assertEquals(kind + " for packed " + a + " and " + b, TestData.fullMatrixLcs(a, b), engine.longestCommonSubstring(PackedDna.of(a), PackedDna.of(b)));
+			}
+		}
+	}
+
+	@Test
+	public void cachedSuffixAutomatonMatchesTheFullMatrix() {
+
+		// A few first strings, which do not all fit into the cache, so that automata are evicted and built again
+		final Random random = new Random(42);
+		final SuffixAutomatonCache cache = new SuffixAutomatonCache(1 << 16);
+		final String[] firsts = new String[20];
+		for (int i = 0; i < firsts.length; i++)
+			firsts[i] = TestData.randomString(random, "ACGT".substring(0, 1 + random.nextInt(4)), random.nextInt(150));
+		for (int round = 0; round < 2000; round++) {
+			String a = firsts[round % firsts.length];
+			String b = TestData.randomString(random, "ACGTN".substring(0, 1 + random.nextInt(5)), random.nextInt(150));
+			assertEquals("Automaton for " + a + " and " + b, TestData.fullMatrixLcs(a, b), cache.get(round % firsts.length, PackedDna.of(a)).longestCommonSubstring(PackedDna.of(b)));
+		}
+	}
+
+	@Test
+	public void generalizedSuffixAutomatonFindsTheBestPartners() {
+		final Random random = new Random(42);
+		for (int round = 0; round < 200; round++) {
+			String[] strings = new String[2 + random.nextInt(8)];
+			for (int i = 0; i < strings.length; i++)
+				strings[i] = TestData.randomString(random, "ACGT".substring(0, 1 + random.nextInt(4)), random.nextInt(40));
+			GeneralizedSuffixAutomaton.Match[] matches = GeneralizedSuffixAutomaton.bestPartners(strings);
+			for (int i = 0; i < strings.length; i++) {
+
+				// Ties may pick any partner, so only the length of the match must be that of the best pair
+				int expected = 0;
+				for (int j = 0; j < strings.length; j++)
+					if (j != i)
+						expected = Math.max(expected, TestData.fullMatrixLcs(strings[i], strings[j]).length());
+				String message = strings[i] + " in " + Arrays.toString(strings);
+				GeneralizedSuffixAutomaton.Match match = matches[i];
+				if (match == null) {
+					assertEquals(message, 0, expected);
+					continue;
+				}
+				assertEquals(message, expected, match.substring().length());
+				assertNotEquals(message, i, match.partner());
+				assertTrue(message, strings[i].contains(match.substring()) && strings[match.partner()].contains(match.substring()));
+			}
+		}
+	}
+
+	@Test
+	public void emptyStringsHaveNoCommonSubstring() {
+		for (LcsEngine.Kind kind : LcsEngine.Kind.values()) {
+			assertEquals(kind.toString(), "", kind.create().longestCommonSubstring("", "ACGT"));
+			assertEquals(kind.toString(), "", kind.create().longestCommonSubstring("ACGT", ""));
+		}
+		assertNull(GeneralizedSuffixAutomaton.bestPartners(new String[] { "", "ACGT" })[0]);
+	}
+}
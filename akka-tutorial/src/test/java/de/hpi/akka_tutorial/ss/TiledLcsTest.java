@@ -0,0 +1,41 @@
+package de.hpi.akka_tutorial.ss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.hpi.akka_tutorial.TestData;
+
+public class TiledLcsTest {
+
+	@Test
+	public void tilesOfAllSizesMatchTheFullMatrix() {
+		final Random random = new Random(42);
+		for (int round = 0; round < 1000; round++) {
+			String a = TestData.randomString(random, "ACGT".substring(0, 1 + random.nextInt(4)), 1 + random.nextInt(120));
+			String b = TestData.randomString(random, "ACGT".substring(0, 1 + random.nextInt(4)), 1 + random.nextInt(120));
+			int tileSize = 1 + random.nextInt(40);
+			TiledLcs tiles = computeTiles(new TiledLcs(PackedDna.of(a), PackedDna.of(b), tileSize));
+			assertEquals("Tiles of " + tileSize + " for " + a + " and " + b, TestData.fullMatrixLcs(a, b), tiles.longestCommonSubstring());
+		}
+	}
+
+	// Compute all tiles in wavefront order, like the SSMaster schedules them
+	private static TiledLcs computeTiles(TiledLcs tiles) {
+		Deque<int[]> ready = new ArrayDeque<>();
+		ready.add(new int[] { 0, 0 });
+		while (!ready.isEmpty()) {
+			int[] tile = ready.poll();
+			TiledLcs.Tile result = TiledLcs.compute(tiles.rowBases(tile[0]).toString(), tiles.columnBases(tile[1]).toString(),
+					tiles.top(tile[0], tile[1]), tiles.left(tile[0], tile[1]));
+			ready.addAll(tiles.complete(tile[0], tile[1], result));
+		}
+		assertTrue("Not all tiles became ready", tiles.isComplete());
+		return tiles;
+	}
+}